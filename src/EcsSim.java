@@ -1,7 +1,28 @@
+import facilities.FacilityType;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import javax.management.JMException;
+import jdk.jfr.EventType;
+import metrics.ConcurrentHistogram;
+import metrics.Histogram;
+import metrics.PhaseEvent;
+import metrics.PhaseProfiler;
+import metrics.SimulationMonitor;
+import metrics.TraceFile;
+import metrics.Tracer;
+import metrics.YearEvent;
+import university.CycleDetector;
+import university.LookaheadPlanner;
+import university.Money;
 import university.Staff;
+import university.StaffMarketTemplate;
+import university.StaffMarketView;
+import university.TimeSeries;
+import university.TransactionJournal;
 import university.University;
 
 /**
@@ -14,46 +35,115 @@ import university.University;
 public class EcsSim {
 
   private University university;
-  private ArrayList<Staff> availableStaff;
-  private File staffFile;
+  private StaffMarketView staffMarket;
+  // finds cycles of states of the university, and the number of years simulated or skipped so far
+  private CycleDetector cycleDetector = new CycleDetector();
+  private int year = 0;
+  // the history of the metrics at the end of every year, if kept, and the row reused to record them
+  private TimeSeries history;
+  private double[] historyRow = new double[HISTORY_METRICS.length];
+  // times the phases of every year, if set
+  private PhaseProfiler profiler;
+  // the durations of the years simulated in full, shared by every simulation profiled, if set
+  private ConcurrentHistogram yearDurations;
+  // records the years and phases as trace events, if set, and when the phase running now started
+  private Tracer tracer;
+  private long phaseStart;
+  // publishes the state of the simulation over JMX at the end of every year, if set
+  private SimulationMonitor monitor;
+  // the flight recorder event of the phase running now, null if phase events aren't enabled
+  private PhaseEvent phaseEvent;
   // static, I would've added it to the constructor instead but I wanted to follow the
   // specification
   private static String fileName;
+  // the staff market read from the staff file, read once and shared by every simulation
+  private static StaffMarketTemplate staffMarketTemplate;
 
   // green, cyan, red, yellow (all bright) color codes for coloring text in the console
   private static final String[] ANSI_COLOR_CODES = {"\u001B[92m", "\u001B[96m", "\u001B[91m",
       "\u001B[93m"};
   // resets the coloring so the text after it is not colored
   private static final String ANSI_RESET = "\u001B[0m";
+  // the format of the program's arguments, shown when they are wrong
+  private static final String USAGE = " java EcsSim <staff filename (String)> <starting funding "
+      + "(Integer)> <number of years to simulate (Integer)> [--league <number of universities "
+      + "(Integer)>] [--seed <seed (Long)>] [--ensemble <number of simulations (Integer)>] "
+      + "[--facilities <facility types filename (String)>] [--lookahead <number of years "
+      + "(Integer)>] [--lookahead-budget <milliseconds per decision (Integer)>] "
+      + "[--lookahead-nodes <states per decision (Integer)>] [--journal <transaction journal "
+      + "filename (String)>] [--history <history filename (String)>] "
+      + "[--history-points <maximum number of points (Integer)>] [--profile] [--jmx] [--trace "
+      + "<trace filename (String)>]";
+  // the number of most recent transactions kept by the journal of each university
+  private static final int JOURNAL_CAPACITY = 1 << 20;
+  // the metrics kept in the history of a simulation, in the order of its columns
+  private static final String[] HISTORY_METRICS = {"budget", "reputation", "students"};
+  // the phases of a year, in the order simulate runs them in
+  private static final String[] PHASES = {"1a buildAndUpgrade", "1b collectStudentMoney",
+      "1b collectRecreationalProfits", "1c hireStaff", "2 instructStudents",
+      "3a payMaintenanceCosts", "3b payStaffSalaries", "3c increaseStaffExperience",
+      "3d decreaseReputation", "3e updateStaffRoster", "3f replenishAllStamina"};
+  // looked up once, so a year can check whether year and phase events are enabled before creating
+  // any
+  private static final EventType YEAR_EVENT_TYPE = EventType.getEventType(YearEvent.class);
+  private static final EventType PHASE_EVENT_TYPE = EventType.getEventType(PhaseEvent.class);
 
   /**
    * Constructs a new EcsSim and creates a new university within it with the given funding. Also
-   * creates a new array list of staff and fills it with staff from the given file.
+   * creates a new staff market with the staff from the given file.
    *
    * @param funding the funding of the university
-   * @see #createStaffList
+   * @see #createStaffMarket
    */
   public EcsSim(int funding) {
     university = new University(funding);
-    availableStaff = new ArrayList<Staff>();
-    createStaffList();
+    createStaffMarket();
   }
 
   /**
-   * Creates a new array list of staff and fills it with staff from the staff configuration file.
+   * Creates a new staff market for this simulation with the staff from the staff configuration
+   * file. The file is only read by the first simulation, every simulation after it gets a new view
+   * of the same staff market template.
+   *
+   * @see #getStaffMarketTemplate()
+   */
+  public void createStaffMarket() {
+    staffMarket = getStaffMarketTemplate().createView();
+  }
+
+  /**
+   * Returns the staff market template read from the staff configuration file, reading it if it
+   * hasn't been read yet. Synchronized as simulations running on different threads share it.
+   *
+   * @return the staff market template read from the staff configuration file
+   * @see #readStaffFile(String)
+   */
+  public static synchronized StaffMarketTemplate getStaffMarketTemplate() {
+    if (staffMarketTemplate == null) {
+      staffMarketTemplate = new StaffMarketTemplate(readStaffFile(fileName));
+    }
+    return staffMarketTemplate;
+  }
+
+  /**
+   * Reads the staff from the given staff configuration file into a new array list of staff. Each
+   * line of the file is a staff member in the format "name (skill)".
+   *
+   * @param fileName the name of the staff configuration file
+   * @return the staff in the staff configuration file
    */
-  public void createStaffList() {
+  public static ArrayList<Staff> readStaffFile(String fileName) {
+    ArrayList<Staff> staff = new ArrayList<Staff>();
     try {
-      staffFile = new File(fileName);
       // using scanner as it's just simpler than using a BufferedReader
-      try (Scanner scanner = new Scanner(staffFile)) {
+      try (Scanner scanner = new Scanner(new File(fileName))) {
         while (scanner.hasNextLine()) {
           // splits the line into the name and skill of the staff member by splitting the line at
           // the first "("
           String[] staffDetails = scanner.nextLine().split("\\(");
           // adds the staff member to the array list of staff, the skill is gotten by removing the
           // ")" from the end of the skill string and parsing it as an integer
-          availableStaff.add(new Staff(staffDetails[0].strip(),
+          staff.add(new Staff(staffDetails[0].strip(),
               Integer.parseInt(staffDetails[1].strip().replace(")", ""))));
         }
       }
@@ -61,6 +151,7 @@ public class EcsSim {
       System.out.println("Error: " + e);
       e.printStackTrace();
     }
+    return staff;
   }
 
   /**
@@ -73,27 +164,269 @@ public class EcsSim {
    * minimizing staff costs by minimally hiring (while trying to keep a balance with stamina).
    */
   public void simulate() {
+    long yearStart = yearDurations == null && tracer == null ? 0 : System.nanoTime();
+    YearEvent yearEvent = YEAR_EVENT_TYPE.isEnabled() ? new YearEvent() : null;
+    if (yearEvent != null) {
+      yearEvent.begin();
+    }
     System.out.print(ANSI_COLOR_CODES[0]); // color the beginning section of the year
+    long mark = startPhases();
     university.buildAndUpgrade(); // 1a
+    mark = endPhase(0, mark);
 
     university.collectStudentMoney(); // 1b
+    mark = endPhase(1, mark);
     university.collectRecreationalProfits();
+    mark = endPhase(2, mark);
 
-    availableStaff = university.hireStaff(availableStaff); // 1c
+    university.hireStaff(staffMarket); // 1c
+    mark = endPhase(3, mark);
 
     System.out.println(ANSI_RESET
         + ANSI_COLOR_CODES[1]); // reset the coloring and color the during section of the year
+    mark = startPhases();
     final int uninstructedStudents = university.instructStudents(); // 2
+    mark = endPhase(4, mark);
 
     System.out.println(ANSI_RESET
         + ANSI_COLOR_CODES[2]); // reset the coloring and color the end section of the year
+    mark = startPhases();
     university.payMaintenanceCosts(); // 3a
+    mark = endPhase(5, mark);
     university.payStaffSalaries(); // 3b
+    mark = endPhase(6, mark);
     university.increaseStaffExperience(); // 3c
+    mark = endPhase(7, mark);
     university.decreaseReputationByUninstructedStudents(uninstructedStudents); // 3d
+    mark = endPhase(8, mark);
     university.updateStaffRoster(); // 3e
+    mark = endPhase(9, mark);
     university.replenishAllStamina(); // 3f
+    endPhase(10, mark);
+    if (yearEvent != null) {
+      yearEvent.commit(year, Money.toDouble(university.getExactBudget()),
+          university.getReputation(), university.getNumberOfStudents(),
+          university.getNumberOfStaff());
+    }
+    year++;
+    recordHistory();
+    publishSnapshot();
     System.out.print(ANSI_RESET); // reset the coloring
+    if (yearDurations != null || tracer != null) {
+      long yearEnd = System.nanoTime();
+      if (yearDurations != null) {
+        yearDurations.record(yearEnd - yearStart);
+      }
+      if (tracer != null) {
+        tracer.span("year", "year", yearStart, yearEnd, year - 1);
+      }
+    }
+  }
+
+  /**
+   * Fast-forwards through up to the given number of years while the university is in a steady
+   * state, in which every year is exactly like the one before it, or going round a cycle of
+   * states. Returns the number of years fast-forwarded, or 0 if the coming year has to be
+   * simulated in full.
+   *
+   * @param maximumYears the maximum number of years to fast-forward
+   * @return the number of years fast-forwarded
+   * @see University#fastForward(int, university.StaffMarket)
+   * @see CycleDetector#skipCycles(int, University, int)
+   */
+  public int fastForward(int maximumYears) {
+    int years = university.fastForward(maximumYears, staffMarket);
+    if (years == 0) {
+      years = cycleDetector.skipCycles(year, university, maximumYears);
+    }
+    if (years > 0) {
+      if (tracer != null) {
+        tracer.instant("fast-forward", "year", year, years + " years");
+      }
+      year += years;
+      recordHistory();
+      publishSnapshot();
+    }
+    return years;
+  }
+
+  /**
+   * Marks the start of the next phase of the year for the profiler and the tracer, if there are
+   * any, and begins its flight recorder event, if phase events are enabled. The printing between
+   * the sections of the year isn't counted towards any phase.
+   *
+   * @return the mark the phase starts from, 0 if there is no profiler
+   */
+  private long startPhases() {
+    beginPhaseEvent();
+    if (tracer != null) {
+      phaseStart = System.nanoTime();
+    }
+    return profiler == null ? 0 : profiler.start();
+  }
+
+  /**
+   * Marks the end of the given phase of the year for the profiler and the tracer, if there are
+   * any, and commits its flight recorder event, beginning the next phase's, if phase events are
+   * enabled.
+   *
+   * @param phase the index of the phase in PHASES
+   * @param mark  the mark the phase started from
+   * @return the mark the next phase starts from, 0 if there is no profiler
+   * @see PhaseProfiler#lap(int, long)
+   */
+  private long endPhase(int phase, long mark) {
+    if (phaseEvent != null) {
+      phaseEvent.commit(year, PHASES[phase]);
+      phaseEvent = null;
+    }
+    if (phase + 1 < PHASES.length) {
+      beginPhaseEvent();
+    }
+    if (tracer != null) {
+      long now = System.nanoTime();
+      tracer.span(PHASES[phase], "phase", phaseStart, now, year);
+      phaseStart = now;
+    }
+    return profiler == null ? 0 : profiler.lap(phase, mark);
+  }
+
+  /**
+   * Begins the flight recorder event of the next phase of the year, if phase events are enabled.
+   * Nothing is created otherwise, so the phases cost no more than a check when nothing is being
+   * recorded.
+   *
+   * @see PhaseEvent
+   */
+  private void beginPhaseEvent() {
+    if (PHASE_EVENT_TYPE.isEnabled()) {
+      phaseEvent = new PhaseEvent();
+      phaseEvent.begin();
+    } else {
+      phaseEvent = null;
+    }
+  }
+
+  /**
+   * Times every phase of every year from now on, and counts the bytes it allocates, with the given
+   * profiler.
+   *
+   * @param profiler the profiler, or null to stop profiling
+   * @see #createProfiler()
+   */
+  public void setProfiler(PhaseProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * Records how long every year simulated in full takes from now on, in nanoseconds, in the given
+   * histogram. The histogram can be shared by simulations running on different threads.
+   *
+   * @param yearDurations the histogram to record the durations in, or null to stop recording them
+   */
+  public void setYearDurations(ConcurrentHistogram yearDurations) {
+    this.yearDurations = yearDurations;
+  }
+
+  /**
+   * Records every year simulated in full and every phase of it as spans, and hires, retirements,
+   * builds, and upgrades as instant events, with the given tracer from now on.
+   *
+   * @param tracer the tracer, or null to stop tracing
+   * @see University#setTracer(Tracer)
+   */
+  public void setTracer(Tracer tracer) {
+    this.tracer = tracer;
+    university.setTracer(tracer);
+  }
+
+  /**
+   * Creates a new profiler for the phases of a year.
+   *
+   * @return the profiler
+   */
+  public static PhaseProfiler createProfiler() {
+    return new PhaseProfiler(PHASES);
+  }
+
+  /**
+   * Keeps a history of the budget, reputation, and number of students of the university at the
+   * end of every year from now on, in the given time series.
+   *
+   * @param history the time series to record the history in, or null to stop recording it
+   * @see #createHistory(int)
+   */
+  public void setHistory(TimeSeries history) {
+    this.history = history;
+  }
+
+  /**
+   * Creates a new, empty time series for the history of a simulation, with a column for each of
+   * the budget, reputation, and number of students.
+   *
+   * @param maximumLength the maximum number of points the history keeps
+   * @return the time series
+   */
+  public static TimeSeries createHistory(int maximumLength) {
+    return new TimeSeries(HISTORY_METRICS, maximumLength);
+  }
+
+  /**
+   * Records the budget, reputation, and number of students of the university at the end of the
+   * current year in the history, if one is kept. A year fast-forwarded past is recorded as the
+   * year it ended on.
+   */
+  private void recordHistory() {
+    if (history == null) {
+      return;
+    }
+    historyRow[0] = university.getBudget();
+    historyRow[1] = university.getReputation();
+    historyRow[2] = university.getNumberOfStudents();
+    history.add(year, historyRow);
+  }
+
+  /**
+   * Publishes the state of the simulation over JMX from now on with the given monitor, at the end
+   * of every year. The mean duration of every phase is only published if the simulation has a
+   * profiler.
+   *
+   * @param monitor the monitor, or null to stop publishing
+   * @see #createMonitor()
+   * @see #setProfiler(PhaseProfiler)
+   */
+  public void setMonitor(SimulationMonitor monitor) {
+    this.monitor = monitor;
+  }
+
+  /**
+   * Creates a new monitor for this simulation, starting at its current year.
+   *
+   * @return the monitor
+   */
+  public SimulationMonitor createMonitor() {
+    return new SimulationMonitor(PHASES, year);
+  }
+
+  /**
+   * Publishes a snapshot of the university at the end of the current year to the monitor, if
+   * there is one.
+   */
+  private void publishSnapshot() {
+    if (monitor == null) {
+      return;
+    }
+    monitor.publish(year, Money.toDouble(university.getExactBudget()), university.getReputation(),
+        university.getNumberOfStudents(), university.getNumberOfStaff(), profiler);
+  }
+
+  /**
+   * Returns the university being simulated.
+   *
+   * @return the university being simulated
+   */
+  public University getUniversity() {
+    return university;
   }
 
   /**
@@ -101,7 +434,8 @@ public class EcsSim {
    * number of students at the beginning and end of each year. It asks the user whether to continue
    * the simulation or not at the end of the given number of years, and requires the extra number
    * of years to simulate if yes. Also prints the budget, reputation, and number of students at the
-   * end of the simulation.
+   * end of the simulation. Years in which the university is in a steady state are fast-forwarded
+   * in one go rather than simulated one by one.
    *
    * @param numberOfYears the number of years to simulate
    * @throws NumberFormatException if answered with a wrong format to the question of whether to continue simulation
@@ -114,6 +448,17 @@ public class EcsSim {
               + university.getBudget() + " Reputation: " + university.getReputation() + " Students: "
               + university.getNumberOfStudents() + "\n" + ANSI_RESET); // ansi codes for coloring
       for (int i = 0; i < numberOfYears + 1; i++) {
+        // skips past the years in a steady state, stopping short of the last year so the question
+        // of whether to continue is still asked after it
+        int steadyYears = fastForward(numberOfYears - 1 - i);
+        if (steadyYears > 0) {
+          System.out.println(
+              ANSI_COLOR_CODES[3] + "Years " + (i + 1) + " to " + (i + steadyYears)
+                  + " were steady and fast-forwarded: " + "Budget: " + university.getBudget()
+                  + " Reputation: " + university.getReputation() + " Students: "
+                  + university.getNumberOfStudents() + "\n\n" + ANSI_RESET);
+          i += steadyYears;
+        }
         System.out.println(ANSI_COLOR_CODES[3] + "Year " + (i + 1) + ":" + ANSI_RESET);
         simulate();
         System.out.println(
@@ -151,30 +496,395 @@ public class EcsSim {
             + university.getNumberOfStudents() + ANSI_RESET); // once again, anci codes for coloring
   }
 
+  /**
+   * Gives every one of the given universities a new transaction journal, returning the journals in
+   * the order of the universities, or returns null without doing anything if there is no journal
+   * file to write them to.
+   *
+   * @param universities    the universities
+   * @param journalFileName the name of the file the journals will be written to, or null for none
+   * @return the journals of the universities, or null if there are none
+   */
+  private static TransactionJournal[] startJournals(University[] universities,
+      String journalFileName) {
+    if (journalFileName == null) {
+      return null;
+    }
+    TransactionJournal[] journals = new TransactionJournal[universities.length];
+    for (int i = 0; i < universities.length; i++) {
+      journals[i] = new TransactionJournal(JOURNAL_CAPACITY);
+      universities[i].setJournal(journals[i]);
+    }
+    return journals;
+  }
+
+  /**
+   * Writes the given transaction journals to the journal file, adding the number of the university
+   * to the file name if there is more than one journal. Does nothing if there are no journals.
+   *
+   * @param journals        the journals, or null for none
+   * @param journalFileName the name of the file to write the journals to
+   * @throws IOException if a journal file can't be written
+   * @see TransactionJournal#writeTo(java.nio.file.Path)
+   */
+  private static void writeJournals(TransactionJournal[] journals, String journalFileName)
+      throws IOException {
+    if (journals == null) {
+      return;
+    }
+    for (int i = 0; i < journals.length; i++) {
+      String name = journals.length == 1 ? journalFileName : journalFileName + "." + (i + 1);
+      journals[i].writeTo(Paths.get(name));
+      System.out.println("Wrote " + journals[i].size() + " of "
+          + journals[i].getNumberOfRecorded() + " transactions to " + name + ".");
+    }
+  }
+
+  /**
+   * Gives every one of the given simulations a new history, returning the histories in the order
+   * of the simulations, or returns null without doing anything if there is no history file to
+   * write them to.
+   *
+   * @param simulations     the simulations
+   * @param historyFileName the name of the file the histories will be written to, or null for none
+   * @param historyPoints   the maximum number of points each history keeps
+   * @return the histories of the simulations, or null if there are none
+   */
+  private static TimeSeries[] startHistories(EcsSim[] simulations, String historyFileName,
+      int historyPoints) {
+    if (historyFileName == null) {
+      return null;
+    }
+    TimeSeries[] histories = new TimeSeries[simulations.length];
+    for (int i = 0; i < simulations.length; i++) {
+      histories[i] = createHistory(historyPoints);
+      simulations[i].setHistory(histories[i]);
+    }
+    return histories;
+  }
+
+  /**
+   * Writes the given histories to the history file, adding the number of the simulation to the
+   * file name if there is more than one history. Does nothing if there are no histories.
+   *
+   * @param histories       the histories, or null for none
+   * @param historyFileName the name of the file to write the histories to
+   * @throws IOException if a history file can't be written
+   * @see TimeSeries#writeCsv(java.nio.file.Path)
+   */
+  private static void writeHistories(TimeSeries[] histories, String historyFileName)
+      throws IOException {
+    if (histories == null) {
+      return;
+    }
+    for (int i = 0; i < histories.length; i++) {
+      String name = histories.length == 1 ? historyFileName : historyFileName + "." + (i + 1);
+      histories[i].writeCsv(Paths.get(name));
+      System.out.println("Wrote " + histories[i].size() + " points of history to " + name + ".");
+    }
+  }
+
+  /**
+   * Gives every one of the given simulations a new profiler, returning the profilers in the order
+   * of the simulations, or returns null without doing anything if they aren't being profiled.
+   *
+   * @param simulations the simulations
+   * @param profile     whether the simulations are being profiled
+   * @return the profilers of the simulations, or null if there are none
+   */
+  private static PhaseProfiler[] startProfilers(EcsSim[] simulations, boolean profile) {
+    if (!profile) {
+      return null;
+    }
+    PhaseProfiler[] profilers = new PhaseProfiler[simulations.length];
+    for (int i = 0; i < simulations.length; i++) {
+      profilers[i] = createProfiler();
+      simulations[i].setProfiler(profilers[i]);
+    }
+    return profilers;
+  }
+
+  /**
+   * Creates the trace file and gives every one of the given simulations a new tracer writing to
+   * it, returning the file, or returns null without doing anything if there is no trace file.
+   *
+   * @param simulations   the simulations
+   * @param traceFileName the name of the trace file, or null for none
+   * @return the trace file, or null if there is none
+   * @throws IOException if the trace file can't be created
+   */
+  private static TraceFile startTrace(EcsSim[] simulations, String traceFileName)
+      throws IOException {
+    if (traceFileName == null) {
+      return null;
+    }
+    TraceFile traceFile = new TraceFile(Paths.get(traceFileName));
+    for (int i = 0; i < simulations.length; i++) {
+      simulations[i].setTracer(traceFile.createTracer(i + 1));
+    }
+    return traceFile;
+  }
+
+  /**
+   * Writes the rest of the events to the given trace file and closes it. Does nothing if there is
+   * no trace file.
+   *
+   * @param traceFile     the trace file, or null for none
+   * @param traceFileName the name of the trace file
+   * @throws IOException if the trace file can't be written
+   * @see TraceFile#close()
+   */
+  private static void closeTrace(TraceFile traceFile, String traceFileName) throws IOException {
+    if (traceFile == null) {
+      return;
+    }
+    traceFile.close();
+    System.out.println("Wrote " + traceFile.getNumberOfEvents() + " trace events to "
+        + traceFileName + ".");
+  }
+
+  /**
+   * Gives every one of the given simulations a new monitor registered over JMX, named after the
+   * number of the simulation, returning the monitors in the order of the simulations, or returns
+   * null without doing anything if they aren't being monitored.
+   *
+   * @param simulations the simulations
+   * @param jmx         whether the simulations are being monitored
+   * @return the monitors of the simulations, or null if there are none
+   * @throws JMException if a monitor can't be registered
+   * @see SimulationMonitor#register(String)
+   */
+  private static SimulationMonitor[] startMonitors(EcsSim[] simulations, boolean jmx)
+      throws JMException {
+    if (!jmx) {
+      return null;
+    }
+    SimulationMonitor[] monitors = new SimulationMonitor[simulations.length];
+    for (int i = 0; i < simulations.length; i++) {
+      monitors[i] = simulations[i].createMonitor();
+      monitors[i].register("simulation-" + (i + 1));
+      simulations[i].setMonitor(monitors[i]);
+    }
+    return monitors;
+  }
+
+  /**
+   * Unregisters the given monitors. Does nothing if there are no monitors.
+   *
+   * @param monitors the monitors, or null for none
+   * @throws JMException if a monitor can't be unregistered
+   */
+  private static void stopMonitors(SimulationMonitor[] monitors) throws JMException {
+    if (monitors == null) {
+      return;
+    }
+    for (SimulationMonitor monitor : monitors) {
+      monitor.unregister();
+    }
+  }
+
+  /**
+   * Gives every one of the given simulations the same new histogram to record the durations of
+   * their years in, returning it, or returns null without doing anything if they aren't being
+   * profiled.
+   *
+   * @param simulations the simulations
+   * @param profile     whether the simulations are being profiled
+   * @return the histogram of the durations of the years, or null if there is none
+   */
+  private static ConcurrentHistogram startYearDurations(EcsSim[] simulations, boolean profile) {
+    if (!profile) {
+      return null;
+    }
+    ConcurrentHistogram yearDurations = new ConcurrentHistogram();
+    for (EcsSim simulation : simulations) {
+      simulation.setYearDurations(yearDurations);
+    }
+    return yearDurations;
+  }
+
+  /**
+   * Adds up the given profilers and prints the table of the percentiles of every phase, followed
+   * by the percentiles of the durations of whole years. Does nothing if there are no profilers.
+   *
+   * @param profilers     the profilers, or null for none
+   * @param yearDurations the histogram of the durations of the years
+   * @see PhaseProfiler#printTable(java.io.PrintStream)
+   */
+  private static void printProfile(PhaseProfiler[] profilers, ConcurrentHistogram yearDurations) {
+    if (profilers == null) {
+      return;
+    }
+    PhaseProfiler total = createProfiler();
+    for (PhaseProfiler profiler : profilers) {
+      total.add(profiler);
+    }
+    System.out.println("Phase timings over " + profilers.length + " simulation(s):");
+    total.printTable(System.out);
+    Histogram years = yearDurations.snapshot();
+    System.out.printf("Years simulated in full: %d, p50 %.1f us, p90 %.1f us, p99 %.1f us, "
+        + "p99.9 %.1f us, max %.1f us%n", years.getCount(), years.getValueAtPercentile(50) / 1e3,
+        years.getValueAtPercentile(90) / 1e3, years.getValueAtPercentile(99) / 1e3,
+        years.getValueAtPercentile(99.9) / 1e3, years.getMaximum() / 1e3);
+  }
+
   /**
    * The main method of the program. Creates a new EcsSim with the given staff file and funding,
-   * then simulates the given number of years.
+   * then simulates the given number of years. If "--league" is passed followed by a number of
+   * universities, a league of that many universities sharing one staff market is simulated
+   * instead, with "--seed" optionally setting the seed used to break ties for staff. If
+   * "--ensemble" is passed followed by a number of simulations, that many independent simulations
+   * are run in parallel instead. If "--facilities" is passed followed by a facility type
+   * configuration file, the facility types in it are loaded before any university is created. If
+   * "--lookahead" is passed followed by a number of years, every university plans its buildings
+   * that many years ahead, taking at most "--lookahead-budget" milliseconds (5 by default) for each
+   * decision, or valuing at most "--lookahead-nodes" states for each decision if that is passed
+   * instead, which makes the plans the same on every run. If "--journal" is passed followed by a
+   * file name, every change to the budget of every university is recorded and the most recent ones
+   * are written to that file at the end, followed by the number of the university if there is more
+   * than one. If "--history" is passed followed by a file name, the budget, reputation, and number
+   * of students of every simulation at the end of every year are kept, downsampled to at most
+   * "--history-points" points (4096 by default), and written to that file as comma separated values
+   * at the end, in the same way. If "--profile" is passed, every phase of every year is timed and a
+   * table of the percentiles of their durations is printed at the end, followed by the percentiles
+   * of whole years. If "--jmx" is passed, every simulation is registered as an MBean named
+   * "ecssim:type=Simulation,name=simulation-" followed by its number, showing its year, budget,
+   * reputation, students, staff, years a second, and the mean duration of every phase while it
+   * runs. If "--trace" is passed followed by a file name, every year and phase of every simulation,
+   * and every hire, retirement, build, and upgrade, is written to that file as trace events for
+   * Perfetto or chrome://tracing, with every thread running simulations on a track of its own. A
+   * league keeps no history and isn't profiled, monitored, or traced.
    *
    * @param args the arguments passed to the program
    * @throws ArrayIndexOutOfBoundsException if there are not enough arguments passed to the program
    * @throws NumberFormatException          if the budget and/or years arguments passed to the
    *                                        program are not of the correct type
+   * @throws IllegalArgumentException       if an unknown option is passed to the program or the
+   *                                        facility type configuration file is invalid
+   * @see League
+   * @see Ensemble
+   * @see FacilityType#load(String)
    */
   public static void main(String[] args) {
     try {
       fileName = args[0];
-      EcsSim ecsSim = new EcsSim(Integer.parseInt(args[1]));
-      ecsSim.simulate(Integer.parseInt(args[2]));
+      int funding = Integer.parseInt(args[1]);
+      int numberOfYears = Integer.parseInt(args[2]);
+      int numberOfUniversities = 0;
+      int numberOfSimulations = 0;
+      long seed = 0;
+      int lookahead = 0;
+      int lookaheadBudget = 5;
+      int lookaheadNodes = 0;
+      String journalFileName = null;
+      String historyFileName = null;
+      int historyPoints = 4096;
+      boolean profile = false;
+      boolean jmx = false;
+      String traceFileName = null;
+      for (int i = 3; i < args.length; i++) {
+        switch (args[i]) {
+          case "--league":
+            numberOfUniversities = Integer.parseInt(args[++i]);
+            break;
+          case "--ensemble":
+            numberOfSimulations = Integer.parseInt(args[++i]);
+            break;
+          case "--seed":
+            seed = Long.parseLong(args[++i]);
+            break;
+          case "--facilities":
+            FacilityType.load(args[++i]);
+            break;
+          case "--lookahead":
+            lookahead = Integer.parseInt(args[++i]);
+            break;
+          case "--lookahead-budget":
+            lookaheadBudget = Integer.parseInt(args[++i]);
+            break;
+          case "--lookahead-nodes":
+            lookaheadNodes = Integer.parseInt(args[++i]);
+            break;
+          case "--journal":
+            journalFileName = args[++i];
+            break;
+          case "--history":
+            historyFileName = args[++i];
+            break;
+          case "--history-points":
+            historyPoints = Integer.parseInt(args[++i]);
+            break;
+          case "--profile":
+            profile = true;
+            break;
+          case "--jmx":
+            jmx = true;
+            break;
+          case "--trace":
+            traceFileName = args[++i];
+            break;
+          default:
+            throw new IllegalArgumentException("Error: Unknown option " + args[i]
+                + " when starting program, please ensure that you use the format:" + USAGE);
+        }
+      }
+      // a budget of states replaces the time budget, the planner takes only one of them
+      LookaheadPlanner planner = lookahead > 0 ? new LookaheadPlanner(lookahead, 16,
+          lookaheadNodes > 0 ? 0 : lookaheadBudget, lookaheadNodes, ForkJoinPool.commonPool())
+          : null;
+      if (numberOfUniversities > 0) {
+        League league = new League(numberOfUniversities, funding, getStaffMarketTemplate(), seed);
+        for (University university : league.getUniversities()) {
+          university.setPlanner(planner);
+        }
+        TransactionJournal[] journals = startJournals(league.getUniversities(), journalFileName);
+        league.simulate(numberOfYears);
+        writeJournals(journals, journalFileName);
+      } else if (numberOfSimulations > 0) {
+        Ensemble ensemble = new Ensemble(numberOfSimulations, funding);
+        ensemble.setPlanner(planner);
+        TransactionJournal[] journals = startJournals(ensemble.getUniversities(), journalFileName);
+        TimeSeries[] histories =
+            startHistories(ensemble.getSimulations(), historyFileName, historyPoints);
+        // the monitors need the phases timed for their mean durations
+        PhaseProfiler[] profilers = startProfilers(ensemble.getSimulations(), profile || jmx);
+        ConcurrentHistogram yearDurations = startYearDurations(ensemble.getSimulations(), profile);
+        SimulationMonitor[] monitors = startMonitors(ensemble.getSimulations(), jmx);
+        TraceFile traceFile = startTrace(ensemble.getSimulations(), traceFileName);
+        ensemble.simulate(numberOfYears);
+        stopMonitors(monitors);
+        closeTrace(traceFile, traceFileName);
+        writeJournals(journals, journalFileName);
+        writeHistories(histories, historyFileName);
+        printProfile(profile ? profilers : null, yearDurations);
+      } else {
+        EcsSim ecsSim = new EcsSim(funding);
+        ecsSim.getUniversity().setPlanner(planner);
+        TransactionJournal[] journals =
+            startJournals(new University[] {ecsSim.getUniversity()}, journalFileName);
+        TimeSeries[] histories =
+            startHistories(new EcsSim[] {ecsSim}, historyFileName, historyPoints);
+        PhaseProfiler[] profilers = startProfilers(new EcsSim[] {ecsSim}, profile || jmx);
+        ConcurrentHistogram yearDurations = startYearDurations(new EcsSim[] {ecsSim}, profile);
+        SimulationMonitor[] monitors = startMonitors(new EcsSim[] {ecsSim}, jmx);
+        TraceFile traceFile = startTrace(new EcsSim[] {ecsSim}, traceFileName);
+        ecsSim.simulate(numberOfYears);
+        stopMonitors(monitors);
+        closeTrace(traceFile, traceFileName);
+        writeJournals(journals, journalFileName);
+        writeHistories(histories, historyFileName);
+        printProfile(profile ? profilers : null, yearDurations);
+      }
     } catch (ArrayIndexOutOfBoundsException e) {
       throw new ArrayIndexOutOfBoundsException(
-          "Error: Missing argument when starting program, please ensure that you use the format: "
-              + "java EcsSim <staff filename (String)> <starting funding (Integer)> <number of "
-              + "years to simulate (Integer)>");
+          "Error: Missing argument when starting program, please ensure that you use the format:"
+              + USAGE);
     } catch (NumberFormatException e) {
       throw new NumberFormatException(
           "Error: Invalid argument when starting program, please ensure that you use the format:"
-              + " java EcsSim <staff filename (String)> <starting funding (Integer)> "
-              + "<number of years to simulate (Integer)>");
+              + USAGE);
+    } catch (IllegalArgumentException e) {
+      throw e;
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import metrics.ConcurrentHistogram;
+import metrics.Histogram;
+import university.LookaheadPlanner;
+import university.University;
+
+/**
+ * An ensemble of independent simulations of the same starting university, run in parallel. Every
+ * simulation has its own university and its own view of the shared staff market template, so the
+ * staff file is only read once however many simulations there are.
+ *
+ * @see EcsSim
+ */
+public class Ensemble {
+
+  private EcsSim[] simulations;
+
+  /**
+   * Constructs a new ensemble of the given number of simulations, each with a university with the
+   * given funding.
+   *
+   * @param numberOfSimulations the number of simulations in the ensemble
+   * @param funding             the funding of each university
+   */
+  public Ensemble(int numberOfSimulations, int funding) {
+    simulations = new EcsSim[numberOfSimulations];
+    for (int i = 0; i < numberOfSimulations; i++) {
+      simulations[i] = new EcsSim(funding);
+    }
+  }
+
+  /**
+   * Sets the lookahead planner of the university of every simulation. The planner keeps no state
+   * between decisions, so every simulation can share it.
+   *
+   * @param planner the lookahead planner, or null for none
+   * @see University#setPlanner(LookaheadPlanner)
+   */
+  public void setPlanner(LookaheadPlanner planner) {
+    for (EcsSim simulation : simulations) {
+      simulation.getUniversity().setPlanner(planner);
+    }
+  }
+
+  /**
+   * Returns the simulations of the ensemble.
+   *
+   * @return the simulations of the ensemble
+   */
+  public EcsSim[] getSimulations() {
+    return simulations.clone();
+  }
+
+  /**
+   * Returns the universities of the simulations, in the order of the simulations.
+   *
+   * @return the universities of the simulations
+   */
+  public University[] getUniversities() {
+    University[] universities = new University[simulations.length];
+    for (int i = 0; i < simulations.length; i++) {
+      universities[i] = simulations[i].getUniversity();
+    }
+    return universities;
+  }
+
+  // the percentiles of the budgets, reputations, and numbers of students printed at the end
+  private static final double[] PERCENTILES = {10, 50, 90};
+
+  /**
+   * Simulates the given number of years of every simulation in parallel, then prints the budget,
+   * reputation, and number of students of every simulation, their mean, and their 10th, 50th and
+   * 90th percentiles. Years in which a simulation is in a steady state are fast-forwarded rather
+   * than simulated one by one. Each simulation records its results into histograms shared by the
+   * whole ensemble as soon as it finishes, with the budget in whole coins and a negative budget
+   * counted as 0.
+   *
+   * @param numberOfYears the number of years to simulate
+   * @throws IllegalStateException if any of the simulations failed
+   */
+  public void simulate(int numberOfYears) {
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(simulations.length, Runtime.getRuntime().availableProcessors()));
+    ConcurrentHistogram budgets = new ConcurrentHistogram();
+    ConcurrentHistogram reputations = new ConcurrentHistogram();
+    ConcurrentHistogram students = new ConcurrentHistogram();
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (EcsSim simulation : simulations) {
+      tasks.add(() -> {
+        // years in a steady state are fast-forwarded, the rest are simulated in full
+        int year = 0;
+        while (year < numberOfYears) {
+          int steadyYears = simulation.fastForward(numberOfYears - year);
+          if (steadyYears == 0) {
+            simulation.simulate();
+            steadyYears = 1;
+          }
+          year += steadyYears;
+        }
+        University university = simulation.getUniversity();
+        budgets.record(Math.round(university.getBudget()));
+        reputations.record(university.getReputation());
+        students.record(university.getNumberOfStudents());
+        return null;
+      });
+    }
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running the ensemble.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to run a simulation of the ensemble.", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+
+    double totalBudget = 0;
+    double totalReputation = 0;
+    double totalStudents = 0;
+    System.out.println("Ensemble complete for " + numberOfYears + " years:");
+    for (int i = 0; i < simulations.length; i++) {
+      University university = simulations[i].getUniversity();
+      totalBudget += university.getBudget();
+      totalReputation += university.getReputation();
+      totalStudents += university.getNumberOfStudents();
+      System.out.println("  Simulation " + (i + 1) + ": Budget: " + university.getBudget()
+          + " Reputation: " + university.getReputation() + " Students: "
+          + university.getNumberOfStudents());
+    }
+    System.out.println("  Mean: Budget: " + totalBudget / simulations.length + " Reputation: "
+        + totalReputation / simulations.length + " Students: "
+        + totalStudents / simulations.length);
+    System.out.println("  Percentiles (p10/p50/p90): Budget: " + percentiles(budgets.snapshot())
+        + " Reputation: " + percentiles(reputations.snapshot()) + " Students: "
+        + percentiles(students.snapshot()));
+  }
+
+  /**
+   * Returns the 10th, 50th and 90th percentiles of the values in the given histogram, separated
+   * by slashes.
+   *
+   * @param histogram the histogram
+   * @return the percentiles of the histogram
+   */
+  private static String percentiles(Histogram histogram) {
+    StringBuilder percentiles = new StringBuilder();
+    for (double percentile : PERCENTILES) {
+      if (percentiles.length() > 0) {
+        percentiles.append('/');
+      }
+      percentiles.append(histogram.getValueAtPercentile(percentile));
+    }
+    return percentiles.toString();
+  }
+}
@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import university.SharedStaffMarket;
+import university.StaffMarketTemplate;
+import university.University;
+
+/**
+ * A league of universities competing for staff from one shared staff market. The universities run
+ * in lockstep years, with each phase of the year running in parallel for every university and the
+ * next phase only starting once every university has finished the previous one. Ties for staff are
+ * broken by a priority order shuffled every year from a fixed seed, so a league run with the same
+ * seed gives every year's ties to the universities in the same order. Only the order is seeded,
+ * the salaries, building names, and staff leaving are still random, so two runs with the same
+ * seed can still hire different staff into different universities.
+ *
+ * @see SharedStaffMarket
+ */
+public class League {
+
+  private University[] universities;
+  private SharedStaffMarket staffMarket;
+  private SharedStaffMarket.Seat[] seats;
+  private Random random;
+  private ExecutorService executor;
+  private int year = 0;
+
+  /**
+   * Constructs a new league of the given number of universities, each with the given funding,
+   * sharing a staff market of the staff in the given staff market template.
+   *
+   * @param numberOfUniversities the number of universities in the league
+   * @param funding              the funding of each university
+   * @param staffMarketTemplate  the staff market template of the shared staff market
+   * @param seed                 the seed used for breaking ties for staff
+   */
+  public League(int numberOfUniversities, int funding, StaffMarketTemplate staffMarketTemplate,
+      long seed) {
+    universities = new University[numberOfUniversities];
+    seats = new SharedStaffMarket.Seat[numberOfUniversities];
+    staffMarket = new SharedStaffMarket(staffMarketTemplate);
+    for (int i = 0; i < numberOfUniversities; i++) {
+      universities[i] = new University(funding);
+      seats[i] = staffMarket.createSeat(i + 1);
+    }
+    random = new Random(seed);
+    executor = Executors.newFixedThreadPool(
+        Math.min(numberOfUniversities, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * Simulates one year of every university in the league. Runs the same phases as EcsSim's
+   * simulate, except that staff are hired from the shared staff market in rounds of bidding and
+   * hiring until no university wants to bid for more staff.
+   *
+   * @see EcsSim#simulate()
+   */
+  public void simulate() {
+    runPhase(i -> {
+      universities[i].buildAndUpgrade(); // 1a
+      universities[i].collectStudentMoney(); // 1b
+      universities[i].collectRecreationalProfits();
+    });
+
+    // shuffles the bidding priorities, so the university that wins ties changes every year
+    ArrayList<Integer> priorities = new ArrayList<Integer>();
+    for (int i = 0; i < universities.length; i++) {
+      priorities.add(i + 1);
+    }
+    Collections.shuffle(priorities, random);
+    for (int i = 0; i < seats.length; i++) {
+      seats[i].setPriority(priorities.get(i));
+    }
+    // 1c, every round at least one bid is won, so this ends once the staff wanted are all hired or
+    // nobody can afford the staff left
+    int[] bidsPlaced = new int[universities.length];
+    boolean bidding = true;
+    while (bidding) {
+      runPhase(i -> bidsPlaced[i] = universities[i].bidForStaff(seats[i]));
+      runPhase(i -> universities[i].hireWonStaff(seats[i]));
+      bidding = false;
+      for (int bids : bidsPlaced) {
+        bidding |= bids > 0;
+      }
+    }
+
+    int[] uninstructedStudents = new int[universities.length];
+    runPhase(i -> uninstructedStudents[i] = universities[i].instructStudents()); // 2
+    runPhase(i -> {
+      universities[i].payMaintenanceCosts(); // 3a
+      universities[i].payStaffSalaries(); // 3b
+      universities[i].increaseStaffExperience(); // 3c
+      universities[i].decreaseReputationByUninstructedStudents(uninstructedStudents[i]); // 3d
+      universities[i].updateStaffRoster(); // 3e
+      universities[i].replenishAllStamina(); // 3f
+    });
+    year++;
+  }
+
+  /**
+   * Simulates the given number of years of the league, printing the budget, reputation, and number
+   * of students of every university at the end of each year.
+   *
+   * @param numberOfYears the number of years to simulate
+   */
+  public void simulate(int numberOfYears) {
+    try {
+      for (int i = 0; i < numberOfYears; i++) {
+        simulate();
+        System.out.println("End of Year " + year + ":");
+        for (int j = 0; j < universities.length; j++) {
+          System.out.println("  University " + (j + 1) + ": Budget: "
+              + universities[j].getBudget() + " Reputation: " + universities[j].getReputation()
+              + " Students: " + universities[j].getNumberOfStudents());
+        }
+        System.out.println("  Staff left in the market: "
+            + staffMarket.getNumberOfAvailableStaff() + "\n");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Returns the universities in the league.
+   *
+   * @return the universities in the league
+   */
+  public University[] getUniversities() {
+    return universities.clone();
+  }
+
+  /**
+   * Runs the given phase for every university in parallel, returning once every university has
+   * finished it.
+   *
+   * @param phase the phase to run, given the index of the university
+   * @throws IllegalStateException if the phase failed for any university
+   */
+  private void runPhase(IntConsumer phase) {
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (int i = 0; i < universities.length; i++) {
+      final int index = i;
+      tasks.add(() -> {
+        phase.accept(index);
+        return null;
+      });
+    }
+    try {
+      // invokeAll waits for every task, which acts as the barrier between phases
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running a phase of the year.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to run a phase of the year.", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package facilities;
+
+/**
+ * The economics of a type of facility at every level it can be at, computed once when the table is
+ * made. Facilities of the same type share their type's table and only keep their own level, so
+ * their capacity, upgrade cost, maintenance cost, and profit are all looked up rather than
+ * calculated.
+ *
+ * @see FacilityType#getEconomics()
+ */
+public final class EconomicsTable {
+
+  private final int maximumLevel;
+  private final int buildCost;
+  // indexed by level, so index 0 is unused
+  private final int[] capacities;
+  private final int[] upgradeCosts;
+  private final float[] maintenanceCosts;
+  private final int[] profits;
+
+  /**
+   * Constructs a new economics table with the given values for every level.
+   *
+   * @param buildCost        the cost of building the facility
+   * @param capacities       the capacity at every level, indexed by level
+   * @param upgradeCosts     the cost of upgrading from every level, indexed by level
+   * @param maintenanceCosts the maintenance cost at every level, indexed by level
+   * @param profits          the profit per student at every level, indexed by level
+   */
+  private EconomicsTable(int buildCost, int[] capacities, int[] upgradeCosts,
+      float[] maintenanceCosts, int[] profits) {
+    this.maximumLevel = capacities.length - 1;
+    this.buildCost = buildCost;
+    this.capacities = capacities;
+    this.upgradeCosts = upgradeCosts;
+    this.maintenanceCosts = maintenanceCosts;
+    this.profits = profits;
+  }
+
+  /**
+   * Makes the economics table of a building. The capacity is baseCapacity * 2^(level - 1), the
+   * upgrade cost is baseBuildingCost * (level + 1), or -1 at the maximum level, and the maintenance
+   * cost is 10% of the capacity. Buildings make no profit.
+   *
+   * @param maximumLevel     the maximum level of the building
+   * @param baseCapacity     the base capacity of the building
+   * @param baseBuildingCost the base building cost of the building
+   * @return the economics table of the building
+   * @throws IllegalArgumentException if the capacity or upgrade cost at any level doesn't fit in an
+   *                                  int
+   */
+  public static EconomicsTable forBuilding(int maximumLevel, int baseCapacity,
+      int baseBuildingCost) {
+    // both grow with the level, so checking the top level is enough. Checked before the tables are
+    // made, so a huge maximum level is rejected rather than running out of memory
+    if (baseCapacity > 0 && maximumLevel - 1 >= Integer.numberOfLeadingZeros(baseCapacity)) {
+      throw new IllegalArgumentException("The capacity of a building with a base capacity of "
+          + baseCapacity + " overflows by level " + maximumLevel + ".");
+    }
+    if ((long) baseBuildingCost * maximumLevel > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The upgrade cost of a building with a build cost of "
+          + baseBuildingCost + " overflows by level " + maximumLevel + ".");
+    }
+    int[] capacities = new int[maximumLevel + 1];
+    int[] upgradeCosts = new int[maximumLevel + 1];
+    float[] maintenanceCosts = new float[maximumLevel + 1];
+    for (int level = 1; level <= maximumLevel; level++) {
+      capacities[level] = baseCapacity << (level - 1);
+      upgradeCosts[level] = level == maximumLevel ? -1 : baseBuildingCost * (level + 1);
+      maintenanceCosts[level] = (float) (capacities[level] * 0.1);
+    }
+    return new EconomicsTable(baseBuildingCost, capacities, upgradeCosts, maintenanceCosts,
+        new int[maximumLevel + 1]);
+  }
+
+  /**
+   * Makes the economics table of a recreational facility. The upgrade cost is 1.5 times the build
+   * cost when upgrading to level 2 and 1.5 times the previous level's upgrade cost otherwise, or -1
+   * at the maximum level, and every upgrade increases the profit per student by 2. Recreational
+   * facilities have no capacity and no maintenance cost.
+   *
+   * @param maximumLevel  the maximum level of the recreational facility
+   * @param baseBuildCost the base build cost of the recreational facility
+   * @param baseProfit    the profit per student of the recreational facility at level 1
+   * @return the economics table of the recreational facility
+   * @throws IllegalArgumentException if the upgrade cost or profit at any level doesn't fit in an
+   *                                  int
+   */
+  public static EconomicsTable forRecreational(int maximumLevel, int baseBuildCost,
+      int baseProfit) {
+    // both grow with the level, so checking the top level is enough. Checked before the tables are
+    // made, so a huge maximum level is rejected rather than running out of memory. Growing by half
+    // every level, the upgrade cost overflows within a few dozen levels of any build cost
+    long topUpgradeCost = baseBuildCost;
+    for (int level = 1; level < maximumLevel && topUpgradeCost > 0; level++) {
+      topUpgradeCost = Math.round(topUpgradeCost * 1.5);
+      if (topUpgradeCost > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The upgrade cost of a recreational facility with a "
+            + "build cost of " + baseBuildCost + " overflows by level " + maximumLevel + ".");
+      }
+    }
+    if (baseProfit + 2L * (maximumLevel - 1) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The profit of a recreational facility with a profit of "
+          + baseProfit + " overflows by level " + maximumLevel + ".");
+    }
+    int[] upgradeCosts = new int[maximumLevel + 1];
+    int[] profits = new int[maximumLevel + 1];
+    for (int level = 1; level <= maximumLevel; level++) {
+      if (level == maximumLevel) {
+        upgradeCosts[level] = -1;
+      } else if (level == 1) {
+        upgradeCosts[level] = (int) Math.round(baseBuildCost * 1.5);
+      } else {
+        upgradeCosts[level] = (int) Math.round(upgradeCosts[level - 1] * 1.5);
+      }
+      profits[level] = baseProfit + 2 * (level - 1);
+    }
+    return new EconomicsTable(baseBuildCost, new int[maximumLevel + 1], upgradeCosts,
+        new float[maximumLevel + 1], profits);
+  }
+
+  /**
+   * Returns the maximum level of the facility.
+   *
+   * @return the maximum level of the facility
+   */
+  public int getMaximumLevel() {
+    return maximumLevel;
+  }
+
+  /**
+   * Returns the cost of building the facility.
+   *
+   * @return the cost of building the facility
+   */
+  public int getBuildCost() {
+    return buildCost;
+  }
+
+  /**
+   * Returns the capacity of the facility at the given level.
+   *
+   * @param level the level of the facility
+   * @return the capacity of the facility at the given level
+   */
+  public int getCapacity(int level) {
+    return capacities[level];
+  }
+
+  /**
+   * Returns the cost of upgrading the facility from the given level, or -1 if the level is the
+   * maximum level.
+   *
+   * @param level the level of the facility
+   * @return the cost of upgrading the facility from the given level
+   */
+  public int getUpgradeCost(int level) {
+    return upgradeCosts[level];
+  }
+
+  /**
+   * Returns the maintenance cost of the facility at the given level.
+   *
+   * @param level the level of the facility
+   * @return the maintenance cost of the facility at the given level
+   */
+  public float getMaintenanceCost(int level) {
+    return maintenanceCosts[level];
+  }
+
+  /**
+   * Returns the profit per student of the facility at the given level.
+   *
+   * @param level the level of the facility
+   * @return the profit per student of the facility at the given level
+   */
+  public int getProfit(int level) {
+    return profits[level];
+  }
+}
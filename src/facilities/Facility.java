@@ -2,13 +2,22 @@ package facilities;
 
 /**
  * A building or other place or set of equipment that is used for a particular purpose within the
- * university.
+ * university. A facility either keeps its own name and level, or is a handle on a facility in a
+ * facility store, reading and writing the store's columns instead.
  *
  * @see Building
+ * @see FacilityStore
  */
 public class Facility {
 
   private String name;
+  // the number shown after the name as "(B<number>)", 0 if the name has no number
+  private int buildingNumber = 0;
+  // the store the facility is a handle on and its id in the store, null and -1 for a facility that
+  // keeps its own name and level
+  private FacilityStore store;
+  private int id = -1;
+  private FacilityListener listener;
 
   /**
    * Constructs a new facility with the given name.
@@ -20,11 +29,160 @@ public class Facility {
   }
 
   /**
-   * Returns the name of the facility.
+   * Returns the name of the facility. If the facility has a building number, it's formatted after
+   * the name, e.g. "Glen Eyre (B4)". The name is only formatted when asked for, as it's only needed
+   * for display.
    *
    * @return the name of the facility
    */
   public String getName() {
-    return name;
+    if (store != null) {
+      return store.getName(id);
+    }
+    return formatName(name, buildingNumber);
+  }
+
+  /**
+   * Returns the given name with the given building number formatted after it, or just the name if
+   * the building number is 0.
+   *
+   * @param name           the name of the facility
+   * @param buildingNumber the building number, or 0 for no building number
+   * @return the formatted name
+   */
+  static String formatName(String name, int buildingNumber) {
+    if (buildingNumber == 0) {
+      return name;
+    }
+    return name + " (B" + buildingNumber + ")";
+  }
+
+  /**
+   * Sets the building number shown after the name of the facility.
+   *
+   * @param buildingNumber the building number, or 0 for no building number
+   */
+  public void setBuildingNumber(int buildingNumber) {
+    if (store != null) {
+      store.setBuildingNumber(id, buildingNumber);
+    } else {
+      this.buildingNumber = buildingNumber;
+    }
+  }
+
+  /**
+   * Returns the id of the facility, which is unique within the store it's a handle on, or -1 if
+   * it isn't in a store.
+   *
+   * @return the id of the facility
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Makes the facility a handle on the facility with the given id in the given store. Only meant to
+   * be called by the store, on a facility it has just created.
+   *
+   * @param store the store
+   * @param id    the id of the facility in the store
+   */
+  void attach(FacilityStore store, int id) {
+    this.store = store;
+    this.id = id;
+  }
+
+  /**
+   * Returns the store the facility is a handle on, or null if it keeps its own name and level.
+   *
+   * @return the store of the facility
+   */
+  FacilityStore getStore() {
+    return store;
+  }
+
+  /**
+   * Returns whether the facility is a handle on a facility in a store, in which case its level is
+   * kept in the store.
+   *
+   * @return whether the facility is in a store
+   */
+  protected boolean isStored() {
+    return store != null;
+  }
+
+  /**
+   * Returns the level of the facility kept in its store. Only valid for a facility in a store.
+   *
+   * @return the level of the facility in its store
+   */
+  protected int getStoredLevel() {
+    return store.getLevel(id);
+  }
+
+  /**
+   * Sets the level of the facility kept in its store. Only valid for a facility in a store.
+   *
+   * @param level the new level of the facility
+   */
+  protected void setStoredLevel(int level) {
+    store.setLevel(id, level);
+  }
+
+  /**
+   * Returns the type of the facility, or null if it's a plain facility of no particular type.
+   *
+   * @return the type of the facility
+   */
+  public FacilityType getType() {
+    return null;
+  }
+
+  /**
+   * Sets the listener that is told whenever the facility changes. A facility has at most one
+   * listener, the estate that owns it.
+   *
+   * @param listener the facility listener, or null to remove it
+   */
+  public void setListener(FacilityListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Tells the listener, if there is one, that the level of the facility has changed.
+   *
+   * @param oldLevel the level of the facility before it changed
+   */
+  protected void notifyLevelChanged(int oldLevel) {
+    if (listener != null) {
+      listener.levelChanged(this, oldLevel);
+    }
+  }
+
+  /**
+   * Returns whether the given object is the same facility. Two handles on the same facility in the
+   * same store are equal, any other facility is only equal to itself.
+   *
+   * @param object the object to compare with
+   * @return whether the object is the same facility
+   */
+  public boolean equals(Object object) {
+    if (store == null || !(object instanceof Facility)) {
+      return this == object;
+    }
+    Facility facility = (Facility) object;
+    return store == facility.store && id == facility.id;
+  }
+
+  /**
+   * Returns the hash code of the facility, the same for every handle on the same facility.
+   *
+   * @return the hash code of the facility
+   */
+  public int hashCode() {
+    if (store == null) {
+      return System.identityHashCode(this);
+    }
+    return 31 * System.identityHashCode(store) + id;
   }
 }
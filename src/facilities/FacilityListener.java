@@ -0,0 +1,19 @@
+package facilities;
+
+/**
+ * A listener that is told whenever a facility changes, used by the owner of the facility to keep
+ * anything it derives from its facilities, such as capacity totals and caches, up to date without
+ * recomputing it from scratch.
+ *
+ * @see Facility#setListener(FacilityListener)
+ */
+public interface FacilityListener {
+
+  /**
+   * Called after the level of the given facility has changed.
+   *
+   * @param facility the facility whose level changed
+   * @param oldLevel the level of the facility before it changed
+   */
+  void levelChanged(Facility facility, int oldLevel);
+}
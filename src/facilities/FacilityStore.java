@@ -0,0 +1,223 @@
+package facilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * A compact store of facilities, keeping every facility as a row of primitive columns indexed by
+ * its id instead of as an object: its type and level in a byte each, the index of its name in a
+ * table of the distinct names, and its building number. A facility takes 10 bytes, and the names,
+ * which are drawn from the few possible names of each type, are only put together when asked for.
+ *
+ * <p>The facilities of the store are handed out as handles, facility objects created on demand
+ * that read and write the columns of their facility. Handles of the same facility are equal and
+ * see each other's changes, so a handle can be kept or thrown away and asked for again later.
+ *
+ * @see Facility
+ */
+public final class FacilityStore {
+
+  // the most facility types and the highest level the byte columns can hold, read as unsigned
+  public static final int MAXIMUM_TYPES = 256;
+  public static final int MAXIMUM_LEVEL = 255;
+
+  private final FacilityType[] types;
+  // the columns, indexed by the id of the facility
+  private byte[] typeIds = new byte[16];
+  private byte[] levels = new byte[16];
+  private int[] nameIds = new int[16];
+  private int[] buildingNumbers = new int[16];
+  private int size = 0;
+  // the distinct names of the facilities, and the index of each name in the table
+  private ArrayList<String> names = new ArrayList<String>();
+  private HashMap<String, Integer> nameIdsByName = new HashMap<String, Integer>();
+  // the number of facilities of each type and the lowest and highest id of any of them, indexed by
+  // the id of the type, so a scan for one type only looks between the ids its facilities lie in
+  private int[] countByType;
+  private int[] firstIdByType;
+  private int[] lastIdByType;
+  // set on every handle, told whenever the level of a facility changes
+  private FacilityListener listener;
+
+  /**
+   * Constructs a new empty store for facilities of the given types.
+   *
+   * @param types the facility types, indexed by their id
+   * @throws IllegalArgumentException if there are more types than the type column can hold
+   */
+  public FacilityStore(FacilityType[] types) {
+    if (types.length > MAXIMUM_TYPES) {
+      throw new IllegalArgumentException(
+          "A facility store can hold at most " + MAXIMUM_TYPES + " facility types.");
+    }
+    this.types = types;
+    countByType = new int[types.length];
+    firstIdByType = new int[types.length];
+    lastIdByType = new int[types.length];
+    Arrays.fill(lastIdByType, -1);
+  }
+
+  /**
+   * Sets the listener that is told whenever the level of a facility in the store changes, through
+   * any of its handles.
+   *
+   * @param listener the facility listener, or null to remove it
+   */
+  public void setListener(FacilityListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Adds a facility of the given type and name at level 1 to the store. Returns its id, which is
+   * the number of facilities added before it.
+   *
+   * @param type the type of the facility
+   * @param name the name of the facility
+   * @return the id of the facility
+   */
+  public int add(FacilityType type, String name) {
+    if (size == typeIds.length) {
+      int capacity = size * 2;
+      typeIds = Arrays.copyOf(typeIds, capacity);
+      levels = Arrays.copyOf(levels, capacity);
+      nameIds = Arrays.copyOf(nameIds, capacity);
+      buildingNumbers = Arrays.copyOf(buildingNumbers, capacity);
+    }
+    Integer nameId = nameIdsByName.get(name);
+    if (nameId == null) {
+      nameId = names.size();
+      names.add(name);
+      nameIdsByName.put(name, nameId);
+    }
+    int id = size++;
+    typeIds[id] = (byte) type.getId();
+    levels[id] = 1;
+    nameIds[id] = nameId;
+    buildingNumbers[id] = 0;
+    if (countByType[type.getId()]++ == 0) {
+      firstIdByType[type.getId()] = id;
+    }
+    lastIdByType[type.getId()] = id;
+    return id;
+  }
+
+  /**
+   * Returns the number of facilities in the store.
+   *
+   * @return the number of facilities in the store
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of facilities of the given type in the store.
+   *
+   * @param type the type of the facilities
+   * @return the number of facilities of the type
+   */
+  public int count(FacilityType type) {
+    return countByType[type.getId()];
+  }
+
+  /**
+   * Returns the id of the first facility of the given type with an id of at least the given id, or
+   * -1 if there is none. The facilities of a type are looked through by starting from 0 and then
+   * from one past each id returned.
+   *
+   * @param type the type of the facilities
+   * @param from the lowest id to return
+   * @return the id of the next facility of the type, or -1 if there is none
+   */
+  public int nextOfType(FacilityType type, int from) {
+    byte typeId = (byte) type.getId();
+    int last = lastIdByType[type.getId()];
+    for (int id = Math.max(from, firstIdByType[type.getId()]); id <= last; id++) {
+      if (typeIds[id] == typeId) {
+        return id;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the type of the facility with the given id.
+   *
+   * @param id the id of the facility
+   * @return the type of the facility
+   */
+  public FacilityType getType(int id) {
+    return types[typeIds[id] & 0xFF];
+  }
+
+  /**
+   * Returns the level of the facility with the given id.
+   *
+   * @param id the id of the facility
+   * @return the level of the facility
+   */
+  public int getLevel(int id) {
+    return levels[id] & 0xFF;
+  }
+
+  /**
+   * Sets the level of the facility with the given id. Only meant to be called by the handles of
+   * the facility, which tell the listener about the change.
+   *
+   * @param id    the id of the facility
+   * @param level the new level of the facility, at most MAXIMUM_LEVEL
+   */
+  void setLevel(int id, int level) {
+    levels[id] = (byte) level;
+  }
+
+  /**
+   * Returns the name of the facility with the given id, with its building number formatted after
+   * it if it has one.
+   *
+   * @param id the id of the facility
+   * @return the name of the facility
+   * @see Facility#getName()
+   */
+  public String getName(int id) {
+    return Facility.formatName(names.get(nameIds[id]), buildingNumbers[id]);
+  }
+
+  /**
+   * Sets the building number shown after the name of the facility with the given id.
+   *
+   * @param id             the id of the facility
+   * @param buildingNumber the building number, or 0 for no building number
+   */
+  public void setBuildingNumber(int id, int buildingNumber) {
+    buildingNumbers[id] = buildingNumber;
+  }
+
+  /**
+   * Returns a new handle on the facility with the given id, a facility object of its type that
+   * reads and writes the facility in the store.
+   *
+   * @param id the id of the facility
+   * @return a handle on the facility
+   * @throws IndexOutOfBoundsException if there is no facility with the id in the store
+   */
+  public Facility getFacility(int id) {
+    Objects.checkIndex(id, size);
+    Facility facility = getType(id).create(null);
+    facility.attach(this, id);
+    facility.setListener(listener);
+    return facility;
+  }
+
+  /**
+   * Returns whether the given facility is a handle on a facility in the store.
+   *
+   * @param facility the facility
+   * @return whether the facility is in the store
+   */
+  public boolean contains(Facility facility) {
+    return facility.getStore() == this;
+  }
+}
@@ -0,0 +1,379 @@
+package facilities;
+
+import facilities.buildings.ConfiguredBuilding;
+import facilities.buildings.Hall;
+import facilities.buildings.Lab;
+import facilities.buildings.Theatre;
+import facilities.recreational.Cafeteria;
+import facilities.recreational.ConfiguredRecreational;
+import facilities.recreational.Gym;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.function.Function;
+
+/**
+ * The types of facility a university can build. Types are only parsed from their names where names
+ * come in, such as Estate's addFacility, everything past that works with the type itself.
+ *
+ * <p>Every type has an id, its index in the registry of types, so anything kept per type can be
+ * kept in an array indexed by id. The built-in types are registered first, and more types can be
+ * loaded from a facility type configuration file at startup. Loaded types behave exactly like the
+ * built-in ones, they just aren't backed by a class of their own.
+ *
+ * @see Facility#getType()
+ * @see #load(String)
+ */
+public final class FacilityType {
+
+  // the registry of types, indexed by id. Declared before the built-in types so it exists when
+  // they register themselves
+  private static FacilityType[] types = new FacilityType[0];
+  private static FacilityType[] buildingTypes = new FacilityType[0];
+  private static FacilityType[] recreationalTypes = new FacilityType[0];
+  // set once the registry has been read by values, after which no more types can be registered
+  private static boolean sealed = false;
+
+  // the built-in types. The built-in building types are also the categories, in the order the
+  // bottleneck rankings break ties in, the category of a building type is the built-in type whose
+  // capacity it adds to
+  public static final FacilityType HALL = register("Hall", true, null,
+      EconomicsTable.forBuilding(4, 6, 100), Hall::new,
+      "Glen Eyre", "Mayflower", "Highfield", "Wessex Lane");
+  public static final FacilityType THEATRE = register("Theatre", true, null,
+      EconomicsTable.forBuilding(6, 10, 200), Theatre::new,
+      "Nuffield", "Turner Sims", "John Hansard");
+  public static final FacilityType LAB = register("Lab", true, null,
+      EconomicsTable.forBuilding(5, 5, 300), Lab::new,
+      "Zepler", "Mountbatten", "Eustice");
+  public static final FacilityType CAFETERIA = register("Cafeteria", false, null,
+      EconomicsTable.forRecreational(2, 500, 1), Cafeteria::new, "Exquisiette");
+  public static final FacilityType GYM = register("Gym", false, null,
+      EconomicsTable.forRecreational(2, 650, 4), Gym::new, "Jubilee");
+  private static final FacilityType[] CATEGORIES = {HALL, THEATRE, LAB};
+
+  private final int id;
+  private final String name;
+  // null for recreational types, the type itself for the built-in building types
+  private final FacilityType category;
+  private final EconomicsTable economics;
+  private final Function<String, Facility> factory;
+  private final String[] possibleNames;
+
+  /**
+   * Constructs a facility type. Types are only constructed by register.
+   *
+   * @param id            the id of the type
+   * @param name          the name of the type
+   * @param building      whether facilities of the type are buildings, otherwise they are
+   *                      recreational
+   * @param category      the category of the type, or null if it's its own category or a
+   *                      recreational type
+   * @param economics     the economics table shared by every facility of the type
+   * @param factory       creates a new facility of the type with a given name, or null to create
+   *                      a configured building or recreational facility
+   * @param possibleNames the names new facilities of the type are randomly given
+   */
+  private FacilityType(int id, String name, boolean building, FacilityType category,
+      EconomicsTable economics, Function<String, Facility> factory, String[] possibleNames) {
+    this.id = id;
+    this.name = name;
+    if (!building) {
+      this.category = null;
+    } else if (category == null) {
+      this.category = this;
+    } else {
+      this.category = category;
+    }
+    this.economics = economics;
+    if (factory != null) {
+      this.factory = factory;
+    } else if (this.category != null) {
+      this.factory = facilityName -> new ConfiguredBuilding(facilityName, this);
+    } else {
+      this.factory = facilityName -> new ConfiguredRecreational(facilityName, this);
+    }
+    this.possibleNames = possibleNames;
+  }
+
+  /**
+   * Registers a new facility type, giving it the next id.
+   *
+   * @param name          the name of the type
+   * @param building      whether facilities of the type are buildings
+   * @param category      the category of the type, or null for built-in building types and
+   *                      recreational types
+   * @param economics     the economics table of the type
+   * @param factory       creates a new facility of the type, or null for configured types
+   * @param possibleNames the names new facilities of the type are randomly given
+   * @return the new facility type
+   * @throws IllegalStateException    if the registry has been sealed
+   * @throws IllegalArgumentException if there already is a type with the name, or there are as
+   *                                  many types as a facility store can hold
+   */
+  private static synchronized FacilityType register(String name, boolean building,
+      FacilityType category, EconomicsTable economics, Function<String, Facility> factory,
+      String... possibleNames) {
+    if (sealed) {
+      throw new IllegalStateException(
+          "Facility types must be registered before any estate is created.");
+    }
+    if (fromName(name) != null) {
+      throw new IllegalArgumentException("Facility type " + name + " is already registered.");
+    }
+    if (types.length >= FacilityStore.MAXIMUM_TYPES) {
+      throw new IllegalArgumentException(
+          "There can be at most " + FacilityStore.MAXIMUM_TYPES + " facility types.");
+    }
+    FacilityType type = new FacilityType(types.length, name, building, category, economics,
+        factory, possibleNames);
+    types = Arrays.copyOf(types, types.length + 1);
+    types[type.id] = type;
+    if (type.isBuilding()) {
+      buildingTypes = Arrays.copyOf(buildingTypes, buildingTypes.length + 1);
+      buildingTypes[buildingTypes.length - 1] = type;
+    } else {
+      recreationalTypes = Arrays.copyOf(recreationalTypes, recreationalTypes.length + 1);
+      recreationalTypes[recreationalTypes.length - 1] = type;
+    }
+    return type;
+  }
+
+  /**
+   * Loads the facility types in the given facility type configuration file into the registry. Each
+   * line of the file is a type in the format "name category maximumLevel baseCapacity buildCost
+   * profit", where the category is "Hall", "Theatre" or "Lab" for a building whose capacity adds to
+   * that of the category, or "Recreational" for a recreational facility. Blank lines and lines
+   * starting with "#" are skipped. Must be called before any estate is created.
+   *
+   * @param fileName the name of the facility type configuration file
+   * @return the facility types loaded
+   * @throws IOException              if the file can't be read
+   * @throws IllegalArgumentException if a line of the file isn't a valid facility type
+   * @throws IllegalStateException    if an estate has already been created
+   */
+  public static FacilityType[] load(String fileName) throws IOException {
+    ArrayList<FacilityType> loaded = new ArrayList<FacilityType>();
+    try (Scanner scanner = new Scanner(new File(fileName), "UTF-8")) {
+      int lineNumber = 0;
+      while (scanner.hasNextLine()) {
+        lineNumber++;
+        String line = scanner.nextLine().strip();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        loaded.add(parse(line, fileName + ":" + lineNumber));
+      }
+    }
+    return loaded.toArray(new FacilityType[loaded.size()]);
+  }
+
+  /**
+   * Parses and registers the facility type on the given line of a facility type configuration
+   * file.
+   *
+   * @param line     the line of the file
+   * @param location the file name and line number, used in error messages
+   * @return the facility type
+   * @throws IllegalArgumentException if the line isn't a valid facility type
+   */
+  private static FacilityType parse(String line, String location) {
+    String[] fields = line.split("\\s+");
+    if (fields.length != 6) {
+      throw new IllegalArgumentException(location + ": Expected \"name category maximumLevel "
+          + "baseCapacity buildCost profit\" but got \"" + line + "\".");
+    }
+    int maximumLevel;
+    int baseCapacity;
+    int buildCost;
+    int profit;
+    try {
+      maximumLevel = Integer.parseInt(fields[2]);
+      baseCapacity = Integer.parseInt(fields[3]);
+      buildCost = Integer.parseInt(fields[4]);
+      profit = Integer.parseInt(fields[5]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(location + ": Invalid number in \"" + line + "\".", e);
+    }
+    if (maximumLevel < 1 || maximumLevel > FacilityStore.MAXIMUM_LEVEL || baseCapacity < 0
+        || buildCost <= 0 || profit < 0) {
+      throw new IllegalArgumentException(location + ": Out of range value in \"" + line + "\".");
+    }
+    if (fields[1].equals("Recreational")) {
+      return register(fields[0], false, null,
+          makeEconomics(false, maximumLevel, baseCapacity, buildCost, profit, location), null,
+          fields[0]);
+    }
+    FacilityType category = fromName(fields[1]);
+    if (category == null || category.category != category) {
+      throw new IllegalArgumentException(location + ": Unknown category " + fields[1]
+          + ", expected Hall, Theatre, Lab or Recreational.");
+    }
+    if (baseCapacity == 0) {
+      throw new IllegalArgumentException(location + ": A building needs a base capacity.");
+    }
+    return register(fields[0], true, category,
+        makeEconomics(true, maximumLevel, baseCapacity, buildCost, profit, location), null,
+        fields[0]);
+  }
+
+  /**
+   * Makes the economics table of a facility type parsed from a facility type configuration file,
+   * rejecting values that would overflow at some level.
+   *
+   * @param building     whether the type is a building type, otherwise it's recreational
+   * @param maximumLevel the maximum level of the type
+   * @param baseCapacity the base capacity of the type
+   * @param buildCost    the build cost of the type
+   * @param profit       the profit per student of the type
+   * @param location     the file name and line number, used in error messages
+   * @return the economics table
+   * @throws IllegalArgumentException if a value of the type would overflow at some level
+   */
+  private static EconomicsTable makeEconomics(boolean building, int maximumLevel,
+      int baseCapacity, int buildCost, int profit, String location) {
+    try {
+      if (building) {
+        return EconomicsTable.forBuilding(maximumLevel, baseCapacity, buildCost);
+      }
+      return EconomicsTable.forRecreational(maximumLevel, buildCost, profit);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(location + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the facility type with the given name, or null if there is no such type.
+   *
+   * @param name the name of the facility type, e.g. "Hall"
+   * @return the facility type with the given name, or null if there is no such type
+   */
+  public static FacilityType fromName(String name) {
+    for (FacilityType type : types) {
+      if (type.name.equals(name)) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns every facility type, indexed by id, and seals the registry so no more types can be
+   * registered. Anything sized by the number of types, such as an estate's per-type lists, gets
+   * its types from here so it can't be outgrown.
+   *
+   * @return every facility type, indexed by id
+   */
+  public static synchronized FacilityType[] values() {
+    sealed = true;
+    return types.clone();
+  }
+
+  /**
+   * Returns the building types, in the order they were registered. The returned array is shared
+   * and must not be modified.
+   *
+   * @return the building types
+   */
+  public static FacilityType[] getBuildingTypes() {
+    return buildingTypes;
+  }
+
+  /**
+   * Returns the recreational facility types, in the order they were registered. The returned array
+   * is shared and must not be modified.
+   *
+   * @return the recreational facility types
+   */
+  public static FacilityType[] getRecreationalTypes() {
+    return recreationalTypes;
+  }
+
+  /**
+   * Returns the building categories, the built-in building types every building type adds its
+   * capacity to. The returned array is shared and must not be modified.
+   *
+   * @return the building categories
+   */
+  public static FacilityType[] getCategories() {
+    return CATEGORIES;
+  }
+
+  /**
+   * Creates a new facility of this type with the given name.
+   *
+   * @param facilityName the name of the facility
+   * @return a new facility of this type
+   */
+  public Facility create(String facilityName) {
+    return factory.apply(facilityName);
+  }
+
+  /**
+   * Returns the id of the facility type, its index in the registry of types.
+   *
+   * @return the id of the facility type
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Returns the name of the facility type, which is also the name of its class for the built-in
+   * types.
+   *
+   * @return the name of the facility type
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the category of the facility type, the built-in building type whose capacity buildings
+   * of this type add to, or null if this is a recreational type.
+   *
+   * @return the category of the facility type
+   */
+  public FacilityType getCategory() {
+    return category;
+  }
+
+  /**
+   * Returns the economics table shared by every facility of this type.
+   *
+   * @return the economics table of this type
+   */
+  public EconomicsTable getEconomics() {
+    return economics;
+  }
+
+  /**
+   * Returns the names new facilities of this type are randomly given. The returned array is shared
+   * and must not be modified.
+   *
+   * @return the possible names of facilities of this type
+   */
+  public String[] getPossibleNames() {
+    return possibleNames;
+  }
+
+  /**
+   * Returns whether facilities of this type are buildings.
+   *
+   * @return whether facilities of this type are buildings
+   */
+  public boolean isBuilding() {
+    return category != null;
+  }
+
+  /**
+   * Returns whether facilities of this type are recreational facilities.
+   *
+   * @return whether facilities of this type are recreational facilities
+   */
+  public boolean isRecreational() {
+    return category == null;
+  }
+}
@@ -1,5 +1,6 @@
 package facilities.buildings;
 
+import facilities.EconomicsTable;
 import facilities.Facility;
 
 /**
@@ -12,51 +13,60 @@ import facilities.Facility;
  */
 public abstract class AbstractBuilding extends Facility implements Building {
 
-  private int level = 1; // default level is 1
-  private int maximumLevel;
-  private int baseCapacity;
-  private int capacity;
-  private int baseBuildingCost;
-  private int upgradeCost;
+  // default level is 1, only used when the building isn't in a store
+  private int level = 1;
+  private EconomicsTable economics;
 
   /**
-   * Constructs a building with the given name, maximum level, base capacity, and base building
-   * cost.
+   * Constructs a building with the given name, looking its capacity and costs up in the given
+   * economics table.
    *
-   * @param name             the name of the building
-   * @param maximumLevel     the maximum level of the building
-   * @param baseCapacity     the base capacity of the building
-   * @param baseBuildingCost the base building cost of the building
+   * @param name      the name of the building
+   * @param economics the economics table of the building's type
    */
-  public AbstractBuilding(String name, int maximumLevel, int baseCapacity, int baseBuildingCost) {
+  public AbstractBuilding(String name, EconomicsTable economics) {
     super(name);
-    this.maximumLevel = maximumLevel;
-    this.baseCapacity = baseCapacity;
-    this.baseBuildingCost = baseBuildingCost;
-    this.upgradeCost = calculateUpgradeCost();
-    this.capacity = calculateCapacity();
+    this.economics = economics;
   }
 
   /**
    * Calculates the cost of upgrading the building. Uses the formula: baseBuildingCost * (level +
-   * 1).
+   * 1), precomputed in the economics table.
    *
    * @return the cost of upgrading the building
    */
   public int calculateUpgradeCost() {
-    if (level == maximumLevel) {
-      return -1;
-    }
-    return baseBuildingCost * (level + 1);
+    return economics.getUpgradeCost(getLevel());
   }
 
   /**
-   * Calculates the capacity of the building. Uses the formula: baseCapacity * 2^(level - 1).
+   * Calculates the capacity of the building. Uses the formula: baseCapacity * 2^(level - 1),
+   * precomputed in the economics table.
    *
    * @return the capacity of the building
    */
   public int calculateCapacity() {
-    return (int) Math.round(baseCapacity * Math.pow(2, level - 1));
+    return economics.getCapacity(getLevel());
+  }
+
+  /**
+   * Calculates the capacity of the building at the given level. Uses the formula: baseCapacity *
+   * 2^(level - 1), precomputed in the economics table.
+   *
+   * @param level the level of the building
+   * @return the capacity of the building at the given level
+   */
+  public int calculateCapacity(int level) {
+    return economics.getCapacity(level);
+  }
+
+  /**
+   * Returns the maintenance cost of the building, which is 10% of its capacity.
+   *
+   * @return the maintenance cost of the building
+   */
+  public float getMaintenanceCost() {
+    return economics.getMaintenanceCost(getLevel());
   }
 
   /**
@@ -65,17 +75,34 @@ public abstract class AbstractBuilding extends Facility implements Building {
    * @return the level of the building
    */
   public int getLevel() {
+    if (isStored()) {
+      return getStoredLevel();
+    }
     return level;
   }
 
   /**
-   * Increases the level of the building by 1.
+   * Sets the level of the building, in its store if it's in one.
+   *
+   * @param level the new level of the building
+   */
+  private void setLevel(int level) {
+    if (isStored()) {
+      setStoredLevel(level);
+    } else {
+      this.level = level;
+    }
+  }
+
+  /**
+   * Increases the level of the building by 1. Tells the facility listener, if there is one, about
+   * the change.
    */
   public void increaseLevel() {
-    if (level < maximumLevel) {
-      level++;
-      upgradeCost = calculateUpgradeCost();
-      capacity = calculateCapacity();
+    int level = getLevel();
+    if (level < economics.getMaximumLevel()) {
+      setLevel(level + 1);
+      notifyLevelChanged(level);
     }
   }
 
@@ -85,7 +112,7 @@ public abstract class AbstractBuilding extends Facility implements Building {
    * @return whether the building is upgradable
    */
   public boolean isUpgradable() {
-    return level < maximumLevel;
+    return getLevel() < economics.getMaximumLevel();
   }
 
   /**
@@ -94,7 +121,7 @@ public abstract class AbstractBuilding extends Facility implements Building {
    * @return the cost of upgrading the building
    */
   public int getUpgradeCost() {
-    return upgradeCost;
+    return economics.getUpgradeCost(getLevel());
   }
 
   /**
@@ -103,7 +130,7 @@ public abstract class AbstractBuilding extends Facility implements Building {
    * @return the capacity of the building
    */
   public int getCapacity() {
-    return capacity;
+    return economics.getCapacity(getLevel());
   }
 
   /**
@@ -112,6 +139,6 @@ public abstract class AbstractBuilding extends Facility implements Building {
    * @return the cost of building the building
    */
   public int getBuildCost() {
-    return baseBuildingCost;
+    return economics.getBuildCost();
   }
 }
@@ -0,0 +1,34 @@
+package facilities.buildings;
+
+import facilities.FacilityType;
+
+/**
+ * A building of a type loaded from a facility type configuration file. Its capacity and costs come
+ * from the economics table of its type, so it behaves exactly like a building of a built-in type.
+ *
+ * @see FacilityType#load(String)
+ */
+public class ConfiguredBuilding extends AbstractBuilding {
+
+  private FacilityType type;
+
+  /**
+   * Constructs a new building of the given configured type.
+   *
+   * @param name the name of the building
+   * @param type the type of the building
+   */
+  public ConfiguredBuilding(String name, FacilityType type) {
+    super(name, type.getEconomics());
+    this.type = type;
+  }
+
+  /**
+   * Returns the type of the building.
+   *
+   * @return the type of the building
+   */
+  public FacilityType getType() {
+    return type;
+  }
+}
@@ -1,5 +1,7 @@
 package facilities.buildings;
 
+import facilities.FacilityType;
+
 /**
  * A building that houses students. Has a base capacity of 6 students, a maximum level of 4, and a
  * base building cost of 100.
@@ -12,6 +14,15 @@ public class Hall extends AbstractBuilding {
    * @param name the name of the hall
    */
   public Hall(String name) {
-    super(name, 4, 6, 100);
+    super(name, FacilityType.HALL.getEconomics());
+  }
+
+  /**
+   * Returns the type of the hall, which is always HALL.
+   *
+   * @return the type of the hall
+   */
+  public FacilityType getType() {
+    return FacilityType.HALL;
   }
 }
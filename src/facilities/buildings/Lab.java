@@ -1,5 +1,7 @@
 package facilities.buildings;
 
+import facilities.FacilityType;
+
 /**
  * A building where students do practical work. Has a base capacity of 5 students, a maximum level
  * of 5, and a base building cost of 300.
@@ -12,6 +14,15 @@ public class Lab extends AbstractBuilding {
    * @param name the name of the lab
    */
   public Lab(String name) {
-    super(name, 5, 5, 300);
+    super(name, FacilityType.LAB.getEconomics());
+  }
+
+  /**
+   * Returns the type of the lab, which is always LAB.
+   *
+   * @return the type of the lab
+   */
+  public FacilityType getType() {
+    return FacilityType.LAB;
   }
 }
@@ -1,5 +1,7 @@
 package facilities.buildings;
 
+import facilities.FacilityType;
+
 /**
  * A building where students attend lectures. Has a base capacity of 10 students, a maximum level of
  * 6, and a base building cost of 200.
@@ -12,6 +14,15 @@ public class Theatre extends AbstractBuilding {
    * @param name the name of the theatre
    */
   public Theatre(String name) {
-    super(name, 6, 10, 200);
+    super(name, FacilityType.THEATRE.getEconomics());
+  }
+
+  /**
+   * Returns the type of the theatre, which is always THEATRE.
+   *
+   * @return the type of the theatre
+   */
+  public FacilityType getType() {
+    return FacilityType.THEATRE;
   }
 }
@@ -1,5 +1,6 @@
 package facilities.recreational;
 
+import facilities.EconomicsTable;
 import facilities.Facility;
 
 /**
@@ -11,44 +12,31 @@ import facilities.Facility;
  */
 public class AbstractRecreational extends Facility implements Recreational {
 
-  private int baseBuildCost;
-  private int upgradeCost;
-  private int profit;
-  private int level;
-  private int maximumLevel;
+  // only used when the recreational facility isn't in a store
+  private int level = 1;
+  private EconomicsTable economics;
 
   /**
-   * Constructs a recreational facility with the given base build cost, upgrade cost, and profit.
+   * Constructs a recreational facility with the given name, looking its costs and profit up in the
+   * given economics table.
    *
-   * @param name          the name of the recreational facility
-   * @param baseBuildCost the base build cost of the recreational facility
-   * @param profit        the profit of the recreational facility
-   * @param maximumLevel  the maximum level of the recreational facility
+   * @param name      the name of the recreational facility
+   * @param economics the economics table of the recreational facility's type
    */
-  public AbstractRecreational(String name, int baseBuildCost, int profit, int maximumLevel) {
+  public AbstractRecreational(String name, EconomicsTable economics) {
     super(name);
-    this.baseBuildCost = baseBuildCost;
-    this.profit = profit;
-    this.level = 1;
-    this.maximumLevel = maximumLevel;
-    this.upgradeCost = calculateUpgradeCost();
+    this.economics = economics;
   }
 
   /**
    * Calculates the cost of upgrading the recreational facility to the next level. Uses the formula:
-   * lastLevelCost (or baseBuildCost if upgrading to level 2) * (1.5).
+   * lastLevelCost (or baseBuildCost if upgrading to level 2) * (1.5), precomputed in the economics
+   * table.
    *
    * @return the cost of upgrading the recreational facility
    */
   public int calculateUpgradeCost() {
-    if (level == maximumLevel) {
-      return -1;
-    }
-    if (level == 1) {
-      return (int) Math.round(baseBuildCost * 1.5);
-    } else {
-      return (int) Math.round(upgradeCost * 1.5);
-    }
+    return economics.getUpgradeCost(getLevel());
   }
 
   /**
@@ -57,7 +45,7 @@ public class AbstractRecreational extends Facility implements Recreational {
    * @return the cost of building the recreational facility
    */
   public int getBuildCost() {
-    return baseBuildCost;
+    return economics.getBuildCost();
   }
 
   /**
@@ -66,7 +54,7 @@ public class AbstractRecreational extends Facility implements Recreational {
    * @return the cost of upgrading the recreational facility
    */
   public int getUpgradeCost() {
-    return upgradeCost;
+    return economics.getUpgradeCost(getLevel());
   }
 
   /**
@@ -75,7 +63,7 @@ public class AbstractRecreational extends Facility implements Recreational {
    * @return the profit of the recreational facility
    */
   public int getProfit() {
-    return profit;
+    return economics.getProfit(getLevel());
   }
 
   /**
@@ -84,27 +72,35 @@ public class AbstractRecreational extends Facility implements Recreational {
    * @return the level of the recreational facility
    */
   public int getLevel() {
+    if (isStored()) {
+      return getStoredLevel();
+    }
     return level;
   }
 
   /**
-   * Increases the level of the recreational facility by 1. Also increases the profit by 2.
+   * Sets the level of the recreational facility, in its store if it's in one.
+   *
+   * @param level the new level of the recreational facility
    */
-  public void increaseLevel() {
-    if (level < maximumLevel) {
-      level++;
-      upgradeCost = calculateUpgradeCost();
-      increaseProfit(2);
+  private void setLevel(int level) {
+    if (isStored()) {
+      setStoredLevel(level);
+    } else {
+      this.level = level;
     }
   }
 
   /**
-   * Increases the profit of the recreational facility by the given amount.
-   *
-   * @param amount the amount to increase the profit by
+   * Increases the level of the recreational facility by 1. The profit goes up by 2 with the level.
+   * Tells the facility listener, if there is one, about the change.
    */
-  public void increaseProfit(int amount) {
-    profit += amount;
+  public void increaseLevel() {
+    int level = getLevel();
+    if (level < economics.getMaximumLevel()) {
+      setLevel(level + 1);
+      notifyLevelChanged(level);
+    }
   }
 
   /**
@@ -113,6 +109,6 @@ public class AbstractRecreational extends Facility implements Recreational {
    * @return whether the recreational facility is upgradable
    */
   public boolean isUpgradable() {
-    return level < maximumLevel;
+    return getLevel() < economics.getMaximumLevel();
   }
 }
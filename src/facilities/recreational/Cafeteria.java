@@ -1,5 +1,7 @@
 package facilities.recreational;
 
+import facilities.FacilityType;
+
 /**
  * A recreational facility where students can go to eat. Has a base profit of 1 coin, a maximum 
  * level of 2, and a base building cost of 500.
@@ -12,6 +14,15 @@ public class Cafeteria extends AbstractRecreational {
    * @param name the name of the cafeteria
    */
   public Cafeteria(String name) {
-    super(name, 500, 1, 2);
+    super(name, FacilityType.CAFETERIA.getEconomics());
+  }
+
+  /**
+   * Returns the type of the cafeteria, which is always CAFETERIA.
+   *
+   * @return the type of the cafeteria
+   */
+  public FacilityType getType() {
+    return FacilityType.CAFETERIA;
   }
 }
@@ -0,0 +1,35 @@
+package facilities.recreational;
+
+import facilities.FacilityType;
+
+/**
+ * A recreational facility of a type loaded from a facility type configuration file. Its costs and
+ * profit come from the economics table of its type, so it behaves exactly like a recreational
+ * facility of a built-in type.
+ *
+ * @see FacilityType#load(String)
+ */
+public class ConfiguredRecreational extends AbstractRecreational {
+
+  private FacilityType type;
+
+  /**
+   * Constructs a new recreational facility of the given configured type.
+   *
+   * @param name the name of the recreational facility
+   * @param type the type of the recreational facility
+   */
+  public ConfiguredRecreational(String name, FacilityType type) {
+    super(name, type.getEconomics());
+    this.type = type;
+  }
+
+  /**
+   * Returns the type of the recreational facility.
+   *
+   * @return the type of the recreational facility
+   */
+  public FacilityType getType() {
+    return type;
+  }
+}
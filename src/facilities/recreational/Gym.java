@@ -1,5 +1,7 @@
 package facilities.recreational;
 
+import facilities.FacilityType;
+
 /**
  * A recreational facility where students can go to eat. Has a base profit of 1 coin, a maximum 
  * level of 2, and a base building cost of 500.
@@ -12,6 +14,15 @@ public class Gym extends AbstractRecreational {
    * @param name the name of the gym
    */
   public Gym(String name) {
-    super(name, 650, 4, 2);
+    super(name, FacilityType.GYM.getEconomics());
+  }
+
+  /**
+   * Returns the type of the gym, which is always GYM.
+   *
+   * @return the type of the gym
+   */
+  public FacilityType getType() {
+    return FacilityType.GYM;
   }
 }
@@ -0,0 +1,105 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram any number of threads can record into at once, with the same log-linear buckets as a
+ * histogram. The counts are striped: every stripe is a full set of atomic bucket counts, and a
+ * thread records into the stripe picked by its id, so threads on different stripes never touch
+ * the same counter and recording is a single atomic increment in the common case.
+ *
+ * <p>The values recorded are read by taking a snapshot, which adds up the stripes into a plain
+ * histogram for percentiles and merging. A snapshot taken while values are being recorded may
+ * miss some of them, but every value it counts is in its bucket, so its percentiles are always
+ * consistent with its count.
+ *
+ * @see Histogram
+ */
+public class ConcurrentHistogram {
+
+  // the slots after the buckets of a stripe
+  private static final int TOTAL = Histogram.NUMBER_OF_BUCKETS;
+  private static final int MINIMUM = TOTAL + 1;
+  private static final int MAXIMUM = TOTAL + 2;
+  private static final int STRIPE_LENGTH = MAXIMUM + 1;
+
+  private AtomicLongArray[] stripes;
+  private int stripeMask;
+
+  /**
+   * Constructs a new, empty histogram with a stripe for every processor, rounded up to a power of
+   * two.
+   */
+  public ConcurrentHistogram() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a new, empty histogram with at least the given number of stripes, rounded up to a
+   * power of two. Every stripe takes about 15 KB.
+   *
+   * @param numberOfStripes the number of stripes
+   * @throws IllegalArgumentException if the number of stripes isn't between 1 and 1024
+   */
+  public ConcurrentHistogram(int numberOfStripes) {
+    if (numberOfStripes < 1 || numberOfStripes > 1024) {
+      throw new IllegalArgumentException("A concurrent histogram must have between 1 and 1024 "
+          + "stripes.");
+    }
+    int length = Integer.highestOneBit(numberOfStripes * 2 - 1);
+    stripes = new AtomicLongArray[length];
+    for (int i = 0; i < length; i++) {
+      stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+      stripes[i].set(MINIMUM, Long.MAX_VALUE);
+      stripes[i].set(MAXIMUM, Long.MIN_VALUE);
+    }
+    stripeMask = length - 1;
+  }
+
+  /**
+   * Records a value. Negative values are recorded as 0. Can be called by any thread.
+   *
+   * @param value the value
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+    AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+    stripe.getAndIncrement(Histogram.bucketOf(value));
+    stripe.getAndAdd(TOTAL, value);
+    // the extremes are only written when they change, which soon becomes rare
+    long minimum = stripe.get(MINIMUM);
+    while (value < minimum && !stripe.compareAndSet(MINIMUM, minimum, value)) {
+      minimum = stripe.get(MINIMUM);
+    }
+    long maximum = stripe.get(MAXIMUM);
+    while (value > maximum && !stripe.compareAndSet(MAXIMUM, maximum, value)) {
+      maximum = stripe.get(MAXIMUM);
+    }
+  }
+
+  /**
+   * Returns a new histogram of the values recorded so far, the stripes added up.
+   *
+   * @return a snapshot of the values recorded so far
+   */
+  public Histogram snapshot() {
+    Histogram histogram = new Histogram();
+    long[] bucketCounts = new long[Histogram.NUMBER_OF_BUCKETS];
+    for (AtomicLongArray stripe : stripes) {
+      for (int bucket = 0; bucket < Histogram.NUMBER_OF_BUCKETS; bucket++) {
+        bucketCounts[bucket] = stripe.get(bucket);
+      }
+      histogram.add(bucketCounts, stripe.get(TOTAL), stripe.get(MINIMUM), stripe.get(MAXIMUM));
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the number of stripes of the histogram.
+   *
+   * @return the number of stripes
+   */
+  public int getNumberOfStripes() {
+    return stripes.length;
+  }
+}
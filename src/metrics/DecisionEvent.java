@@ -0,0 +1,70 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a building built or upgraded by a university, with the score
+ * that got it chosen. Disabled unless a recording turns it on, e.g. with the ecssim.jfc settings.
+ */
+@Name("ecssim.Decision")
+@Label("Build or Upgrade Decision")
+@Category("EcsSim")
+@Description("A building built or upgraded, with the score it was chosen by")
+@Enabled(false)
+@StackTrace(false)
+public final class DecisionEvent extends jdk.jfr.Event {
+
+  @Label("Year")
+  private int year;
+  @Label("Action")
+  @Description("build or upgrade")
+  private String action;
+  @Label("Facility Type")
+  private String facilityType;
+  @Label("Facility Id")
+  private int facilityId;
+  @Label("Level")
+  @Description("The level of the building after the action")
+  private int level;
+  @Label("Score")
+  @Description("The score the building was chosen by, NaN if the lookahead planner chose it")
+  private float score;
+  @Label("Cost")
+  @Description("The cost of the action, in coins")
+  private int cost;
+  @Label("Budget")
+  @Description("The budget after the action, in coins")
+  private double budget;
+
+  /**
+   * Commits the event with the given fields, if the event is enabled.
+   *
+   * @param year         the year of the decision
+   * @param action       "build" or "upgrade"
+   * @param facilityType the name of the type of the building
+   * @param facilityId   the id of the building
+   * @param level        the level of the building after the action
+   * @param score        the score the building was chosen by, NaN if it was planned
+   * @param cost         the cost of the action, in coins
+   * @param budget       the budget after the action, in coins
+   */
+  public void commit(int year, String action, String facilityType, int facilityId, int level,
+      float score, int cost, double budget) {
+    if (shouldCommit()) {
+      this.year = year;
+      this.action = action;
+      this.facilityType = facilityType;
+      this.facilityId = facilityId;
+      this.level = level;
+      this.score = score;
+      this.cost = cost;
+      this.budget = budget;
+      commit();
+    }
+  }
+}
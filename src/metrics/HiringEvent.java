@@ -0,0 +1,62 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a university's hiring of staff in a year, whether or not
+ * anyone was hired. Disabled unless a recording turns it on, e.g. with the ecssim.jfc settings.
+ */
+@Name("ecssim.Hiring")
+@Label("Hiring Batch")
+@Category("EcsSim")
+@Description("The staff hired by a university in a year")
+@Enabled(false)
+@StackTrace(false)
+public final class HiringEvent extends jdk.jfr.Event {
+
+  @Label("Year")
+  private int year;
+  @Label("Hired")
+  private int hired;
+  @Label("Salary Limit")
+  @Description("The salary the maximum starting salary of a new staff member had to be below")
+  private float salaryLimit;
+  @Label("Students")
+  private int students;
+  @Label("Instructable Students")
+  @Description("The number of students the staff could instruct after hiring")
+  private int instructableStudents;
+  @Label("Staff")
+  @Description("The number of staff after hiring")
+  private int staff;
+
+  /**
+   * Ends the event and commits it with the given fields, if the event is enabled and lasted at
+   * least its threshold.
+   *
+   * @param year                 the year of the hiring
+   * @param hired                the number of staff hired
+   * @param salaryLimit          the salary limit of the hiring
+   * @param students             the number of students in the university
+   * @param instructableStudents the number of students the staff could instruct after hiring
+   * @param staff                the number of staff after hiring
+   */
+  public void commit(int year, int hired, float salaryLimit, int students,
+      int instructableStudents, int staff) {
+    end();
+    if (shouldCommit()) {
+      this.year = year;
+      this.hired = hired;
+      this.salaryLimit = salaryLimit;
+      this.students = students;
+      this.instructableStudents = instructableStudents;
+      this.staff = staff;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package metrics;
+
+/**
+ * A histogram of non-negative long values, such as durations in nanoseconds or numbers of bytes,
+ * with log-linear buckets. Values below 64 get a bucket each, and every power of two above that is
+ * split into 32 buckets of equal width, so a value is never off by more than about 3% however big
+ * it is, and the whole range of longs takes under 2000 buckets. The exact count, minimum, maximum,
+ * and total of the values are kept on the side.
+ *
+ * <p>Histograms with the same buckets can be merged by adding one to another, so each thread can
+ * record into a histogram of its own and the histograms can be added up at the end.
+ *
+ * <p>A histogram isn't thread-safe, threads recording into the same histogram should use a
+ * concurrent histogram and take snapshots of it.
+ *
+ * @see ConcurrentHistogram
+ */
+public class Histogram {
+
+  // the number of bits of a value kept below its highest bit, 32 buckets a power of two
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // values below this get a bucket each
+  private static final int EXACT_LIMIT = SUB_BUCKETS * 2;
+  // the number of buckets needed for Long.MAX_VALUE, the bucket of the biggest value plus 1
+  static final int NUMBER_OF_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+  private long[] counts = new long[NUMBER_OF_BUCKETS];
+  private long count = 0;
+  private long total = 0;
+  private long minimum = Long.MAX_VALUE;
+  private long maximum = Long.MIN_VALUE;
+
+  /**
+   * Returns the bucket of the given value. Values below EXACT_LIMIT are their own bucket, and a
+   * bigger value is bucketed by its highest SUB_BUCKET_BITS + 1 bits and how far they are shifted.
+   *
+   * @param value the value, at least 0
+   * @return the bucket of the value
+   */
+  static int bucketOf(long value) {
+    if (value < EXACT_LIMIT) {
+      return (int) value;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS + 1);
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /**
+   * Returns the highest value that goes in the given bucket.
+   *
+   * @param bucket the bucket
+   * @return the highest value of the bucket
+   */
+  static long highestValueOf(int bucket) {
+    if (bucket < EXACT_LIMIT) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long top = bucket - (long) shift * SUB_BUCKETS;
+    // for the top bucket this overflows to Long.MIN_VALUE and back round to Long.MAX_VALUE
+    return ((top + 1) << shift) - 1;
+  }
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value the value
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+    counts[bucketOf(value)]++;
+    count++;
+    total += value;
+    minimum = Math.min(minimum, value);
+    maximum = Math.max(maximum, value);
+  }
+
+  /**
+   * Adds every value recorded in the given histogram to this one.
+   *
+   * @param other the histogram to add
+   */
+  public void add(Histogram other) {
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      counts[bucket] += other.counts[bucket];
+    }
+    count += other.count;
+    total += other.total;
+    minimum = Math.min(minimum, other.minimum);
+    maximum = Math.max(maximum, other.maximum);
+  }
+
+  /**
+   * Adds the given counts of values in every bucket to this histogram, along with their total,
+   * minimum, and maximum, as kept by a concurrent histogram.
+   *
+   * @param bucketCounts the number of values in every bucket
+   * @param valueTotal   the total of the values
+   * @param valueMinimum the smallest value, Long.MAX_VALUE if there are none
+   * @param valueMaximum the biggest value, Long.MIN_VALUE if there are none
+   */
+  void add(long[] bucketCounts, long valueTotal, long valueMinimum, long valueMaximum) {
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      counts[bucket] += bucketCounts[bucket];
+      count += bucketCounts[bucket];
+    }
+    total += valueTotal;
+    minimum = Math.min(minimum, valueMinimum);
+    maximum = Math.max(maximum, valueMaximum);
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the number of values recorded
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the smallest value recorded, or 0 if none have been.
+   *
+   * @return the smallest value recorded
+   */
+  public long getMinimum() {
+    return count == 0 ? 0 : minimum;
+  }
+
+  /**
+   * Returns the biggest value recorded, or 0 if none have been.
+   *
+   * @return the biggest value recorded
+   */
+  public long getMaximum() {
+    return count == 0 ? 0 : maximum;
+  }
+
+  /**
+   * Returns the mean of the values recorded, or 0 if none have been.
+   *
+   * @return the mean of the values recorded
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) total / count;
+  }
+
+  /**
+   * Returns the value the given percentage of the values recorded are at or below, to within the
+   * width of its bucket, never more than the biggest value recorded. Returns 0 if no values have
+   * been recorded.
+   *
+   * @param percentile the percentage, from 0 to 100
+   * @return the value at the percentile
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    // the rank of the value at the percentile, at least the first value
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return Math.min(maximum, highestValueOf(bucket));
+      }
+    }
+    return maximum;
+  }
+}
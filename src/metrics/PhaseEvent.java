@@ -0,0 +1,45 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a phase of a simulated year, such as hiring staff or
+ * paying salaries, so the samples taken in a recording can be told apart by phase. Disabled unless
+ * a recording turns it on, e.g. with the ecssim.jfc settings.
+ *
+ * @see YearEvent
+ */
+@Name("ecssim.Phase")
+@Label("Simulation Phase")
+@Category("EcsSim")
+@Description("A phase of a year of a simulation")
+@Enabled(false)
+@StackTrace(false)
+public final class PhaseEvent extends jdk.jfr.Event {
+
+  @Label("Year")
+  private int year;
+  @Label("Phase")
+  private String phase;
+
+  /**
+   * Ends the event and commits it with the given fields, if the event is enabled and lasted at
+   * least its threshold.
+   *
+   * @param year  the year the phase is in
+   * @param phase the name of the phase
+   */
+  public void commit(int year, String phase) {
+    end();
+    if (shouldCommit()) {
+      this.year = year;
+      this.phase = phase;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records how long each phase of a pipeline takes and how many bytes it allocates, into a
+ * histogram per phase. The pipeline marks the start of its first phase with start and the end of
+ * every phase with lap, which records the phase and returns the mark the next phase starts from.
+ * Allocated bytes are counted by the thread MX bean of the JVM, if it can count them.
+ *
+ * <p>A profiler isn't thread-safe, every thread running a pipeline should have its own, and the
+ * profilers can be added up at the end.
+ *
+ * @see Histogram
+ */
+public class PhaseProfiler {
+
+  private String[] phases;
+  private Histogram[] durations;
+  private Histogram[] allocations;
+  // null if the JVM can't count the bytes allocated by a thread
+  private com.sun.management.ThreadMXBean threadBean;
+  // the bytes allocated by the current thread at the last mark
+  private long allocatedBytes;
+
+  /**
+   * Constructs a new profiler for a pipeline with the given phases.
+   *
+   * @param phases the names of the phases, in the order they run in
+   */
+  public PhaseProfiler(String[] phases) {
+    this.phases = phases.clone();
+    durations = new Histogram[phases.length];
+    allocations = new Histogram[phases.length];
+    for (int i = 0; i < phases.length; i++) {
+      durations[i] = new Histogram();
+      allocations[i] = new Histogram();
+    }
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean bean =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if (bean.isThreadAllocatedMemorySupported()) {
+        bean.setThreadAllocatedMemoryEnabled(true);
+        threadBean = bean;
+      }
+    }
+  }
+
+  /**
+   * Marks the start of the first phase of the pipeline on the current thread.
+   *
+   * @return the mark the first phase starts from
+   */
+  public long start() {
+    allocatedBytes = getAllocatedBytes();
+    return System.nanoTime();
+  }
+
+  /**
+   * Marks the end of the given phase, recording how long it took since the given mark and how many
+   * bytes the current thread allocated in it. The time taken to record them isn't counted towards
+   * any phase.
+   *
+   * @param phase the index of the phase
+   * @param mark  the mark the phase started from
+   * @return the mark the next phase starts from
+   */
+  public long lap(int phase, long mark) {
+    long now = System.nanoTime();
+    long allocated = getAllocatedBytes();
+    durations[phase].record(now - mark);
+    allocations[phase].record(allocated - allocatedBytes);
+    allocatedBytes = getAllocatedBytes();
+    return System.nanoTime();
+  }
+
+  /**
+   * Returns the number of bytes allocated by the current thread so far, or 0 if the JVM can't
+   * count them.
+   *
+   * @return the number of bytes allocated by the current thread
+   */
+  private long getAllocatedBytes() {
+    return threadBean == null ? 0
+        : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Adds everything recorded by the given profiler to this one. The profilers must have the same
+   * phases.
+   *
+   * @param other the profiler to add
+   * @throws IllegalArgumentException if the profilers have a different number of phases
+   */
+  public void add(PhaseProfiler other) {
+    if (other.phases.length != phases.length) {
+      throw new IllegalArgumentException("Only profilers of the same phases can be added.");
+    }
+    for (int i = 0; i < phases.length; i++) {
+      durations[i].add(other.durations[i]);
+      allocations[i].add(other.allocations[i]);
+    }
+  }
+
+  /**
+   * Returns the histogram of the durations of the given phase, in nanoseconds.
+   *
+   * @param phase the index of the phase
+   * @return the histogram of the durations of the phase
+   */
+  public Histogram getDurations(int phase) {
+    return durations[phase];
+  }
+
+  /**
+   * Returns the histogram of the bytes allocated by the given phase.
+   *
+   * @param phase the index of the phase
+   * @return the histogram of the bytes allocated by the phase
+   */
+  public Histogram getAllocations(int phase) {
+    return allocations[phase];
+  }
+
+  /**
+   * Returns the names of the phases, in the order they run in.
+   *
+   * @return the names of the phases
+   */
+  public String[] getPhases() {
+    return phases.clone();
+  }
+
+  /**
+   * Prints a table of the percentiles of the duration, in microseconds, and the mean allocated
+   * bytes of every phase to the given stream.
+   *
+   * @param out the stream to print to
+   */
+  public void printTable(PrintStream out) {
+    int width = "phase".length();
+    for (String phase : phases) {
+      width = Math.max(width, phase.length());
+    }
+    out.printf("%-" + width + "s %10s %10s %10s %10s %10s %10s %12s%n", "phase", "count",
+        "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "mean bytes");
+    for (int i = 0; i < phases.length; i++) {
+      Histogram duration = durations[i];
+      out.printf("%-" + width + "s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %12.0f%n", phases[i],
+          duration.getCount(), duration.getValueAtPercentile(50) / 1e3,
+          duration.getValueAtPercentile(90) / 1e3, duration.getValueAtPercentile(99) / 1e3,
+          duration.getValueAtPercentile(99.9) / 1e3, duration.getMaximum() / 1e3,
+          allocations[i].getMean());
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a university's update of its staff roster at the end of a
+ * year, with the number of staff that retired and left. Disabled unless a recording turns it on,
+ * e.g. with the ecssim.jfc settings.
+ */
+@Name("ecssim.RosterUpdate")
+@Label("Roster Update")
+@Category("EcsSim")
+@Description("The staff that retired or left a university at the end of a year")
+@Enabled(false)
+@StackTrace(false)
+public final class RosterUpdateEvent extends jdk.jfr.Event {
+
+  @Label("Year")
+  private int year;
+  @Label("Retired")
+  private int retired;
+  @Label("Left")
+  @Description("The number of staff that left due to exhaustion")
+  private int left;
+  @Label("Staff")
+  @Description("The number of staff after the update")
+  private int staff;
+
+  /**
+   * Ends the event and commits it with the given fields, if the event is enabled and lasted at
+   * least its threshold.
+   *
+   * @param year    the year of the update
+   * @param retired the number of staff that retired
+   * @param left    the number of staff that left due to exhaustion
+   * @param staff   the number of staff after the update
+   */
+  public void commit(int year, int retired, int left, int staff) {
+    end();
+    if (shouldCommit()) {
+      this.year = year;
+      this.retired = retired;
+      this.left = left;
+      this.staff = staff;
+      commit();
+    }
+  }
+}
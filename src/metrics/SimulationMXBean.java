@@ -0,0 +1,78 @@
+package metrics;
+
+/**
+ * The management interface of a running simulation, registered with the platform MBean server so
+ * tools such as JConsole can watch a long run. Every attribute is read from the snapshot the
+ * simulation published at the end of its latest year, so reading them never holds up the
+ * simulation. Each attribute reads the latest snapshot on its own, so the attributes read one by
+ * one may come from different years, whereas the Snapshot attribute has all of them from the same
+ * year.
+ *
+ * @see SimulationMonitor
+ */
+public interface SimulationMXBean {
+
+  /**
+   * Returns the snapshot of the simulation at the end of its latest year.
+   *
+   * @return the latest snapshot of the simulation
+   */
+  SimulationSnapshot getSnapshot();
+
+  /**
+   * Returns the number of years simulated or fast-forwarded so far.
+   *
+   * @return the current year
+   */
+  int getYear();
+
+  /**
+   * Returns the budget of the university, in coins.
+   *
+   * @return the budget of the university
+   */
+  double getBudget();
+
+  /**
+   * Returns the reputation of the university.
+   *
+   * @return the reputation of the university
+   */
+  int getReputation();
+
+  /**
+   * Returns the number of students in the university.
+   *
+   * @return the number of students in the university
+   */
+  int getStudents();
+
+  /**
+   * Returns the number of staff in the university.
+   *
+   * @return the number of staff in the university
+   */
+  int getStaff();
+
+  /**
+   * Returns the number of years simulated or fast-forwarded a second since monitoring started.
+   *
+   * @return the number of years a second
+   */
+  double getYearsPerSecond();
+
+  /**
+   * Returns the names of the phases of a year, in the order they run in.
+   *
+   * @return the names of the phases
+   */
+  String[] getPhases();
+
+  /**
+   * Returns the mean duration of every phase of a year so far in nanoseconds, in the order of the
+   * phases, or an empty array if the phases aren't being timed.
+   *
+   * @return the mean duration of every phase
+   */
+  double[] getPhaseMeanNanos();
+}
@@ -0,0 +1,175 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the state of a running simulation over JMX. The simulation publishes a new immutable
+ * snapshot of itself at the end of every year through a volatile field, and every read over JMX
+ * takes whichever snapshot is the latest, so monitoring never adds a lock to the simulation, and
+ * a snapshot never mixes two years.
+ *
+ * <p>Only the simulation's own thread may publish, any thread may read.
+ *
+ * @see SimulationMXBean
+ * @see SimulationSnapshot
+ */
+public class SimulationMonitor implements SimulationMXBean {
+
+  private static final double[] NO_PHASES = new double[0];
+
+  private String[] phases;
+  private volatile SimulationSnapshot snapshot;
+  // the year and time monitoring started, for the number of years a second
+  private int startYear;
+  private long startTime;
+  // the name the monitor is registered under, null if it isn't registered
+  private ObjectName name;
+
+  /**
+   * Constructs a new monitor of a simulation with the given phases, starting at the given year.
+   * Until the first year is published it reads as the given year with everything else 0.
+   *
+   * @param phases    the names of the phases of a year
+   * @param startYear the year the simulation is at
+   */
+  public SimulationMonitor(String[] phases, int startYear) {
+    this.phases = phases.clone();
+    this.startYear = startYear;
+    startTime = System.nanoTime();
+    snapshot = new SimulationSnapshot(startYear, 0, 0, 0, 0, 0, this.phases, NO_PHASES);
+  }
+
+  /**
+   * Publishes the state of the simulation at the end of a year, replacing the previous snapshot.
+   *
+   * @param year       the current year
+   * @param budget     the budget of the university, in coins
+   * @param reputation the reputation of the university
+   * @param students   the number of students in the university
+   * @param staff      the number of staff in the university
+   * @param profiler   the profiler timing the phases of the simulation, or null if there is none
+   */
+  public void publish(int year, double budget, int reputation, int students, int staff,
+      PhaseProfiler profiler) {
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    double yearsPerSecond = seconds > 0 ? (year - startYear) / seconds : 0;
+    double[] phaseMeanNanos = NO_PHASES;
+    if (profiler != null) {
+      phaseMeanNanos = new double[phases.length];
+      for (int phase = 0; phase < phases.length; phase++) {
+        phaseMeanNanos[phase] = profiler.getDurations(phase).getMean();
+      }
+    }
+    snapshot = new SimulationSnapshot(year, budget, reputation, students, staff, yearsPerSecond,
+        phases, phaseMeanNanos);
+  }
+
+  /**
+   * Registers this monitor with the platform MBean server under the name
+   * "ecssim:type=Simulation,name=" followed by the given name.
+   *
+   * @param simulationName the name of the simulation
+   * @throws JMException if the monitor can't be registered, e.g. if the name is already taken
+   */
+  public void register(String simulationName) throws JMException {
+    ObjectName objectName = new ObjectName("ecssim:type=Simulation,name=" + simulationName);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    name = objectName;
+  }
+
+  /**
+   * Unregisters this monitor from the platform MBean server, if it's registered.
+   *
+   * @throws JMException if the monitor can't be unregistered
+   */
+  public void unregister() throws JMException {
+    if (name != null) {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+      name = null;
+    }
+  }
+
+  /**
+   * Returns the snapshot of the simulation at the end of its latest year.
+   *
+   * @return the latest snapshot of the simulation
+   */
+  public SimulationSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Returns the number of years simulated or fast-forwarded so far.
+   *
+   * @return the current year
+   */
+  public int getYear() {
+    return snapshot.getYear();
+  }
+
+  /**
+   * Returns the budget of the university, in coins.
+   *
+   * @return the budget of the university
+   */
+  public double getBudget() {
+    return snapshot.getBudget();
+  }
+
+  /**
+   * Returns the reputation of the university.
+   *
+   * @return the reputation of the university
+   */
+  public int getReputation() {
+    return snapshot.getReputation();
+  }
+
+  /**
+   * Returns the number of students in the university.
+   *
+   * @return the number of students in the university
+   */
+  public int getStudents() {
+    return snapshot.getStudents();
+  }
+
+  /**
+   * Returns the number of staff in the university.
+   *
+   * @return the number of staff in the university
+   */
+  public int getStaff() {
+    return snapshot.getStaff();
+  }
+
+  /**
+   * Returns the number of years simulated or fast-forwarded a second since monitoring started.
+   *
+   * @return the number of years a second
+   */
+  public double getYearsPerSecond() {
+    return snapshot.getYearsPerSecond();
+  }
+
+  /**
+   * Returns the names of the phases of a year, in the order they run in.
+   *
+   * @return the names of the phases
+   */
+  public String[] getPhases() {
+    return phases.clone();
+  }
+
+  /**
+   * Returns the mean duration of every phase of a year so far in nanoseconds, in the order of the
+   * phases, or an empty array if the phases aren't being timed.
+   *
+   * @return the mean duration of every phase
+   */
+  public double[] getPhaseMeanNanos() {
+    return snapshot.getPhaseMeanNanos();
+  }
+}
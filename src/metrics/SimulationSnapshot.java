@@ -0,0 +1,117 @@
+package metrics;
+
+/**
+ * The state of a running simulation at the end of a year, as published to its monitor. A snapshot
+ * is immutable, so once it's published any thread can read it without locking.
+ *
+ * @see SimulationMonitor#publish(int, double, int, int, int, PhaseProfiler)
+ */
+public final class SimulationSnapshot {
+
+  private final int year;
+  private final double budget;
+  private final int reputation;
+  private final int students;
+  private final int staff;
+  private final double yearsPerSecond;
+  private final String[] phases;
+  private final double[] phaseMeanNanos;
+
+  /**
+   * Constructs a new snapshot. The arrays are kept as they are, so they mustn't be changed
+   * afterwards.
+   *
+   * @param year           the current year
+   * @param budget         the budget of the university, in coins
+   * @param reputation     the reputation of the university
+   * @param students       the number of students in the university
+   * @param staff          the number of staff in the university
+   * @param yearsPerSecond the number of years a second since monitoring started
+   * @param phases         the names of the phases of a year
+   * @param phaseMeanNanos the mean duration of every phase in nanoseconds, or an empty array
+   */
+  SimulationSnapshot(int year, double budget, int reputation, int students, int staff,
+      double yearsPerSecond, String[] phases, double[] phaseMeanNanos) {
+    this.year = year;
+    this.budget = budget;
+    this.reputation = reputation;
+    this.students = students;
+    this.staff = staff;
+    this.yearsPerSecond = yearsPerSecond;
+    this.phases = phases;
+    this.phaseMeanNanos = phaseMeanNanos;
+  }
+
+  /**
+   * Returns the number of years simulated or fast-forwarded so far.
+   *
+   * @return the current year
+   */
+  public int getYear() {
+    return year;
+  }
+
+  /**
+   * Returns the budget of the university, in coins.
+   *
+   * @return the budget of the university
+   */
+  public double getBudget() {
+    return budget;
+  }
+
+  /**
+   * Returns the reputation of the university.
+   *
+   * @return the reputation of the university
+   */
+  public int getReputation() {
+    return reputation;
+  }
+
+  /**
+   * Returns the number of students in the university.
+   *
+   * @return the number of students in the university
+   */
+  public int getStudents() {
+    return students;
+  }
+
+  /**
+   * Returns the number of staff in the university.
+   *
+   * @return the number of staff in the university
+   */
+  public int getStaff() {
+    return staff;
+  }
+
+  /**
+   * Returns the number of years simulated or fast-forwarded a second since monitoring started.
+   *
+   * @return the number of years a second
+   */
+  public double getYearsPerSecond() {
+    return yearsPerSecond;
+  }
+
+  /**
+   * Returns the names of the phases of a year, in the order they run in.
+   *
+   * @return the names of the phases
+   */
+  public String[] getPhases() {
+    return phases.clone();
+  }
+
+  /**
+   * Returns the mean duration of every phase of a year so far in nanoseconds, in the order of the
+   * phases, or an empty array if the phases aren't being timed.
+   *
+   * @return the mean duration of every phase
+   */
+  public double[] getPhaseMeanNanos() {
+    return phaseMeanNanos.clone();
+  }
+}
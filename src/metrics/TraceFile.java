@@ -0,0 +1,164 @@
+package metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * A file of trace events in the JSON array format of the Chrome trace viewer, which Perfetto and
+ * chrome://tracing open offline. Events are recorded by tracers, one per simulation, which buffer
+ * them and stream them to the file a chunk at a time, so a trace of any length only ever takes
+ * up the memory of the buffers. Every thread that records events shows up as a track of its own,
+ * named after the thread.
+ *
+ * <p>Tracers can write to the same file from different threads. Every event in the file after
+ * the first starts with a comma, so the file is a valid JSON array once it's closed, and a file
+ * that was never closed can still be opened by the trace viewers, which accept a missing end.
+ *
+ * @see Tracer
+ */
+public class TraceFile {
+
+  // the process id of every event, the simulations all run in the one process
+  static final int PID = 1;
+
+  private BufferedWriter writer;
+  // the time events are measured from, so the first event is at about 0
+  private long startTime;
+  private HashSet<Long> namedThreads = new HashSet<Long>();
+  private ArrayList<Tracer> tracers = new ArrayList<Tracer>();
+  private long numberOfEvents = 0;
+
+  /**
+   * Creates a new trace file, replacing the file if it exists, and writes the start of the array
+   * with an event naming the process.
+   *
+   * @param file the file to write to
+   * @throws IOException if the file can't be written
+   */
+  public TraceFile(Path file) throws IOException {
+    writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    startTime = System.nanoTime();
+    writer.write("[\n");
+    StringBuilder event = new StringBuilder();
+    appendMetadata(event, "process_name", 0, "EcsSim");
+    // the first event has no comma before it
+    writer.append(event, 1, event.length());
+    writer.append('\n');
+    numberOfEvents++;
+  }
+
+  /**
+   * Creates a new tracer writing to this file, for the simulation with the given number.
+   *
+   * @param simulation the number of the simulation, recorded with every event
+   * @return the tracer
+   */
+  public synchronized Tracer createTracer(int simulation) {
+    Tracer tracer = new Tracer(this, simulation);
+    tracers.add(tracer);
+    return tracer;
+  }
+
+  /**
+   * Returns the time events are measured from, in nanoseconds as given by System.nanoTime.
+   *
+   * @return the start time of the trace
+   */
+  long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Writes the given events to the file. Every event must start with a comma.
+   *
+   * @param events         the events
+   * @param numberOfEvents the number of events
+   * @throws IOException if the file can't be written
+   */
+  synchronized void write(CharSequence events, int numberOfEvents) throws IOException {
+    writer.append(events);
+    this.numberOfEvents += numberOfEvents;
+  }
+
+  /**
+   * Writes an event naming the track of the given thread after it, if it hasn't been named yet.
+   *
+   * @param thread the thread
+   * @throws IOException if the file can't be written
+   */
+  synchronized void nameThread(Thread thread) throws IOException {
+    if (namedThreads.add(thread.getId())) {
+      StringBuilder event = new StringBuilder();
+      appendMetadata(event, "thread_name", thread.getId(), thread.getName());
+      writer.append(event);
+      writer.append('\n');
+      numberOfEvents++;
+    }
+  }
+
+  /**
+   * Appends a metadata event with the given name and value for the given thread to the given
+   * builder, starting with a comma.
+   *
+   * @param event the builder
+   * @param name  the name of the metadata, e.g. thread_name
+   * @param tid   the id of the thread
+   * @param value the value of the metadata
+   */
+  private static void appendMetadata(StringBuilder event, String name, long tid, String value) {
+    event.append(",{\"name\":\"").append(name).append("\",\"ph\":\"M\",\"pid\":").append(PID)
+        .append(",\"tid\":").append(tid).append(",\"args\":{\"name\":");
+    appendString(event, value);
+    event.append("}}");
+  }
+
+  /**
+   * Appends the given string to the given builder as a JSON string, in quotes and escaped.
+   *
+   * @param builder the builder
+   * @param string  the string
+   */
+  static void appendString(StringBuilder builder, String string) {
+    builder.append('"');
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      } else if (c < 0x20) {
+        builder.append(String.format("\\u%04x", (int) c));
+      } else {
+        builder.append(c);
+      }
+    }
+    builder.append('"');
+  }
+
+  /**
+   * Returns the number of events written to the file so far, not counting those still in the
+   * buffers of the tracers.
+   *
+   * @return the number of events written
+   */
+  public synchronized long getNumberOfEvents() {
+    return numberOfEvents;
+  }
+
+  /**
+   * Flushes every tracer of the file and writes the end of the array, closing the file. The
+   * tracers mustn't be recording anything anymore.
+   *
+   * @throws IOException if the file can't be written
+   */
+  public synchronized void close() throws IOException {
+    for (Tracer tracer : tracers) {
+      tracer.flush();
+    }
+    writer.append("]\n");
+    writer.close();
+  }
+}
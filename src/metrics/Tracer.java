@@ -0,0 +1,153 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Records the trace events of a simulation into a trace file: spans for years and their phases,
+ * and instant events for things such as hires and builds. Events are appended to a buffer and
+ * written to the file once the buffer fills up, so recording an event doesn't usually touch the
+ * file, and the file is only locked once a buffer's worth of events.
+ *
+ * <p>Every event is put on the track of the thread recording it. A tracer isn't thread-safe, but
+ * the simulation it belongs to can move from thread to thread between years.
+ *
+ * @see TraceFile#createTracer(int)
+ */
+public class Tracer {
+
+  // the number of characters buffered before they're written to the file
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private TraceFile file;
+  private int simulation;
+  private StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+  private int numberOfBuffered = 0;
+  // the thread the last event was recorded by, so a new one gets its track named
+  private Thread lastThread;
+
+  /**
+   * Constructs a new tracer writing to the given file, for the simulation with the given number.
+   *
+   * @param file       the trace file
+   * @param simulation the number of the simulation
+   */
+  Tracer(TraceFile file, int simulation) {
+    this.file = file;
+    this.simulation = simulation;
+  }
+
+  /**
+   * Records a span, a complete event from the given start time to the given end time.
+   *
+   * @param name     the name of the span, e.g. the name of a phase
+   * @param category the category of the span, e.g. "phase"
+   * @param start    the start time, as given by System.nanoTime
+   * @param end      the end time, as given by System.nanoTime
+   * @param year     the year the span is in
+   * @throws UncheckedIOException if the trace file can't be written
+   */
+  public void span(String name, String category, long start, long end, int year) {
+    appendEvent(name, category, 'X', start);
+    buffer.append(",\"dur\":");
+    appendMicros(end - start);
+    appendArgs(year, null);
+  }
+
+  /**
+   * Records an instant event at the current time.
+   *
+   * @param name     the name of the event, e.g. "hire"
+   * @param category the category of the event, e.g. "staff"
+   * @param year     the year the event is in
+   * @param detail   what the event is about, e.g. the name of a staff member
+   * @throws UncheckedIOException if the trace file can't be written
+   */
+  public void instant(String name, String category, int year, String detail) {
+    appendEvent(name, category, 'i', System.nanoTime());
+    // scoped to the thread, so it shows on the thread's track
+    buffer.append(",\"s\":\"t\"");
+    appendArgs(year, detail);
+  }
+
+  /**
+   * Appends the start of an event, up to its timestamp, to the buffer, naming the track of the
+   * current thread first if it's a different thread from the last event's.
+   *
+   * @param name     the name of the event
+   * @param category the category of the event
+   * @param phase    the type of event, e.g. 'X' for a complete event
+   * @param time     the time of the event, as given by System.nanoTime
+   */
+  private void appendEvent(String name, String category, char phase, long time) {
+    Thread thread = Thread.currentThread();
+    if (thread != lastThread) {
+      try {
+        file.nameThread(thread);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      lastThread = thread;
+    }
+    buffer.append(",{\"name\":");
+    TraceFile.appendString(buffer, name);
+    buffer.append(",\"cat\":\"").append(category).append("\",\"ph\":\"").append(phase)
+        .append("\",\"pid\":").append(TraceFile.PID).append(",\"tid\":").append(thread.getId())
+        .append(",\"ts\":");
+    appendMicros(time - file.getStartTime());
+  }
+
+  /**
+   * Appends the arguments of an event and the end of the event to the buffer, then writes the
+   * buffer to the file if it's full.
+   *
+   * @param year   the year the event is in
+   * @param detail what the event is about, or null for nothing
+   */
+  private void appendArgs(int year, String detail) {
+    buffer.append(",\"args\":{\"simulation\":").append(simulation).append(",\"year\":")
+        .append(year);
+    if (detail != null) {
+      buffer.append(",\"detail\":");
+      TraceFile.appendString(buffer, detail);
+    }
+    buffer.append("}}\n");
+    numberOfBuffered++;
+    if (buffer.length() >= BUFFER_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Appends the given number of nanoseconds to the buffer as microseconds, to three decimal places,
+   * which is the unit of the timestamps and durations of the trace viewers.
+   *
+   * @param nanos the number of nanoseconds, at least 0
+   */
+  private void appendMicros(long nanos) {
+    long fraction = nanos % 1000;
+    buffer.append(nanos / 1000).append('.');
+    if (fraction < 100) {
+      buffer.append(fraction < 10 ? "00" : "0");
+    }
+    buffer.append(fraction);
+  }
+
+  /**
+   * Writes the events buffered so far to the trace file.
+   *
+   * @throws UncheckedIOException if the trace file can't be written
+   */
+  public void flush() {
+    if (numberOfBuffered == 0) {
+      return;
+    }
+    try {
+      file.write(buffer, numberOfBuffered);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.setLength(0);
+    numberOfBuffered = 0;
+  }
+}
@@ -0,0 +1,58 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a simulated year, from building and upgrading to
+ * replenishing the stamina of the staff, with the state of the university at the end of it.
+ * Disabled unless a recording turns it on, e.g. with the ecssim.jfc settings.
+ *
+ * @see PhaseEvent
+ */
+@Name("ecssim.Year")
+@Label("Simulated Year")
+@Category("EcsSim")
+@Description("A year of a simulation, with the state of the university at the end of it")
+@Enabled(false)
+@StackTrace(false)
+public final class YearEvent extends jdk.jfr.Event {
+
+  @Label("Year")
+  private int year;
+  @Label("Budget")
+  @Description("The budget at the end of the year, in coins")
+  private double budget;
+  @Label("Reputation")
+  private int reputation;
+  @Label("Students")
+  private int students;
+  @Label("Staff")
+  private int staff;
+
+  /**
+   * Ends the event and commits it with the given fields, if the event is enabled and lasted at
+   * least its threshold.
+   *
+   * @param year       the year simulated
+   * @param budget     the budget at the end of the year, in coins
+   * @param reputation the reputation at the end of the year
+   * @param students   the number of students at the end of the year
+   * @param staff      the number of staff at the end of the year
+   */
+  public void commit(int year, double budget, int reputation, int students, int staff) {
+    end();
+    if (shouldCommit()) {
+      this.year = year;
+      this.budget = budget;
+      this.reputation = reputation;
+      this.students = students;
+      this.staff = staff;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package university;
+
+/**
+ * Detects a university going round a cycle of years, so the repeats of the cycle can be skipped
+ * rather than simulated. The cycle hash of the university, which leaves out the budget,
+ * reputation, and years of teaching, is recorded at the start of every year, along with the exact
+ * budget and reputation. When a year starts with a hash already seen, the years since then are a
+ * cycle, and every repeat of it changes the budget and reputation by the same amounts as the last
+ * one did. As many whole repeats as are certain to play out the same are then skipped in one go,
+ * by multiplying those amounts, and only the years after them are simulated.
+ *
+ * <p>A cycle only repeats exactly if nothing random happens in it and nothing is built, upgraded,
+ * or hired, none of which ever goes back on itself. The version of the university changes with
+ * any of those, so only the years since it last changed are kept, and most years, in which the
+ * university is still changing, cost no more than comparing the version. The budget the years of
+ * the cycle start with is kept below the point where anything would be built or upgraded by
+ * University's skipCycles.
+ *
+ * <p>Only the states of the last WINDOW years are kept, so cycles longer than that aren't found.
+ *
+ * @see University#getCycleHash()
+ * @see University#getVersion()
+ * @see University#skipCycles(int, int, long, long, int)
+ */
+public class CycleDetector {
+
+  // the number of years of states kept, the longest cycle that can be found
+  private static final int WINDOW = 1024;
+  // the number of slots in the table of years by hash, a power of two comfortably bigger than
+  // WINDOW so the kept states rarely share a slot
+  private static final int TABLE_SIZE = 4 * WINDOW;
+
+  // the states of the last WINDOW years, indexed by year modulo WINDOW
+  private long[] hashes = new long[WINDOW];
+  private long[] budgets = new long[WINDOW];
+  private int[] reputations = new int[WINDOW];
+  // the last year each hash was seen in plus 1, so 0 is never, indexed by the low bits of the
+  // hash. A state sharing its slot with a later one is just forgotten
+  private int[] yearByHash = new int[TABLE_SIZE];
+  // the version of the university the kept states were recorded at, and the first year recorded
+  // at it. The states recorded before then can't come round again
+  private long version = -1;
+  private int firstYear = 0;
+  // the last year recorded, a year skipped ahead of it leaves a gap in the kept states
+  private int lastYear = -1;
+
+  /**
+   * Records the state of the given university at the start of the given year, and returns the
+   * number of years skipped because the university is going round a cycle, which is a whole
+   * number of repeats of the cycle and at most the given number of years. Returns 0 if no years
+   * could be skipped, in which case the year has to be simulated. Skipping the years moves the
+   * budget, reputation, and years of teaching of the university ahead as if they had been
+   * simulated.
+   *
+   * @param year         the year about to be simulated, counting from 0
+   * @param university   the university
+   * @param maximumYears the maximum number of years to skip
+   * @return the number of years skipped
+   */
+  public int skipCycles(int year, University university, int maximumYears) {
+    long currentVersion = university.getVersion();
+    if (currentVersion != version || year != lastYear + 1) {
+      version = currentVersion;
+      firstYear = year;
+    }
+    lastYear = year;
+    long hash = university.getCycleHash();
+    int tableSlot = (int) hash & (TABLE_SIZE - 1);
+    int seen = yearByHash[tableSlot] - 1;
+    if (seen >= firstYear && year - seen <= WINDOW && hashes[seen % WINDOW] == hash) {
+      int cycleLength = year - seen;
+      long startBudget = budgets[seen % WINDOW];
+      long budgetRise = 0;
+      for (int i = seen + 1; i < year; i++) {
+        budgetRise = Math.max(budgetRise, Money.subtract(budgets[i % WINDOW], startBudget));
+      }
+      int years = university.skipCycles(maximumYears / cycleLength, cycleLength,
+          Money.subtract(university.getExactBudget(), startBudget), budgetRise,
+          university.getReputation() - reputations[seen % WINDOW]);
+      if (years > 0) {
+        return years;
+      }
+    }
+    int slot = year % WINDOW;
+    hashes[slot] = hash;
+    budgets[slot] = university.getExactBudget();
+    reputations[slot] = university.getReputation();
+    yearByHash[tableSlot] = year + 1;
+    return 0;
+  }
+}
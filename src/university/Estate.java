@@ -1,31 +1,176 @@
 package university;
 
+import facilities.EconomicsTable;
 import facilities.Facility;
+import facilities.FacilityStore;
+import facilities.FacilityType;
 import facilities.buildings.Building;
-import facilities.buildings.Hall;
-import facilities.buildings.Lab;
-import facilities.buildings.Theatre;
-import facilities.recreational.Cafeteria;
-import facilities.recreational.Gym;
 import facilities.recreational.Recreational;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
- * The estate of the university, containing all the facilities.
+ * The estate of the university, containing all the facilities. The facilities are kept in a
+ * compact facility store as a few bytes of primitive columns each rather than as objects, and are
+ * only turned into facility objects, handles on the store, when one is asked for. Queries that
+ * only need the type and level of a facility, such as looking for upgrades and counting buildings,
+ * read the columns by id and create no objects at all.
  *
  * @see Facility
+ * @see FacilityStore
+ * @see FacilityType
  */
 public class Estate {
 
+  // the facilities in the order they were added, a read-only view handing out handles on the store,
+  // the id of each facility is its index in this list
   private ArrayList<Facility> facilities;
-  private static final String[] RECREATIONAL_TYPES = {"Cafeteria", "Gym"};
+  // the type, level, and name of every facility, indexed by the id of the facility
+  private FacilityStore store;
+  // the ids of the facilities that are not at their maximum level yet, in no particular order. A
+  // facility is removed as soon as it reaches its maximum level, so the maxed out facilities of a
+  // mature estate are never looked at again when looking for upgrades
+  private IdList upgradableBuildings = new IdList();
+  private IdList upgradableRecreational = new IdList();
+  // the index of every upgradable facility in its upgradable list, indexed by the id of the
+  // facility, so it can be removed by moving the last id of the list into its place
+  private int[] upgradableSlots = new int[16];
+
+  // capacity totals of each type and each category of building, indexed by the id of the type or
+  // category, and of all buildings, kept up to date as facilities are added and levelled up so they
+  // never have to be recounted
+  private int[] capacityByType;
+  private int[] capacityByCategory;
+  private int buildingCapacity = 0;
+  // the profit per student of all recreational facilities, kept up to date in the same way
+  private int profitPerStudent = 0;
+  // increased whenever a facility is added or changes, so anything derived from the facilities
+  // can tell whether it's out of date
+  private int version = 0;
+  // the exclusive or of the state hash keys of every facility at its level, kept up to date as
+  // facilities are added and levelled up
+  private long stateHash = 0;
+  // the bottleneck rankings and the version of the estate they were ranked at, the rankings and
+  // the totals they're ranked by are recomputed in place so ranking allocates nothing
+  private String[] bottleneckRankings = {"", "", ""};
+  private int[] rankingTotals = new int[3];
+  private int bottleneckRankingsVersion = -1;
+
+  /**
+   * A list of facility ids that an id can be removed from in constant time, by moving the last id
+   * into its slot.
+   */
+  private static final class IdList {
+    private int[] ids = new int[16];
+    private int size = 0;
+  }
 
   /**
    * Constructs a new estate with no facilities.
    */
   public Estate() {
-    facilities = new ArrayList<Facility>();
+    // the registry is sealed from here on, so the per-type tables can't be outgrown
+    FacilityType[] types = FacilityType.values();
+    store = new FacilityStore(types);
+    facilities = new FacilityListView(store);
+    capacityByType = new int[types.length];
+    capacityByCategory = new int[types.length];
+    store.setListener((facility, oldLevel) -> levelChanged(facility.getId(), oldLevel));
+  }
+
+  /**
+   * Updates everything derived from the facilities after the level of the facility with the given
+   * id has changed through one of its handles.
+   *
+   * @param id       the id of the facility
+   * @param oldLevel the level of the facility before it changed
+   */
+  private void levelChanged(int id, int oldLevel) {
+    FacilityType type = store.getType(id);
+    EconomicsTable economics = type.getEconomics();
+    int level = store.getLevel(id);
+    stateHash ^= hashKey(id, type, oldLevel) ^ hashKey(id, type, level);
+    if (type.isBuilding()) {
+      addCapacity(type, economics.getCapacity(level) - economics.getCapacity(oldLevel));
+      if (level >= economics.getMaximumLevel()) {
+        removeUpgradable(upgradableBuildings, id);
+      }
+    } else {
+      profitPerStudent += economics.getProfit(level) - economics.getProfit(oldLevel);
+      if (level >= economics.getMaximumLevel()) {
+        removeUpgradable(upgradableRecreational, id);
+      }
+    }
+    version++;
+  }
+
+  /**
+   * Adds the given facility id to the end of the given upgradable list, remembering its slot.
+   *
+   * @param upgradable the upgradable list
+   * @param id         the id of the facility
+   */
+  private void addUpgradable(IdList upgradable, int id) {
+    if (id >= upgradableSlots.length) {
+      upgradableSlots =
+          Arrays.copyOf(upgradableSlots, Math.max(id + 1, upgradableSlots.length * 2));
+    }
+    if (upgradable.size == upgradable.ids.length) {
+      upgradable.ids = Arrays.copyOf(upgradable.ids, upgradable.size * 2);
+    }
+    upgradableSlots[id] = upgradable.size;
+    upgradable.ids[upgradable.size++] = id;
+  }
+
+  /**
+   * Removes the given facility id from the given upgradable list in constant time, by moving the
+   * last id of the list into its slot.
+   *
+   * @param upgradable the upgradable list the facility is in
+   * @param id         the id of the facility
+   */
+  private void removeUpgradable(IdList upgradable, int id) {
+    int slot = upgradableSlots[id];
+    int last = upgradable.ids[--upgradable.size];
+    if (slot < upgradable.size) {
+      upgradable.ids[slot] = last;
+      upgradableSlots[last] = slot;
+    }
+  }
+
+  /**
+   * Returns the version of the estate, which is increased whenever a facility is added or changes.
+   * Anything derived from the facilities of the estate only needs recomputing when the version is
+   * different from the one it was computed at.
+   *
+   * @return the version of the estate
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the hash of the facilities of the estate and their levels, the exclusive or of a key
+   * for every facility at its level. Two estates with the same facilities at the same levels have
+   * the same hash.
+   *
+   * @return the hash of the facilities of the estate
+   * @see StateHash
+   */
+  public long getStateHash() {
+    return stateHash;
+  }
+
+  /**
+   * Returns the state hash key of the facility with the given id and type at the given level.
+   *
+   * @param id    the id of the facility
+   * @param type  the type of the facility
+   * @param level the level of the facility
+   * @return the key of the facility at the level
+   */
+  private static long hashKey(int id, FacilityType type, int level) {
+    return StateHash.key(StateHash.FACILITY, id, type.getId(), level);
   }
 
   /**
@@ -41,18 +186,35 @@ public class Estate {
    * Returns the upgradable buildings in the estate as an array of buildings.
    *
    * @return the upgradable buildings in the estate as an array of buildings
+   * @see #getUpgradableBuildingId(int)
    */
   public Building[] getUpgradableBuildings() {
-    ArrayList<Building> buildings = new ArrayList<Building>();
-
-    // iterates through all facilities
-    for (Facility facility : facilities) {
-      // if the facility is a building and is upgradable, adds it to the array of buildings
-      if (facility instanceof Building && ((Building) facility).isUpgradable()) {
-        buildings.add((Building) facility);
-      }
+    Building[] buildings = new Building[upgradableBuildings.size];
+    for (int i = 0; i < buildings.length; i++) {
+      buildings[i] = (Building) store.getFacility(upgradableBuildings.ids[i]);
     }
-    return buildings.toArray(new Building[buildings.size()]);
+    return buildings;
+  }
+
+  /**
+   * Returns the number of upgradable buildings in the estate.
+   *
+   * @return the number of upgradable buildings in the estate
+   */
+  public int getNumberOfUpgradableBuildings() {
+    return upgradableBuildings.size;
+  }
+
+  /**
+   * Returns the id of the upgradable building with the given index, the upgradable buildings being
+   * in no particular order. The ids reflect buildings being added and reaching their maximum level,
+   * so upgrade candidates can be looked through without creating a facility for each of them.
+   *
+   * @param index the index of the upgradable building, less than the number of them
+   * @return the id of the upgradable building
+   */
+  public int getUpgradableBuildingId(int index) {
+    return upgradableBuildings.ids[index];
   }
 
   /**
@@ -61,100 +223,222 @@ public class Estate {
    *
    * @return the upgradable recreational facilities in the estate as an array of recreational
    *          facilities
+   * @see #getUpgradableRecreationalId(int)
    */
   public Recreational[] getUpgradableRecreational() {
-    ArrayList<Recreational> recreational = new ArrayList<Recreational>();
-
-    // iterates through all facilities
-    for (Facility facility : facilities) {
-      // if the facility is recreational and is upgradable, adds it to the array of recreational 
-      // facilities
-      if (facility instanceof Recreational && ((Recreational) facility).isUpgradable()) {
-        recreational.add((Recreational) facility);
-      }
+    Recreational[] recreational = new Recreational[upgradableRecreational.size];
+    for (int i = 0; i < recreational.length; i++) {
+      recreational[i] = (Recreational) store.getFacility(upgradableRecreational.ids[i]);
     }
-    return recreational.toArray(new Recreational[recreational.size()]);
+    return recreational;
+  }
+
+  /**
+   * Returns the number of upgradable recreational facilities in the estate.
+   *
+   * @return the number of upgradable recreational facilities in the estate
+   */
+  public int getNumberOfUpgradableRecreational() {
+    return upgradableRecreational.size;
+  }
+
+  /**
+   * Returns the id of the upgradable recreational facility with the given index, in no particular
+   * order.
+   *
+   * @param index the index of the upgradable recreational facility, less than the number of them
+   * @return the id of the upgradable recreational facility
+   * @see #getUpgradableBuildingId(int)
+   */
+  public int getUpgradableRecreationalId(int index) {
+    return upgradableRecreational.ids[index];
+  }
+
+  /**
+   * Returns the type of the facility with the given id.
+   *
+   * @param id the id of a facility in the estate
+   * @return the type of the facility
+   */
+  public FacilityType getType(int id) {
+    return store.getType(id);
+  }
+
+  /**
+   * Returns the level of the facility with the given id.
+   *
+   * @param id the id of a facility in the estate
+   * @return the level of the facility
+   */
+  public int getLevel(int id) {
+    return store.getLevel(id);
+  }
+
+  /**
+   * Returns the facility with the given id, or null if there is no facility with the id in the
+   * estate. The facility is a new handle on the estate's store, equal to any other handle on it.
+   *
+   * @param id the id of the facility
+   * @return the facility with the given id, or null if there is none
+   */
+  public Facility getFacility(int id) {
+    if (id < 0 || id >= store.size()) {
+      return null;
+    }
+    return store.getFacility(id);
+  }
+
+  /**
+   * Returns whether the given facility is in the estate, which it is if it's a handle on the
+   * estate's store. This takes constant time.
+   *
+   * @param facility the facility
+   * @return whether the facility is in the estate
+   */
+  public boolean contains(Facility facility) {
+    return store.contains(facility);
+  }
+
+  /**
+   * Returns the facilities of the given type in the estate as an array of facilities.
+   *
+   * @param type the type of the facilities
+   * @return the facilities of the given type in the estate as an array of facilities
+   */
+  public Facility[] getFacilities(FacilityType type) {
+    Facility[] facilitiesOfType = new Facility[store.count(type)];
+    int id = -1;
+    for (int i = 0; i < facilitiesOfType.length; i++) {
+      id = store.nextOfType(type, id + 1);
+      facilitiesOfType[i] = store.getFacility(id);
+    }
+    return facilitiesOfType;
   }
 
   /**
    * Adds a facility to the estate with the given type and name. Returns the facility if successful,
    * otherwise returns null.
    *
-   * @param type the type of the facility
+   * @param type the type of the facility, e.g. "Hall"
    * @param name the name of the facility
    * @return the facility if successful, otherwise returns null
+   * @see FacilityType#fromName(String)
    */
   public Facility addFacility(String type, String name) {
-    // adds new building depending on the type parameter, if the type is invalid, null is returned
-    if (type.equals("Hall")) {
-      facilities.add(new Hall(name));
-    } else if (type.equals("Theatre")) {
-      facilities.add(new Theatre(name));
-    } else if (type.equals("Lab")) {
-      facilities.add(new Lab(name));
-    } else if (type.equals("Cafeteria")) {
-      facilities.add(new Cafeteria(name));
-    } else if (type.equals("Gym")) {
-      facilities.add(new Gym(name));
-    } else {
+    // the type is parsed here, if the type is invalid, null is returned
+    FacilityType facilityType = FacilityType.fromName(type);
+    if (facilityType == null) {
       return null;
     }
-    return facilities.get(facilities.size() - 1);
+    return addFacility(facilityType, name);
+  }
+
+  /**
+   * Adds a facility to the estate with the given type and name. Returns a handle on the facility.
+   *
+   * @param type the type of the facility
+   * @param name the name of the facility
+   * @return the facility
+   */
+  public Facility addFacility(FacilityType type, String name) {
+    int id = store.add(type, name);
+    EconomicsTable economics = type.getEconomics();
+    stateHash ^= hashKey(id, type, 1);
+    if (type.isBuilding()) {
+      addCapacity(type, economics.getCapacity(1));
+      if (economics.getMaximumLevel() > 1) {
+        addUpgradable(upgradableBuildings, id);
+      }
+    } else {
+      profitPerStudent += economics.getProfit(1);
+      if (economics.getMaximumLevel() > 1) {
+        addUpgradable(upgradableRecreational, id);
+      }
+    }
+    version++;
+    return store.getFacility(id);
+  }
+
+  /**
+   * Adds the given amount of capacity to the capacity totals of the given type of building, of its
+   * category, and of all buildings.
+   *
+   * @param type   the type of the building whose capacity changed
+   * @param amount the amount of capacity to add, negative if the capacity went down
+   */
+  private void addCapacity(FacilityType type, int amount) {
+    capacityByType[type.getId()] += amount;
+    capacityByCategory[type.getCategory().getId()] += amount;
+    buildingCapacity += amount;
+  }
+
+  /**
+   * Gets the total capacity of all buildings of the given type in the estate.
+   *
+   * @param type the type of building
+   * @return the total capacity of all buildings of the given type
+   */
+  public int getCapacity(FacilityType type) {
+    return capacityByType[type.getId()];
+  }
+
+  /**
+   * Gets the total capacity of all buildings of the given category in the estate, e.g. the total
+   * capacity of halls and every other type of building that houses students for HALL.
+   *
+   * @param category the category of building, one of FacilityType's getCategories
+   * @return the total capacity of all buildings of the given category
+   * @see FacilityType#getCategory()
+   */
+  public int getCategoryCapacity(FacilityType category) {
+    return capacityByCategory[category.getId()];
   }
 
   /**
    * Gets the total maintenance cost of all facilities in the estate. The maintenance cost is
-   * calulated as 10% of the capacity of each building.
+   * calulated as 10% of the capacity of each building, so it's 10% of the total capacity of all
+   * buildings.
    *
    * @return the total maintenance cost of all facilities in the estate
    */
   public float getMaintenanceCost() {
-    float total = 0;
-    for (Facility facility : facilities) {
-      // after ensuring the facility is a building, type cast facility to building in order to get
-      // the capacity and add the maintenance cost to the total. Maintenance cost is 10% of the
-      // capacity of each building.
-      if (facility instanceof facilities.buildings.Building) {
-        total += ((facilities.buildings.Building) facility).getCapacity() * 0.1;
-      }
-    }
-    return total;
+    return (float) (buildingCapacity * 0.1);
+  }
+
+  /**
+   * Gets the total maintenance cost of all facilities in the estate as an exact amount of money,
+   * 10% of the total capacity of all buildings.
+   *
+   * @return the total maintenance cost of all facilities as an amount of money
+   * @see Money
+   */
+  public long getExactMaintenanceCost() {
+    return Money.ofTenths(buildingCapacity);
   }
 
   /**
    * Gets the minimum number of students the estate can accomodate. This is the minimum of the total
-   * capacity of all halls, theatres, and labs.
+   * capacity of all halls, theatres, and labs, counting each configured building type with the
+   * category it belongs to.
    *
    * @return the minimum number of students the estate can accomodate
    */
   public int getNumberOfStudents() {
-    int hallTotal = 0;
-    int theatreTotal = 0;
-    int labTotal = 0;
-
-    // iterates through every building, adding the capacity to the respective total
-    for (Facility facility : facilities) {
-      if (facility instanceof facilities.buildings.Hall) {
-        hallTotal += ((facilities.buildings.Building) facility).getCapacity();
-      } else if (facility instanceof facilities.buildings.Theatre) {
-        theatreTotal += ((facilities.buildings.Building) facility).getCapacity();
-      } else if (facility instanceof facilities.buildings.Lab) {
-        labTotal += ((facilities.buildings.Building) facility).getCapacity();
-      }
-    }
-
+    int hallCapacity = getCategoryCapacity(FacilityType.HALL);
+    int theatreCapacity = getCategoryCapacity(FacilityType.THEATRE);
+    int labCapacity = getCategoryCapacity(FacilityType.LAB);
     // returns the minimum of the three totals (the bottleneck) using nested if statements
-    if (hallTotal < theatreTotal) {
-      if (hallTotal < labTotal) {
-        return hallTotal;
+    if (hallCapacity < theatreCapacity) {
+      if (hallCapacity < labCapacity) {
+        return hallCapacity;
       } else {
-        return labTotal;
+        return labCapacity;
       }
     } else {
-      if (theatreTotal < labTotal) {
-        return theatreTotal;
+      if (theatreCapacity < labCapacity) {
+        return theatreCapacity;
       } else {
-        return labTotal;
+        return labCapacity;
       }
     }
   }
@@ -162,82 +446,138 @@ public class Estate {
   /**
    * Gets an ascending ranking of the bottleneck buildings in the estate. The bottleneck buildings
    * are the buildings that are the most limiting in terms of capacity. The ranking is in order of
-   * least bottleneck to most bottleneck.
+   * least bottleneck to most bottleneck. The ranking is only recomputed when the estate has changed
+   * since it was last ranked, and is recomputed into the same array, so the returned array is
+   * shared, must not be modified, and only holds this ranking until the estate next changes.
    *
    * @return an ascending ranking of the bottleneck buildings in the estate
    */
   public String[] getBottleneckRankings() {
-    int hallTotal = 0;
-    int theatreTotal = 0;
-    int labTotal = 0;
-
-    // iterates through every building, adding the capacity to the respective total
-    for (Facility facility : facilities) {
-      if (facility instanceof facilities.buildings.Hall) {
-        hallTotal += ((facilities.buildings.Building) facility).getCapacity();
-      } else if (facility instanceof facilities.buildings.Theatre) {
-        theatreTotal += ((facilities.buildings.Building) facility).getCapacity();
-      } else if (facility instanceof facilities.buildings.Lab) {
-        labTotal += ((facilities.buildings.Building) facility).getCapacity();
-      }
+    if (bottleneckRankingsVersion == version) {
+      return bottleneckRankings;
     }
+    int hallTotal = getCategoryCapacity(FacilityType.HALL);
+    int theatreTotal = getCategoryCapacity(FacilityType.THEATRE);
+    int labTotal = getCategoryCapacity(FacilityType.LAB);
 
-    // sorts the totals in ascending order, then reverses the array to get the totals in descending
-    // order
-    int[] totals = {hallTotal, theatreTotal, labTotal};
-    int[] reversedTotals = new int[totals.length];
-    Arrays.sort(totals);
-    for (int i = 0; i < totals.length; i++) {
-      reversedTotals[i] = totals[totals.length - 1 - i];
+    // sorts the totals in descending order, in place in the reused totals array
+    int[] totals = rankingTotals;
+    totals[0] = hallTotal;
+    totals[1] = theatreTotal;
+    totals[2] = labTotal;
+    for (int i = 1; i < totals.length; i++) {
+      int total = totals[i];
+      int j = i - 1;
+      while (j >= 0 && totals[j] < total) {
+        totals[j + 1] = totals[j];
+        j--;
+      }
+      totals[j + 1] = total;
     }
-    totals = reversedTotals;
 
     // iterates through the totals, adding the building type to the rankings array in the matching
     // position of the total if the total matches the total of the building type and the building
     // type is not already in the rankings array
-    String[] rankings = {"", "", ""};
+    String[] rankings = bottleneckRankings;
     for (int i = 0; i < 3; i++) {
-      if (totals[i] == hallTotal && !Arrays.asList(rankings).contains("Hall")) {
+      if (totals[i] == hallTotal && !isRanked(rankings, i, "Hall")) {
         rankings[i] = "Hall";
-      } else if (totals[i] == theatreTotal && !Arrays.asList(rankings).contains("Theatre")) {
+      } else if (totals[i] == theatreTotal && !isRanked(rankings, i, "Theatre")) {
         rankings[i] = "Theatre";
       } else if (totals[i] == labTotal) {
         rankings[i] = "Lab";
+      } else {
+        rankings[i] = "";
       }
     }
+    bottleneckRankingsVersion = version;
     return rankings;
   }
 
+  /**
+   * Returns whether the given building type is in the first given number of positions of the
+   * given rankings.
+   *
+   * @param rankings     the rankings being filled in
+   * @param filled       the number of positions of the rankings filled in so far
+   * @param buildingType the name of the building type
+   * @return whether the building type is already ranked
+   */
+  private static boolean isRanked(String[] rankings, int filled, String buildingType) {
+    for (int i = 0; i < filled; i++) {
+      if (rankings[i].equals(buildingType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the number of facilities of the given type in the estate.
+   *
+   * @param type the type of the facilities
+   * @return the number of facilities of the given type
+   */
+  public int getNumberOfFacilities(FacilityType type) {
+    return store.count(type);
+  }
+
+  /**
+   * Counts the buildings in the estate of each type at each level into the given array, indexed by
+   * typeId * levels + level. Only the type and level columns of the store are read.
+   *
+   * @param counts the array to count into, which must be zeroed
+   * @param levels the maximum level of any type plus 1
+   */
+  public void countBuildingsByLevel(int[] counts, int levels) {
+    for (int id = 0; id < store.size(); id++) {
+      FacilityType type = store.getType(id);
+      if (type.isBuilding()) {
+        counts[type.getId() * levels + store.getLevel(id)]++;
+      }
+    }
+  }
+
+  /**
+   * Gets the profit per student of all recreational facilities in the estate added together.
+   *
+   * @return the total profit per student of the recreational facilities in the estate
+   */
+  public int getProfitPerStudent() {
+    return profitPerStudent;
+  }
+
   /**
    * Gets an array of the unbuilt recreational facilities types on this estate.
    *
    * @return an array of the unbuilt recreational facilities types on this estate
    */
-  public String[] getUnbuiltRecreationalTypes() {
-    ArrayList<String> recreationalTypes = new ArrayList<String>(Arrays.asList(RECREATIONAL_TYPES));
-    for (Facility facility : getFacilities()) {
-      if (recreationalTypes.contains(facility.getClass().getSimpleName())) {
-        recreationalTypes.remove(facility.getClass().getSimpleName());
+  public FacilityType[] getUnbuiltRecreationalTypes() {
+    ArrayList<FacilityType> recreationalTypes = new ArrayList<FacilityType>();
+    for (FacilityType type : FacilityType.getRecreationalTypes()) {
+      if (store.count(type) == 0) {
+        recreationalTypes.add(type);
       }
     }
-    return recreationalTypes.toArray(new String[recreationalTypes.size()]);
+    return recreationalTypes.toArray(new FacilityType[recreationalTypes.size()]);
   }
 
   /**
-   * Gets the total profit of all recreational facilities in the estate.
+   * Gets the total profit of all recreational facilities in the estate as an exact amount of money.
    *
-   * @return the total profit of all recreational facilities in the estate
+   * @return the total profit of all recreational facilities in the estate as an amount of money
+   * @see Money
    */
-  public int collectProfits() {
-    int total = 0;
-    for (Facility facility : facilities) {
-      if (facility instanceof Recreational) {
-        total += ((Recreational) facility).getProfit() * getNumberOfStudents();
-        System.out.println(
-            "Collected " + ((Recreational) facility).getProfit() * getNumberOfStudents()
-                + " coins from "
-                + facility.getName()
-                + " " + facility.getClass().getSimpleName() + ".");
+  public long collectProfits() {
+    long total = 0;
+    int numberOfStudents = getNumberOfStudents();
+    for (FacilityType type : FacilityType.getRecreationalTypes()) {
+      EconomicsTable economics = type.getEconomics();
+      for (int id = store.nextOfType(type, 0); id >= 0; id = store.nextOfType(type, id + 1)) {
+        long profit = (long) economics.getProfit(store.getLevel(id)) * numberOfStudents;
+        total = Money.add(total, Money.of(profit));
+        System.out.println("Collected " + profit + " coins from " + store.getName(id) + " "
+            + type.getName() + ".");
       }
     }
     return total;
@@ -0,0 +1,330 @@
+package university;
+
+import facilities.Facility;
+import facilities.FacilityStore;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A live, read-only list of the facilities in a facility store in the order of their ids, handing
+ * out a new handle on a facility whenever one is asked for. It's an ArrayList so the estate can
+ * keep its list of facilities as one, but it holds no elements of its own, every read goes to the
+ * store and every change throws an UnsupportedOperationException.
+ *
+ * @see FacilityStore
+ */
+final class FacilityListView extends ArrayList<Facility> {
+
+  private static final long serialVersionUID = 1L;
+
+  // the list every read is passed on to
+  private final transient List<Facility> view;
+
+  /**
+   * Constructs a new view of the facilities in the given store.
+   *
+   * @param store the facility store
+   */
+  FacilityListView(FacilityStore store) {
+    super(0);
+    view = new AbstractList<Facility>() {
+      public Facility get(int index) {
+        return store.getFacility(index);
+      }
+
+      public int size() {
+        return store.size();
+      }
+    };
+  }
+
+  /**
+   * Returns the number of facilities in the store.
+   *
+   * @return the number of facilities
+   */
+  public int size() {
+    return view.size();
+  }
+
+  /**
+   * Returns whether the store has no facilities.
+   *
+   * @return whether the store is empty
+   */
+  public boolean isEmpty() {
+    return view.isEmpty();
+  }
+
+  /**
+   * Returns a handle on the facility with the given id.
+   *
+   * @param index the id of the facility
+   * @return a handle on the facility
+   */
+  public Facility get(int index) {
+    return view.get(index);
+  }
+
+  /**
+   * Returns whether the given object is a facility in the store.
+   *
+   * @param object the object
+   * @return whether the object is in the list
+   */
+  public boolean contains(Object object) {
+    return view.contains(object);
+  }
+
+  /**
+   * Returns the id of the given facility, or -1 if it isn't in the store.
+   *
+   * @param object the object
+   * @return the index of the object, or -1
+   */
+  public int indexOf(Object object) {
+    return view.indexOf(object);
+  }
+
+  /**
+   * Returns the id of the given facility, or -1 if it isn't in the store.
+   *
+   * @param object the object
+   * @return the index of the object, or -1
+   */
+  public int lastIndexOf(Object object) {
+    return view.lastIndexOf(object);
+  }
+
+  /**
+   * Returns an iterator over handles on the facilities.
+   *
+   * @return an iterator over the facilities
+   */
+  public Iterator<Facility> iterator() {
+    return view.iterator();
+  }
+
+  /**
+   * Returns a read-only list iterator over handles on the facilities.
+   *
+   * @return a list iterator over the facilities
+   */
+  public ListIterator<Facility> listIterator() {
+    return view.listIterator();
+  }
+
+  /**
+   * Returns a read-only list iterator over handles on the facilities, starting at the given id.
+   *
+   * @param index the id of the first facility
+   * @return a list iterator over the facilities
+   */
+  public ListIterator<Facility> listIterator(int index) {
+    return view.listIterator(index);
+  }
+
+  /**
+   * Returns a spliterator over handles on the facilities.
+   *
+   * @return a spliterator over the facilities
+   */
+  public Spliterator<Facility> spliterator() {
+    return view.spliterator();
+  }
+
+  /**
+   * Returns a read-only view of the facilities with ids from the first to the last, exclusive.
+   *
+   * @param fromIndex the id of the first facility
+   * @param toIndex   one past the id of the last facility
+   * @return a view of the facilities between the ids
+   */
+  public List<Facility> subList(int fromIndex, int toIndex) {
+    return view.subList(fromIndex, toIndex);
+  }
+
+  /**
+   * Passes a handle on every facility to the given action.
+   *
+   * @param action the action
+   */
+  public void forEach(Consumer<? super Facility> action) {
+    view.forEach(action);
+  }
+
+  /**
+   * Returns handles on the facilities as an array.
+   *
+   * @return an array of the facilities
+   */
+  public Object[] toArray() {
+    return view.toArray();
+  }
+
+  /**
+   * Returns handles on the facilities in the given array if they fit, or in a new one.
+   *
+   * @param array the array to fill
+   * @param <T>   the type of the array
+   * @return an array of the facilities
+   */
+  public <T> T[] toArray(T[] array) {
+    return view.toArray(array);
+  }
+
+  /**
+   * Returns whether the given object is a list of the same facilities in the same order.
+   *
+   * @param object the object to compare with
+   * @return whether the object is an equal list
+   */
+  public boolean equals(Object object) {
+    return view.equals(object);
+  }
+
+  /**
+   * Returns the hash code of the list of facilities.
+   *
+   * @return the hash code of the list
+   */
+  public int hashCode() {
+    return view.hashCode();
+  }
+
+  /**
+   * Not supported, facilities are added through the estate.
+   *
+   * @param facility the facility
+   * @return never returns
+   */
+  public boolean add(Facility facility) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are added through the estate.
+   *
+   * @param index    the index
+   * @param facility the facility
+   */
+  public void add(int index, Facility facility) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are added through the estate.
+   *
+   * @param collection the facilities
+   * @return never returns
+   */
+  public boolean addAll(Collection<? extends Facility> collection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are added through the estate.
+   *
+   * @param index      the index
+   * @param collection the facilities
+   * @return never returns
+   */
+  public boolean addAll(int index, Collection<? extends Facility> collection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never replaced.
+   *
+   * @param index    the index
+   * @param facility the facility
+   * @return never returns
+   */
+  public Facility set(int index, Facility facility) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never replaced.
+   *
+   * @param operator the operator
+   */
+  public void replaceAll(UnaryOperator<Facility> operator) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the facilities are always in the order of their ids.
+   *
+   * @param comparator the comparator
+   */
+  public void sort(Comparator<? super Facility> comparator) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   *
+   * @param index the index
+   * @return never returns
+   */
+  public Facility remove(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   *
+   * @param object the object
+   * @return never returns
+   */
+  public boolean remove(Object object) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   *
+   * @param collection the objects
+   * @return never returns
+   */
+  public boolean removeAll(Collection<?> collection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   *
+   * @param collection the objects
+   * @return never returns
+   */
+  public boolean retainAll(Collection<?> collection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   *
+   * @param filter the filter
+   * @return never returns
+   */
+  public boolean removeIf(Predicate<? super Facility> filter) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, facilities are never removed.
+   */
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -1,9 +1,12 @@
 package university;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import jdk.jfr.EventType;
+import metrics.HiringEvent;
+import metrics.RosterUpdateEvent;
+import metrics.Tracer;
 
 /**
  * The human resource department of the university, containing all the staff. It is responsible for
@@ -14,33 +17,128 @@ import java.util.Iterator;
  */
 public class HumanResource {
 
-  private HashMap<Staff, Float> staffSalary;
+  // the salary of every staff member, as an amount of money
+  private HashMap<Staff, Long> staffSalary;
+  // the total of the salaries in staffSalary, kept up to date as staff join and leave so it never
+  // has to be summed up. Exact, so it doesn't drift however many staff come and go
+  private long totalSalary = 0;
+  // calendar (bucket) queue of retirements, bucket i holds the staff due to retire in a year of the
+  // calendar congruent to i modulo CALENDAR_SIZE. Staff that leave early stay in their bucket and
+  // are lazily skipped when it is popped
+  private ArrayList<ArrayList<Staff>> retirementCalendar;
+  // staff already past retirement when they were hired, due at the next roster update
+  private ArrayList<Staff> overdueStaff = new ArrayList<Staff>();
+  // scratch list of the staff popped from the calendar who aren't due yet, reused every update
+  private ArrayList<Staff> notYetDue = new ArrayList<Staff>();
+  // the number of times the staff have gained a year of teaching, used as the current year of the
+  // calendar, and the year of the calendar the roster was last updated at. Every bucket in between
+  // is due at the next roster update
+  private int calendarYear = 0;
+  private int updatedCalendarYear = 0;
+  // the number of staff roster updates so far, the year of the simulation stamped on trace events,
+  // journal entries, and flight recorder events
+  private int year = 0;
+  // increased whenever the roster changes or might have changed by chance, see getVersion
+  private int version = 0;
+  // records hires, retirements, and staff leaving as trace events, if set
+  private Tracer tracer;
 
   // the minimum stamina a staff member should have (taken into account when calculating how many
   // students a staff member should instruct)
   private static final int MINIMUM_STAMINA = 40;
   // the modifier for the costs of staff, used when calculating when to hire staff
   private static final float COSTS_MODIFIER_STAFF = 1.1f;
+  // staff retire once they have more than this many years of teaching
+  private static final int RETIREMENT_YEARS = 30;
+  // no staff member is ever filed more than RETIREMENT_YEARS + 1 years of the calendar ahead, into
+  // the bucket of the current year, which isn't popped again until the calendar comes round to it.
+  // Staff popped before they are due, because the calendar wrapped, are filed again
+  private static final int CALENDAR_SIZE = RETIREMENT_YEARS + 1;
+  // looked up once, so hiring and roster updates can check whether their events are enabled before
+  // creating any
+  private static final EventType HIRING_EVENT_TYPE = EventType.getEventType(HiringEvent.class);
+  private static final EventType ROSTER_UPDATE_EVENT_TYPE =
+      EventType.getEventType(RosterUpdateEvent.class);
 
   /**
    * Constructs a new human resource department with no staff.
    */
   public HumanResource() {
-    staffSalary = new HashMap<Staff, Float>();
+    staffSalary = new HashMap<Staff, Long>();
+    retirementCalendar = new ArrayList<ArrayList<Staff>>(CALENDAR_SIZE);
+    for (int i = 0; i < CALENDAR_SIZE; i++) {
+      retirementCalendar.add(new ArrayList<Staff>());
+    }
   }
 
   /**
    * Adds a staff member to this human resource department, a salary is calculated using the formula
-   * salary = skill * 9.5-10.5%.
+   * salary = skill * 9.5-10.5%. The staff member is also filed in the retirement calendar under
+   * the year they will retire in, which is known exactly at hire time.
    *
    * @param staff the staff member
    */
   public void addStaff(Staff staff) {
-    staffSalary.put(staff, (float) (staff.getSkill() * ((Math.random()) + 9.5) / 100));
+    long salary = Money.of(staff.getSkill() * ((Math.random()) + 9.5) / 100);
+    Long previousSalary = staffSalary.put(staff, salary);
+    version++;
+    totalSalary = Money.add(totalSalary,
+        previousSalary == null ? salary : Money.subtract(salary, previousSalary));
+    fileRetirement(staff);
+    if (tracer != null) {
+      tracer.instant("hire", "staff", year, staff.getName());
+    }
+  }
+
+  /**
+   * Sets the tracer hires, retirements, and staff leaving are recorded with as instant trace
+   * events, or turns tracing off.
+   *
+   * @param tracer the tracer, or null to stop tracing
+   */
+  public void setTracer(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Files the given staff member in the retirement calendar under the year of the calendar their
+   * years of teaching will pass RETIREMENT_YEARS in, or as overdue if they already have.
+   *
+   * @param staff the staff member
+   */
+  private void fileRetirement(Staff staff) {
+    int yearsUntilDue = RETIREMENT_YEARS + 1 - staff.getYearsOfTeaching();
+    if (yearsUntilDue < 1) {
+      overdueStaff.add(staff);
+    } else {
+      retirementCalendar.get((calendarYear + yearsUntilDue) % CALENDAR_SIZE).add(staff);
+    }
+  }
+
+  /**
+   * Increases the years of teaching of all staff members by 1, moving the retirement calendar a
+   * year on with them, so the staff who pass 30 years of teaching are due at the next roster
+   * update however many years of teaching were gained since the last one.
+   */
+  public void increaseStaffExperience() {
+    for (Staff staff : staffSalary.keySet()) {
+      staff.increaseYearsOfTeaching();
+    }
+    calendarYear++;
   }
 
   /**
-   * Returns an iterator over the staff in this human resource department.
+   * Returns the current year, the number of times the staff roster has been updated.
+   *
+   * @return the current year
+   */
+  public int getYear() {
+    return year;
+  }
+
+  /**
+   * Returns an iterator over the staff in this human resource department. Staff must not be removed
+   * through the iterator, as the total salary wouldn't know they left.
    *
    * @return an iterator over the staff in this human resource department
    */
@@ -49,73 +147,222 @@ public class HumanResource {
   }
 
   /**
-   * Returns the total salaries of all staff members in this human resource department.
+   * Returns the number of staff in this human resource department.
+   *
+   * @return the number of staff in this human resource department
+   */
+  public int getNumberOfStaff() {
+    return staffSalary.size();
+  }
+
+  /**
+   * Returns the total salaries of all staff members in this human resource department. The total
+   * is kept up to date as staff join and leave, so this takes constant time.
    *
    * @return the total salaries of all staff members in this human resource department
    */
   public float getSalary() {
-    float totalSalary = 0;
+    return Money.toFloat(totalSalary);
+  }
+
+  /**
+   * Returns the total salaries of all staff members in this human resource department as an exact
+   * amount of money.
+   *
+   * @return the total salaries of all staff members as an amount of money
+   * @see Money
+   */
+  public long getExactSalary() {
+    return totalSalary;
+  }
+
+  /**
+   * Returns the hash of the roster, the exclusive or of a key for every staff member's name,
+   * salary, skill, stamina, and years of teaching. The roster changes every year, so the hash is
+   * worked out from the staff when asked for rather than kept up to date.
+   *
+   * @return the hash of the roster
+   * @see StateHash
+   */
+  public long getRosterHash() {
+    return hashRoster(true);
+  }
+
+  /**
+   * Returns the hash of the roster leaving out the years of teaching, which grow every year. Two
+   * years of the same roster with the same hash only differ in how close the staff are to
+   * retiring, so the roster can be going round a cycle even as its years of teaching grow.
+   *
+   * @return the hash of the roster without the years of teaching
+   * @see CycleDetector
+   */
+  public long getCycleHash() {
+    return hashRoster(false);
+  }
+
+  /**
+   * Works out the hash of the roster, with or without the years of teaching of the staff.
+   *
+   * @param withYearsOfTeaching whether the years of teaching are part of the hash
+   * @return the hash of the roster
+   */
+  private long hashRoster(boolean withYearsOfTeaching) {
+    long hash = 0;
     for (Staff staff : staffSalary.keySet()) {
-      totalSalary += staffSalary.get(staff);
+      long nameAndYears = (long) staff.getName().hashCode() << 32;
+      if (withYearsOfTeaching) {
+        nameAndYears |= staff.getYearsOfTeaching();
+      }
+      long skillAndStamina = ((long) staff.getSkill() << 32) | staff.getStamina();
+      hash ^= StateHash.key(StateHash.STAFF, staffSalary.get(staff), nameAndYears,
+          skillAndStamina);
     }
-    return totalSalary;
+    return hash;
+  }
+
+  /**
+   * Returns the version of the roster, which is increased whenever a staff member joins or leaves,
+   * and whenever the roster might have changed by chance or with a bigger budget: a tired staff
+   * member being at risk of leaving, or hiring turning down the staff left in the market for their
+   * salary. Years with the same version had nothing random happen to the roster in between, so
+   * they only differ in the skill, stamina, and years of teaching of the same staff.
+   *
+   * @return the version of the roster
+   * @see CycleDetector
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the number of years before the first staff member retires, or Integer.MAX_VALUE if
+   * there are no staff. The roster stays the same for at least that many years if nobody leaves.
+   *
+   * @return the number of years before the first staff member retires
+   */
+  public int getYearsUntilRetirement() {
+    int years = Integer.MAX_VALUE;
+    for (Staff staff : staffSalary.keySet()) {
+      years = Math.min(years, Math.max(0, RETIREMENT_YEARS - staff.getYearsOfTeaching()));
+    }
+    return years;
   }
 
   /**
    * Hires staff members from the available staff. Returns the available staff after hiring staff.
-   * Staff members are hired until the number of students instructed by the staff members is at
-   * least 90% of the number of students in the university. Staff members are hired in order of
-   * skill, starting with the highest skill. Staff members are only hired if the budget minus the
-   * staff member's maximum starting salary is greater than the total costs of the university
-   * multiplied by the staff costs modifier (to ensure that the budget won't become negative at the
-   * end of the year by paying costs).
+   * Please see the hireStaff method taking a staff market for explanation.
    *
    * @param availableStaff   the available staff in the staff market
    * @param budget           the budget of the university
    * @param allCosts         the total costs of the university
    * @param numberOfStudents the number of students in the university
    * @return the available staff in the staff market after hiring staff
-   * @see #calculateHypotheticalInstructedStudents()
+   * @see #hireStaff(StaffMarket, float, float, int)
    */
   public ArrayList<Staff> hireStaff(ArrayList<Staff> availableStaff, float budget, float allCosts,
       int numberOfStudents) {
+    hireStaff(new ListStaffMarket(availableStaff), budget, allCosts, numberOfStudents);
+    return availableStaff;
+  }
+
+  /**
+   * Hires staff members from the given staff market. Staff members are hired until the number of
+   * students instructed by the staff members is at least 90% of the number of students in the
+   * university. Staff members are hired in order of skill, starting with the highest skill. Staff
+   * members are only hired if the budget minus the staff member's maximum starting salary is
+   * greater than the total costs of the university multiplied by the staff costs modifier (to
+   * ensure that the budget won't become negative at the end of the year by paying costs).
+   *
+   * @param staffMarket      the staff market to hire from
+   * @param budget           the budget of the university
+   * @param allCosts         the total costs of the university
+   * @param numberOfStudents the number of students in the university
+   * @see #calculateHypotheticalInstructedStudents()
+   */
+  public void hireStaff(StaffMarket staffMarket, float budget, float allCosts,
+      int numberOfStudents) {
+    HiringEvent event = HIRING_EVENT_TYPE.isEnabled() ? new HiringEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    int hired = 0;
     // calculates the number of students that would be instructed if all current staff instructed
     // as many students as they can until reaching the minimum stamina
     int hypotheticalInstructedStudents = calculateHypotheticalInstructedStudents();
+    float salaryLimit = calculateSalaryLimit(budget, allCosts);
 
     // while the maximum number of students that can be instructed by the staff members is less
-    // than 90% of the number of students in the university, hire staff. labelled loop, so it can
-    // be broken out of inside the for loop later on
-    mainLoop:
-    while (hypotheticalInstructedStudents < 0.90
-        * numberOfStudents) {
-      // sorts the available staff by skill, starting with the highest skill
-      Collections.sort(availableStaff);
-      int i = 0;
-      // iterates through the availableStaff in order of skill, checks if the budget minus the
-      // staff member's maximum starting salary is greater than the total costs of the university
-      // multiplied by the staff costs modifier, if so, hire the staff
-      for (Staff staff : availableStaff) {
-        if ((budget - staff.getStartingSalaryMax()) > allCosts * COSTS_MODIFIER_STAFF) {
-          addStaff(staff);
-          availableStaff.remove(staff);
-          System.out.println("Hired " + staff.getName() + ".");
-          // we break out of the for loop in order to recalculate the
-          // hypotheticalInstructedStudents, as we have hired a new staff member, if it's still
-          // below 90% of the number of students in the university, we continue hiring staff,
-          // otherwise we break out of the mainLoop
-          break;
-        }
-        // if we've reached the end of the availableStaff, break out of the mainLoop, as this means
-        // we've gone through all the availableStaff and we did not hire anyone due to not having
-        // enough budget for even the cheapest staff
-        if (i++ == availableStaff.size() - 1) {
-          break mainLoop;
+    // than 90% of the number of students in the university, hire the highest skilled staff member
+    // we can afford
+    while (isUnderstaffed(hypotheticalInstructedStudents, numberOfStudents)) {
+      Staff staff = staffMarket.hire(salaryLimit);
+      // we did not hire anyone due to not having enough budget for even the cheapest staff, or the
+      // market has run out of staff
+      if (staff == null) {
+        // with a bigger budget the staff left might have been hired
+        if (staffMarket.getNumberOfAvailableStaff() > 0) {
+          version++;
         }
+        break;
       }
-      hypotheticalInstructedStudents = calculateHypotheticalInstructedStudents();
+      addStaff(staff);
+      System.out.println("Hired " + staff.getName() + ".");
+      hypotheticalInstructedStudents += calculateInstructableStudents(staff);
+      hired++;
     }
-    return availableStaff;
+    if (event != null) {
+      event.commit(year, hired, salaryLimit, numberOfStudents, hypotheticalInstructedStudents,
+          getNumberOfStaff());
+    }
+  }
+
+  /**
+   * Calculates the salary that the maximum starting salary of a new staff member must be below for
+   * them to be hired, which is the budget minus the total costs of the university multiplied by
+   * the staff costs modifier.
+   *
+   * @param budget   the budget of the university
+   * @param allCosts the total costs of the university
+   * @return the salary that the maximum starting salary of a new staff member must be below
+   */
+  public float calculateSalaryLimit(float budget, float allCosts) {
+    return budget - allCosts * COSTS_MODIFIER_STAFF;
+  }
+
+  /**
+   * Returns whether the given number of hypothetically instructed students is less than 90% of the
+   * number of students in the university, meaning more staff should be hired.
+   *
+   * @param hypotheticalInstructedStudents the number of students the staff could instruct
+   * @param numberOfStudents               the number of students in the university
+   * @return whether more staff should be hired
+   */
+  public boolean isUnderstaffed(int hypotheticalInstructedStudents, int numberOfStudents) {
+    return hypotheticalInstructedStudents < 0.90 * numberOfStudents;
+  }
+
+  /**
+   * Calculates the number of students the given staff member can instruct until reaching the
+   * minimum stamina, using the formula: (stamina - minimum stamina) / 20 * (20 + skill).
+   *
+   * @param staff the staff member
+   * @return the number of students the staff member can instruct until reaching the minimum stamina
+   */
+  public int calculateInstructableStudents(Staff staff) {
+    return calculateInstructableStudents(staff.getStamina(), staff.getSkill());
+  }
+
+  /**
+   * Calculates the number of students a staff member with the given stamina and skill can instruct
+   * until reaching the minimum stamina.
+   *
+   * @param stamina the stamina of the staff member
+   * @param skill   the skill of the staff member
+   * @return the number of students the staff member can instruct until reaching the minimum stamina
+   * @see #calculateInstructableStudents(Staff)
+   */
+  public int calculateInstructableStudents(int stamina, int skill) {
+    return (int) Math.ceil((stamina - MINIMUM_STAMINA) / 20) * (20 + skill);
   }
 
   /**
@@ -131,10 +378,7 @@ public class HumanResource {
     Iterator<Staff> staffIterator = getStaff();
     int hypotheticalInstructedStudents = 0;
     while (staffIterator.hasNext()) {
-      Staff currentStaff = staffIterator.next();
-      hypotheticalInstructedStudents +=
-          (int) Math.ceil((currentStaff.getStamina() - MINIMUM_STAMINA) / 20) * (20
-              + currentStaff.getSkill());
+      hypotheticalInstructedStudents += calculateInstructableStudents(staffIterator.next());
     }
     return hypotheticalInstructedStudents;
   }
@@ -183,23 +427,145 @@ public class HumanResource {
 
   /**
    * Updates the staff roster, removing staff members that have retired by reaching 30 years
-   * experience or left due to exhaustion.
+   * experience or left due to exhaustion. Retirees are popped from the buckets of the retirement
+   * calendar for the years of teaching gained since the last update, so only the staff due to
+   * retire are looked at rather than every staff member.
    */
   public void updateStaffRoster() {
+    RosterUpdateEvent event =
+        ROSTER_UPDATE_EVENT_TYPE.isEnabled() ? new RosterUpdateEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    int retired = 0;
+    int left = 0;
+    // after CALENDAR_SIZE years every bucket has been popped
+    int dueYears = Math.min(calendarYear - updatedCalendarYear, CALENDAR_SIZE);
+    for (int i = 1; i <= dueYears; i++) {
+      retired += retireDueStaff(
+          retirementCalendar.get((updatedCalendarYear + i) % CALENDAR_SIZE));
+    }
+    retired += retireDueStaff(overdueStaff);
+    updatedCalendarYear = calendarYear;
+
     Iterator<Staff> staff = getStaff();
     while (staff.hasNext()) {
       Staff currentStaff = staff.next();
-      if (currentStaff.getYearsOfTeaching() > 30) {
-        staff.remove();
-        System.out.println(currentStaff.getName() + " retired. Thank you for your service.");
-        // the chance of a staff member leaving is (100 - stamina), so generates a random number
-        // between 0.0 and 1.0 using Math.random() and multiplies it by 100 to get a percentage,
-        // if the percentage is greater than the staff member's stamina, they leave (as then it
-        // lies within 100 - stamina)
-      } else if ((int) (Math.round(Math.random()) * 100) > currentStaff.getStamina()) {
+      // the chance of a staff member leaving is (100 - stamina), so generates a random number
+      // between 0.0 and 1.0 using Math.random() and multiplies it by 100 to get a percentage,
+      // if the percentage is greater than the staff member's stamina, they leave (as then it
+      // lies within 100 - stamina)
+      if (currentStaff.getStamina() < Staff.MAXIMUM_STAMINA) {
+        version++;
+      }
+      if ((int) (Math.round(Math.random()) * 100) > currentStaff.getStamina()) {
+        totalSalary = Money.subtract(totalSalary, staffSalary.get(currentStaff));
         staff.remove();
         System.out.println(currentStaff.getName() + " left..");
+        left++;
+        if (tracer != null) {
+          tracer.instant("leave", "staff", year, currentStaff.getName());
+        }
+      }
+    }
+    if (event != null) {
+      event.commit(year, retired, left, getNumberOfStaff());
+    }
+    year++;
+  }
+
+  /**
+   * Retires the staff in the given bucket of the retirement calendar who have passed 30 years of
+   * teaching, and files the rest again for when they will have. Returns the number of staff
+   * retired.
+   *
+   * @param dueStaff the bucket of staff due to retire
+   * @return the number of staff retired
+   */
+  private int retireDueStaff(ArrayList<Staff> dueStaff) {
+    int retired = 0;
+    for (Staff currentStaff : dueStaff) {
+      // lazy deletion, the staff member already left due to exhaustion
+      if (!staffSalary.containsKey(currentStaff)) {
+        continue;
+      }
+      if (currentStaff.getYearsOfTeaching() > RETIREMENT_YEARS) {
+        totalSalary = Money.subtract(totalSalary, staffSalary.remove(currentStaff));
+        System.out.println(currentStaff.getName() + " retired. Thank you for your service.");
+        version++;
+        retired++;
+        if (tracer != null) {
+          tracer.instant("retire", "staff", year, currentStaff.getName());
+        }
+      } else {
+        // popped from a bucket the calendar wrapped onto
+        notYetDue.add(currentStaff);
+      }
+    }
+    dueStaff.clear();
+    for (Staff currentStaff : notYetDue) {
+      fileRetirement(currentStaff);
+    }
+    notYetDue.clear();
+    return retired;
+  }
+
+  /**
+   * Returns the number of years ahead in which the roster is certain to stay the same and every
+   * staff member is certain to end the year as they started it, given the number of students to
+   * instruct each year. That is the case when every staff member is at full stamina and the
+   * maximum skill and nobody has to instruct so many students that they tire, as tired staff may
+   * leave, and it lasts until the first staff member retires. Returns 0 if the coming year isn't
+   * certain, and Integer.MAX_VALUE if there are no staff.
+   *
+   * @param numberOfStudents the number of students to instruct each year
+   * @return the number of years in which the roster is certain to stay the same
+   * @see #instructStudents(int)
+   */
+  public int getSteadyYears(int numberOfStudents) {
+    int years = Integer.MAX_VALUE;
+    int uninstructedStudents = numberOfStudents;
+    // walks the staff in the same order as instructStudents, which only tires a staff member when
+    // there are more students left than they can instruct
+    for (Staff staff : staffSalary.keySet()) {
+      if (staff.getSkill() < 100 || staff.getStamina() < Staff.MAXIMUM_STAMINA) {
+        return 0;
+      }
+      if (uninstructedStudents - calculateInstructableStudents(staff) > 0) {
+        return 0;
+      }
+      uninstructedStudents = 0;
+      years = Math.min(years, Math.max(0, RETIREMENT_YEARS - staff.getYearsOfTeaching()));
+    }
+    return years;
+  }
+
+  /**
+   * Moves the roster the given number of steady years ahead in one go, as if that many years had
+   * been simulated. Every staff member gains the years of teaching and the retirement calendar is
+   * filed again from scratch for the new year. Must only be called with at most as many years as
+   * getSteadyYears or getYearsUntilRetirement returned.
+   *
+   * @param years the number of steady years to move ahead
+   * @see #getSteadyYears(int)
+   * @see #getYearsUntilRetirement()
+   */
+  public void fastForward(int years) {
+    for (Staff staff : staffSalary.keySet()) {
+      // at most RETIREMENT_YEARS, as nobody can be steady past their retirement
+      for (int i = 0; i < years; i++) {
+        staff.increaseYearsOfTeaching();
       }
     }
+    year += years;
+    calendarYear += years;
+    updatedCalendarYear = calendarYear;
+    for (ArrayList<Staff> bucket : retirementCalendar) {
+      bucket.clear();
+    }
+    overdueStaff.clear();
+    for (Staff staff : staffSalary.keySet()) {
+      fileRetirement(staff);
+    }
   }
 }
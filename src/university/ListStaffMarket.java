@@ -0,0 +1,61 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * A staff market backed by a list of available staff, which is sorted by skill and has staff
+ * removed from it as they are hired.
+ *
+ * @see StaffMarket
+ */
+public class ListStaffMarket implements StaffMarket {
+
+  private ArrayList<Staff> availableStaff;
+
+  /**
+   * Constructs a new staff market over the given list of available staff. The list is sorted by
+   * skill, starting with the highest skill.
+   *
+   * @param availableStaff the available staff in the staff market
+   */
+  public ListStaffMarket(ArrayList<Staff> availableStaff) {
+    this.availableStaff = availableStaff;
+    // staff in the market never change, so the list only needs sorting once
+    Collections.sort(availableStaff);
+  }
+
+  /**
+   * Hires the first staff member in order of skill whose maximum starting salary is less than the
+   * given salary limit, removing them from the list of available staff.
+   *
+   * @param salaryLimit the salary the maximum starting salary of the staff member must be below
+   * @return the hired staff member, or null if no staff member in the market can be afforded
+   */
+  public Staff hire(float salaryLimit) {
+    for (int i = 0; i < availableStaff.size(); i++) {
+      if (availableStaff.get(i).getStartingSalaryMax() < salaryLimit) {
+        return availableStaff.remove(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of staff members still available in the staff market.
+   *
+   * @return the number of staff members still available in the staff market
+   */
+  public int getNumberOfAvailableStaff() {
+    return availableStaff.size();
+  }
+
+  /**
+   * Returns the available staff in the staff market.
+   *
+   * @return the available staff in the staff market
+   */
+  public ArrayList<Staff> getAvailableStaff() {
+    return availableStaff;
+  }
+}
@@ -0,0 +1,309 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A planner that looks several years ahead when deciding what to build and upgrade, rather than
+ * scoring single actions for the current year. It runs a beam search over sequences of builds,
+ * upgrades, and year ends on cheap copies of the university's state, keeping the most valuable
+ * sequences at every step. The successors of the sequences in the beam are worked out in parallel
+ * on a fork/join pool, and the search stops early when its budget runs out, returning the best plan
+ * of the last step it finished.
+ *
+ * <p>The budget is either a time or a number of states. A time budget is checked for every state
+ * valued, so the search itself never overruns it by more than a single state, though a garbage
+ * collection pause still can. How far the search gets depends on the speed of the machine and how
+ * busy it is, so the same run can make different plans each time, even with the same seed. A
+ * budget of states stops the search before any step that could value more states than are left,
+ * so the plans only depend on the state of the university and runs can be repeated exactly.
+ *
+ * <p>The planner keeps no state between decisions, so one planner can be shared by every
+ * university of an ensemble.
+ *
+ * @see University#setPlanner(LookaheadPlanner)
+ * @see PlanningState
+ */
+public class LookaheadPlanner {
+
+  // the most builds and upgrades planned in a year, keeps the depth of the search down, and the
+  // length of the array a plan is written to
+  static final int MAXIMUM_ACTIONS_PER_YEAR = 16;
+  // the reputation a coin is worth when valuing a state, a build gains 100 reputation for a few
+  // hundred coins
+  private static final double REPUTATION_PER_COIN = 0.25;
+  // the number of years after the horizon whose income is still valued, so capacity built near the
+  // horizon isn't worth nothing
+  private static final int INCOME_TAIL_YEARS = 10;
+
+  private int horizon;
+  private int beamWidth;
+  private long timeBudgetNanos;
+  private long nodeBudget;
+  private ForkJoinPool pool;
+
+  /**
+   * Constructs a new lookahead planner with a time budget.
+   *
+   * @param horizon            the number of years to plan over
+   * @param beamWidth          the number of sequences kept at every step of the search
+   * @param timeBudgetMillis   the time each decision may take, in milliseconds
+   * @param pool               the pool the successors of the beam are worked out on
+   * @throws IllegalArgumentException if the horizon, beam width, or time budget isn't positive
+   */
+  public LookaheadPlanner(int horizon, int beamWidth, long timeBudgetMillis, ForkJoinPool pool) {
+    this(horizon, beamWidth, timeBudgetMillis, 0, pool);
+  }
+
+  /**
+   * Constructs a new lookahead planner with either a time budget or a budget of states, whichever
+   * is positive.
+   *
+   * @param horizon            the number of years to plan over
+   * @param beamWidth          the number of sequences kept at every step of the search
+   * @param timeBudgetMillis   the time each decision may take, in milliseconds, or 0 for none
+   * @param nodeBudget         the number of states each decision may value, or 0 for none
+   * @param pool               the pool the successors of the beam are worked out on
+   * @throws IllegalArgumentException if the horizon or beam width isn't positive, or there isn't
+   *                                  exactly one positive budget
+   */
+  public LookaheadPlanner(int horizon, int beamWidth, long timeBudgetMillis, long nodeBudget,
+      ForkJoinPool pool) {
+    if (horizon < 1 || beamWidth < 1) {
+      throw new IllegalArgumentException(
+          "The horizon and beam width of a planner must be positive.");
+    }
+    if (timeBudgetMillis < 0 || nodeBudget < 0 || (timeBudgetMillis > 0) == (nodeBudget > 0)) {
+      throw new IllegalArgumentException(
+          "A planner must have either a time budget or a budget of states.");
+    }
+    this.horizon = horizon;
+    this.beamWidth = beamWidth;
+    this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+    this.nodeBudget = nodeBudget;
+    this.pool = pool;
+  }
+
+  /**
+   * Constructs a new lookahead planner with a beam width of 16 and a time budget of 5
+   * milliseconds, working out successors on the common fork/join pool.
+   *
+   * @param horizon the number of years to plan over
+   */
+  public LookaheadPlanner(int horizon) {
+    this(horizon, 16, 5, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the number of years the planner plans over.
+   *
+   * @return the number of years the planner plans over
+   */
+  public int getHorizon() {
+    return horizon;
+  }
+
+  /**
+   * Plans the builds and upgrades of the current year, writing the actions of the first year of
+   * the best sequence found to the given array, in the order they should be taken. Given the same
+   * state every step of the search is deterministic, and with a budget of states so is the number
+   * of steps, but with a time budget it depends on how many steps finish in time.
+   *
+   * @param state   the state of the university at the start of the planning, left unchanged
+   * @param actions the array to write the actions to, at least MAXIMUM_ACTIONS_PER_YEAR long
+   * @return the number of actions to take this year
+   * @see PlanningState#action(int, facilities.FacilityType, int)
+   */
+  int plan(PlanningState state, int[] actions) {
+    long deadline = System.nanoTime() + timeBudgetNanos;
+    List<Node> beam = new ArrayList<Node>();
+    beam.add(new Node(state, null, 0, valueOf(state)));
+    Node best = beam.get(0);
+    long nodesLeft = nodeBudget;
+    while (true) {
+      if (nodeBudget > 0) {
+        // stops before a step that could value more states than are left, so the number of steps
+        // never depends on how the successors happen to come out
+        long mostSuccessors = 0;
+        for (Node node : beam) {
+          if (node.state.getYear() < horizon) {
+            mostSuccessors += node.state.getMaximumNumberOfActions();
+          }
+        }
+        if (mostSuccessors > nodesLeft) {
+          break;
+        }
+        nodesLeft -= mostSuccessors;
+      }
+      List<Node> successors = expand(beam, deadline);
+      // an empty list means every sequence has reached the horizon, null that time ran out part
+      // of the way through the step, whose successors are then left out as only some sequences
+      // were extended
+      if (successors == null || successors.isEmpty()) {
+        break;
+      }
+      // keeps the most valuable successors, the sort is stable so ties keep the order the
+      // successors were generated in and the plan is the same on every run
+      successors.sort((a, b) -> Double.compare(b.value, a.value));
+      beam = successors.subList(0, Math.min(beamWidth, successors.size()));
+      // values project the income of the years left, so the best of the furthest step is the best
+      // plan so far
+      best = beam.get(0);
+    }
+    return best.getFirstYearActions(actions);
+  }
+
+  /**
+   * Returns the value of the given state, valuing its income up to the horizon and for a while
+   * after it.
+   *
+   * @param state the state
+   * @return the value of the state
+   * @see PlanningState#getValue(int, double)
+   */
+  private double valueOf(PlanningState state) {
+    return state.getValue(horizon + INCOME_TAIL_YEARS, REPUTATION_PER_COIN);
+  }
+
+  /**
+   * Returns whether the given deadline has passed. Always false with a budget of states, so the
+   * search never depends on the clock.
+   *
+   * @param deadline the deadline, as given by System.nanoTime
+   * @return whether the deadline has passed
+   */
+  private boolean isPast(long deadline) {
+    return timeBudgetNanos > 0 && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Works out the successors of every unfinished sequence in the beam in parallel. Sequences that
+   * have reached the horizon are carried over unchanged. Returns an empty list if every sequence
+   * has reached the horizon, and null if the deadline passed before every successor was worked
+   * out.
+   *
+   * @param beam     the sequences in the beam
+   * @param deadline the deadline of the decision, as given by System.nanoTime
+   * @return the successors of the sequences, in the order of the sequences they came from
+   * @throws IllegalStateException if working out the successors failed
+   */
+  private List<Node> expand(List<Node> beam, long deadline) {
+    List<Callable<List<Node>>> tasks = new ArrayList<Callable<List<Node>>>();
+    boolean finished = true;
+    for (Node node : beam) {
+      finished &= node.state.getYear() >= horizon;
+      tasks.add(() -> node.expand(deadline));
+    }
+    List<Node> successors = new ArrayList<Node>();
+    if (finished) {
+      return successors;
+    }
+    try {
+      for (Future<List<Node>> future : pool.invokeAll(tasks)) {
+        List<Node> nodeSuccessors = future.get();
+        if (nodeSuccessors == null) {
+          return null;
+        }
+        successors.addAll(nodeSuccessors);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while planning.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to plan.", e.getCause());
+    }
+    return successors;
+  }
+
+  /**
+   * A sequence of actions in the search, kept as the state it leads to and a link back to the
+   * sequence it extends.
+   */
+  private class Node {
+
+    private PlanningState state;
+    private Node parent;
+    private int action;
+    private double value;
+
+    /**
+     * Constructs a new node.
+     *
+     * @param state  the state the sequence leads to
+     * @param parent the sequence this one extends, or null for the empty sequence
+     * @param action the last action of the sequence
+     * @param value  the value of the state
+     */
+    private Node(PlanningState state, Node parent, int action, double value) {
+      this.state = state;
+      this.parent = parent;
+      this.action = action;
+      this.value = value;
+    }
+
+    /**
+     * Returns the sequences extending this one by a single action, or just this sequence if it
+     * has already reached the horizon. Returns null if the deadline passes before every successor
+     * is worked out.
+     *
+     * @param deadline the deadline of the decision, as given by System.nanoTime
+     * @return the successors of this sequence
+     */
+    private List<Node> expand(long deadline) {
+      List<Node> successors = new ArrayList<Node>();
+      if (state.getYear() >= horizon) {
+        successors.add(this);
+        return successors;
+      }
+      int[] actions = new int[state.getMaximumNumberOfActions()];
+      int numberOfActions = state.getActions(MAXIMUM_ACTIONS_PER_YEAR, actions);
+      for (int i = 0; i < numberOfActions; i++) {
+        if (isPast(deadline)) {
+          return null;
+        }
+        PlanningState successor = state.copy();
+        successor.apply(actions[i]);
+        successors.add(new Node(successor, this, actions[i], valueOf(successor)));
+      }
+      return successors;
+    }
+
+    /**
+     * Writes the builds and upgrades of the first year of this sequence to the given array, in
+     * order.
+     *
+     * @param actions the array to write the actions to
+     * @return the number of actions of the first year of this sequence
+     */
+    private int getFirstYearActions(int[] actions) {
+      // the sequence is linked from its last action back, so the actions are counted first and
+      // then written from the back
+      int numberOfActions = 0;
+      for (Node node = this; node.parent != null; node = node.parent) {
+        if (node.isFirstYearAction()) {
+          numberOfActions++;
+        }
+      }
+      int index = numberOfActions;
+      for (Node node = this; node.parent != null; node = node.parent) {
+        if (node.isFirstYearAction()) {
+          actions[--index] = node.action;
+        }
+      }
+      return numberOfActions;
+    }
+
+    /**
+     * Returns whether the last action of this sequence is a build or upgrade of the first year.
+     *
+     * @return whether the last action is a build or upgrade of the first year
+     */
+    private boolean isFirstYearAction() {
+      return parent.state.getYear() == 0 && PlanningState.kindOf(action) != PlanningState.END_YEAR;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package university;
+
+/**
+ * Fixed-point arithmetic on amounts of money, kept as longs counting ten-thousandths of a coin. A
+ * float budget silently loses the fees of a few students once it's a few million coins, and a
+ * float total of salaries drifts as staff come and go, whereas an amount of money in this form is
+ * exact to a ten-thousandth of a coin up to over 900 trillion coins. Amounts are plain longs, so
+ * nothing is boxed, and every operation throws an ArithmeticException rather than silently
+ * overflowing.
+ *
+ * <p>Anything that only needs to look at an amount, such as printing it or comparing it with a
+ * cost worked out in floats, can use its float value from toFloat.
+ *
+ * @see University#getExactBudget()
+ */
+public final class Money {
+
+  // the number of units in a coin
+  public static final long SCALE = 10_000;
+
+  /**
+   * Constructs nothing, amounts of money are plain longs worked on by the static methods.
+   */
+  private Money() {
+  }
+
+  /**
+   * Returns the amount of money of the given whole number of coins.
+   *
+   * @param coins the number of coins
+   * @return the amount of money
+   * @throws ArithmeticException if the amount is too big to be kept
+   */
+  public static long of(long coins) {
+    return Math.multiplyExact(coins, SCALE);
+  }
+
+  /**
+   * Returns the amount of money of the given number of coins, rounded to the nearest unit.
+   *
+   * @param coins the number of coins
+   * @return the amount of money
+   * @throws ArithmeticException if the amount is too big to be kept or isn't a number
+   */
+  public static long of(double coins) {
+    double units = Math.rint(coins * SCALE);
+    // casting saturates rather than failing, so anything out of range has to be caught first
+    if (!(Math.abs(units) < 0x1p63)) {
+      throw new ArithmeticException("Amount of money out of range: " + coins);
+    }
+    return (long) units;
+  }
+
+  /**
+   * Returns the amount of money of the given number of tenths of a coin.
+   *
+   * @param tenths the number of tenths of a coin
+   * @return the amount of money
+   * @throws ArithmeticException if the amount is too big to be kept
+   */
+  public static long ofTenths(long tenths) {
+    return Math.multiplyExact(tenths, SCALE / 10);
+  }
+
+  /**
+   * Returns the sum of the given amounts of money.
+   *
+   * @param amount the amount of money
+   * @param other  the amount of money to add
+   * @return the sum of the amounts
+   * @throws ArithmeticException if the sum is too big to be kept
+   */
+  public static long add(long amount, long other) {
+    return Math.addExact(amount, other);
+  }
+
+  /**
+   * Returns the difference of the given amounts of money.
+   *
+   * @param amount the amount of money
+   * @param other  the amount of money to subtract
+   * @return the difference of the amounts
+   * @throws ArithmeticException if the difference is too big to be kept
+   */
+  public static long subtract(long amount, long other) {
+    return Math.subtractExact(amount, other);
+  }
+
+  /**
+   * Returns the given amount of money the given number of times over.
+   *
+   * @param amount the amount of money
+   * @param times  the number of times
+   * @return the amount times the number of times
+   * @throws ArithmeticException if the product is too big to be kept
+   */
+  public static long times(long amount, long times) {
+    return Math.multiplyExact(amount, times);
+  }
+
+  /**
+   * Returns the number of coins of the given amount of money as a double, exact to the unit up to
+   * about 900 billion coins.
+   *
+   * @param amount the amount of money
+   * @return the number of coins
+   */
+  public static double toDouble(long amount) {
+    return amount / (double) SCALE;
+  }
+
+  /**
+   * Returns the number of coins of the given amount of money as a float, for printing and for
+   * comparing with costs worked out in floats.
+   *
+   * @param amount the amount of money
+   * @return the number of coins
+   */
+  public static float toFloat(long amount) {
+    return (float) toDouble(amount);
+  }
+}
@@ -0,0 +1,325 @@
+package university;
+
+import facilities.EconomicsTable;
+import facilities.FacilityType;
+import java.util.Arrays;
+
+/**
+ * A cheap copy of the parts of a university the lookahead planner needs, with a simple model of a
+ * year. Buildings of the same type and level are interchangeable as far as the budget and
+ * reputation are concerned, so the estate is kept as the number of buildings of each type at each
+ * level rather than as the buildings themselves, and copying a state only copies a few small
+ * arrays.
+ *
+ * <p>Actions are encoded as ints: the kind of action in the low bits, then the id of the type and
+ * the level of the building acted on.
+ *
+ * @see LookaheadPlanner
+ */
+final class PlanningState {
+
+  // the kinds of action
+  static final int END_YEAR = 0;
+  static final int BUILD = 1;
+  static final int UPGRADE = 2;
+
+  private static final int KIND_BITS = 2;
+  private static final int TYPE_BITS = 8;
+
+  // the reputation gained by building and upgrading a building, the same as University's
+  private static final int BUILD_REPUTATION = 100;
+  private static final int UPGRADE_REPUTATION = 50;
+  // the coins collected from each student every year, the same as University's
+  private static final int STUDENT_FEE = 10;
+
+  private final FacilityType[] types;
+  // the maximum level of any type plus 1, the stride of buildingCounts
+  private final int levels;
+  // the salary and recreational profit of each student, assumed to stay the same over the horizon
+  private float salaryPerStudent;
+  private float profitPerStudent;
+
+  private float budget;
+  private int reputation;
+  private int year = 0;
+  private int actionsThisYear = 0;
+  // the number of buildings of each type at each level, indexed by typeId * levels + level
+  private int[] buildingCounts;
+  // the capacity totals of each category, indexed by the id of the category, and of all buildings
+  private int[] categoryCapacity;
+  private int buildingCapacity;
+
+  /**
+   * Constructs a new planning state.
+   *
+   * @param types            every facility type, indexed by id
+   * @param levels           the maximum level of any type plus 1
+   * @param budget           the budget of the university
+   * @param reputation       the reputation of the university
+   * @param buildingCounts   the number of buildings of each type at each level
+   * @param salaryPerStudent the staff salary paid for each student
+   * @param profitPerStudent the recreational profit made from each student
+   */
+  PlanningState(FacilityType[] types, int levels, float budget, int reputation,
+      int[] buildingCounts, float salaryPerStudent, float profitPerStudent) {
+    this.types = types;
+    this.levels = levels;
+    this.buildingCounts = buildingCounts;
+    categoryCapacity = new int[types.length];
+    reset(budget, reputation, salaryPerStudent, profitPerStudent);
+  }
+
+  /**
+   * Resets this planning state to the start of a new planning, with the given values and the
+   * building counts it was constructed with, which the caller has filled in again. Lets a
+   * university reuse the same state every year.
+   *
+   * @param budget           the budget of the university
+   * @param reputation       the reputation of the university
+   * @param salaryPerStudent the staff salary paid for each student
+   * @param profitPerStudent the recreational profit made from each student
+   */
+  void reset(float budget, int reputation, float salaryPerStudent, float profitPerStudent) {
+    this.budget = budget;
+    this.reputation = reputation;
+    this.salaryPerStudent = salaryPerStudent;
+    this.profitPerStudent = profitPerStudent;
+    year = 0;
+    actionsThisYear = 0;
+    Arrays.fill(categoryCapacity, 0);
+    buildingCapacity = 0;
+    for (FacilityType type : types) {
+      if (type.isBuilding()) {
+        for (int level = 1; level <= type.getEconomics().getMaximumLevel(); level++) {
+          int capacity = getCount(type, level) * type.getEconomics().getCapacity(level);
+          categoryCapacity[type.getCategory().getId()] += capacity;
+          buildingCapacity += capacity;
+        }
+      }
+    }
+  }
+
+  /**
+   * Constructs a copy of the given planning state.
+   *
+   * @param state the planning state to copy
+   */
+  private PlanningState(PlanningState state) {
+    types = state.types;
+    levels = state.levels;
+    salaryPerStudent = state.salaryPerStudent;
+    profitPerStudent = state.profitPerStudent;
+    budget = state.budget;
+    reputation = state.reputation;
+    year = state.year;
+    actionsThisYear = state.actionsThisYear;
+    buildingCounts = state.buildingCounts.clone();
+    categoryCapacity = state.categoryCapacity.clone();
+    buildingCapacity = state.buildingCapacity;
+  }
+
+  /**
+   * Returns a copy of this planning state.
+   *
+   * @return a copy of this planning state
+   */
+  PlanningState copy() {
+    return new PlanningState(this);
+  }
+
+  /**
+   * Encodes an action.
+   *
+   * @param kind  the kind of action
+   * @param type  the type of building acted on, or null to end the year
+   * @param level the level of the building acted on, 0 when building or ending the year
+   * @return the action
+   */
+  static int action(int kind, FacilityType type, int level) {
+    int typeId = type == null ? 0 : type.getId();
+    return (level << (KIND_BITS + TYPE_BITS)) | (typeId << KIND_BITS) | kind;
+  }
+
+  /**
+   * Returns the kind of the given action.
+   *
+   * @param action the action
+   * @return the kind of the action
+   */
+  static int kindOf(int action) {
+    return action & ((1 << KIND_BITS) - 1);
+  }
+
+  /**
+   * Returns the id of the type of building the given action acts on.
+   *
+   * @param action the action
+   * @return the id of the type of building
+   */
+  static int typeIdOf(int action) {
+    return (action >>> KIND_BITS) & ((1 << TYPE_BITS) - 1);
+  }
+
+  /**
+   * Returns the level of the building the given action acts on.
+   *
+   * @param action the action
+   * @return the level of the building
+   */
+  static int levelOf(int action) {
+    return action >>> (KIND_BITS + TYPE_BITS);
+  }
+
+  /**
+   * Returns the most actions that can ever be taken from a state, ending the year and building or
+   * upgrading a building of every type at every level.
+   *
+   * @return the most actions that can be taken from a state
+   */
+  int getMaximumNumberOfActions() {
+    return 1 + types.length * levels;
+  }
+
+  /**
+   * Returns the actions that can be taken from this state, given that at most the given number of
+   * actions can be taken in a year. An action can only be taken if the budget after it still
+   * covers the costs of the year, and the year can always be ended.
+   *
+   * @param maximumActionsPerYear the maximum number of builds and upgrades in a year
+   * @param actions               the array to put the actions in, big enough for every type at
+   *                              every level plus one
+   * @return the number of actions
+   */
+  int getActions(int maximumActionsPerYear, int[] actions) {
+    int numberOfActions = 0;
+    actions[numberOfActions++] = action(END_YEAR, null, 0);
+    if (actionsThisYear >= maximumActionsPerYear) {
+      return numberOfActions;
+    }
+    float costs = getCosts();
+    for (FacilityType type : types) {
+      if (!type.isBuilding()) {
+        continue;
+      }
+      EconomicsTable economics = type.getEconomics();
+      if (budget - economics.getBuildCost() >= costs) {
+        actions[numberOfActions++] = action(BUILD, type, 0);
+      }
+      for (int level = 1; level < economics.getMaximumLevel(); level++) {
+        if (getCount(type, level) > 0 && budget - economics.getUpgradeCost(level) >= costs) {
+          actions[numberOfActions++] = action(UPGRADE, type, level);
+        }
+      }
+    }
+    return numberOfActions;
+  }
+
+  /**
+   * Takes the given action. Ending the year collects the student fees and recreational profits
+   * and pays the maintenance costs and staff salaries, assuming there are always enough staff.
+   *
+   * @param action the action
+   */
+  void apply(int action) {
+    FacilityType type = types[typeIdOf(action)];
+    EconomicsTable economics = type.getEconomics();
+    switch (kindOf(action)) {
+      case BUILD:
+        budget -= economics.getBuildCost();
+        reputation += BUILD_REPUTATION;
+        buildingCounts[type.getId() * levels + 1]++;
+        addCapacity(type, economics.getCapacity(1));
+        actionsThisYear++;
+        break;
+      case UPGRADE:
+        int level = levelOf(action);
+        budget -= economics.getUpgradeCost(level);
+        reputation += UPGRADE_REPUTATION;
+        buildingCounts[type.getId() * levels + level]--;
+        buildingCounts[type.getId() * levels + level + 1]++;
+        addCapacity(type, economics.getCapacity(level + 1) - economics.getCapacity(level));
+        actionsThisYear++;
+        break;
+      default:
+        int students = getNumberOfStudents();
+        budget += students * (STUDENT_FEE + profitPerStudent);
+        budget -= getCosts();
+        year++;
+        actionsThisYear = 0;
+        break;
+    }
+  }
+
+  /**
+   * Adds the given amount of capacity to the totals of the given type's category and of all
+   * buildings.
+   *
+   * @param type   the type of building
+   * @param amount the amount of capacity
+   */
+  private void addCapacity(FacilityType type, int amount) {
+    categoryCapacity[type.getCategory().getId()] += amount;
+    buildingCapacity += amount;
+  }
+
+  /**
+   * Returns the number of buildings of the given type at the given level.
+   *
+   * @param type  the type of building
+   * @param level the level
+   * @return the number of buildings of the type at the level
+   */
+  int getCount(FacilityType type, int level) {
+    return buildingCounts[type.getId() * levels + level];
+  }
+
+  /**
+   * Returns the number of students, the minimum of the capacity totals of the categories.
+   *
+   * @return the number of students
+   */
+  int getNumberOfStudents() {
+    int students = Integer.MAX_VALUE;
+    for (FacilityType category : FacilityType.getCategories()) {
+      students = Math.min(students, categoryCapacity[category.getId()]);
+    }
+    return students;
+  }
+
+  /**
+   * Returns the costs of a year, the maintenance costs and the staff salaries.
+   *
+   * @return the costs of a year
+   */
+  float getCosts() {
+    return (float) (buildingCapacity * 0.1) + getNumberOfStudents() * salaryPerStudent;
+  }
+
+  /**
+   * Returns the value of this state to a university valuing its income over the given number of
+   * years. The value is the reputation, plus the budget and the net income of the rest of the years
+   * turned into reputation at the given rate, so states part way through different years can be
+   * compared. A state that can't pay for its year is worthless.
+   *
+   * @param horizon             the number of years the income is valued over
+   * @param reputationPerCoin   the reputation a coin is worth
+   * @return the value of this state
+   */
+  double getValue(int horizon, double reputationPerCoin) {
+    if (budget < 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    int students = getNumberOfStudents();
+    double income = students * (STUDENT_FEE + profitPerStudent) - getCosts();
+    return reputation + reputationPerCoin * (budget + Math.max(0, horizon - year) * income);
+  }
+
+  /**
+   * Returns the number of years that have been ended.
+   *
+   * @return the number of years that have been ended
+   */
+  int getYear() {
+    return year;
+  }
+}
@@ -0,0 +1,164 @@
+package university;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A staff market shared by several universities running on different threads. Staff are hired in
+ * rounds without a global lock: in the bidding phase of a round every university bids for the staff
+ * it wants with a compare-and-set on each staff member's claim, and in the settling phase every
+ * university hires the staff it won. A claim always ends up held by the highest priority bid, no
+ * matter the order the bids were placed in, so given the same priorities the outcome is the same
+ * on every run. Staff are created from a shared staff market template as they are hired.
+ *
+ * @see Seat
+ * @see StaffMarketTemplate
+ */
+public class SharedStaffMarket {
+
+  // claim value of staff that have been hired, a claim of 0 means the staff member is free and any
+  // positive claim is the priority of the highest bid for the staff member this round
+  private static final int HIRED = -1;
+
+  private StaffMarketTemplate template;
+  private AtomicIntegerArray claims;
+
+  /**
+   * Constructs a new shared staff market of the staff in the given staff market template, with
+   * none of the staff hired.
+   *
+   * @param template the staff market template
+   */
+  public SharedStaffMarket(StaffMarketTemplate template) {
+    this.template = template;
+    claims = new AtomicIntegerArray(template.size());
+  }
+
+  /**
+   * Returns a new seat at this market for a university bidding with the given priority. Seats
+   * bidding in the same round must have different priorities.
+   *
+   * @param priority the priority of the seat's bids, higher priority bids win
+   * @return a new seat at this market
+   */
+  public Seat createSeat(int priority) {
+    return new Seat(priority);
+  }
+
+  /**
+   * Returns the number of staff that have not been hired yet.
+   *
+   * @return the number of staff that have not been hired yet
+   */
+  public int getNumberOfAvailableStaff() {
+    int available = 0;
+    for (int i = 0; i < claims.length(); i++) {
+      if (claims.get(i) != HIRED) {
+        available++;
+      }
+    }
+    return available;
+  }
+
+  /**
+   * Bids for the staff member at the given index. The bid replaces the current bid if it has a
+   * higher priority, retrying until either this bid holds the claim, a higher priority bid does or
+   * the staff member has been hired.
+   *
+   * @param index    the index of the staff member
+   * @param priority the priority of the bid
+   */
+  private void bid(int index, int priority) {
+    int claim = claims.get(index);
+    while (claim != HIRED && claim < priority && !claims.compareAndSet(index, claim, priority)) {
+      claim = claims.get(index);
+    }
+  }
+
+  /**
+   * A university's seat at the shared staff market, keeping track of the bids it placed in the
+   * current round.
+   */
+  public class Seat {
+
+    private int priority;
+    private int[] bids = new int[0];
+    private int numberOfBids = 0;
+
+    /**
+     * Constructs a new seat bidding with the given priority.
+     *
+     * @param priority the priority of the seat's bids
+     */
+    private Seat(int priority) {
+      this.priority = priority;
+    }
+
+    /**
+     * Sets the priority of the seat's bids, used to change which university wins ties each year.
+     *
+     * @param priority the priority of the seat's bids, must be positive
+     */
+    public void setPriority(int priority) {
+      this.priority = priority;
+    }
+
+    /**
+     * Bids for the staff the given human resource department would hire, walking the staff that
+     * have not been hired in order of skill the same way HumanResource's hireStaff does. Only staff
+     * hired in earlier rounds are skipped, so the bids placed don't depend on the bids of other
+     * universities in the same round. Returns the number of bids placed.
+     *
+     * @param humanResource    the human resource department of the university
+     * @param budget           the budget of the university
+     * @param allCosts         the total costs of the university
+     * @param numberOfStudents the number of students in the university
+     * @return the number of bids placed
+     * @see HumanResource#hireStaff(StaffMarket, float, float, int)
+     */
+    int placeBids(HumanResource humanResource, float budget, float allCosts,
+        int numberOfStudents) {
+      int hypotheticalInstructedStudents = humanResource.calculateHypotheticalInstructedStudents();
+      numberOfBids = 0;
+      int index =
+          template.findFirstAffordable(humanResource.calculateSalaryLimit(budget, allCosts));
+      while (index < template.size()
+          && humanResource.isUnderstaffed(hypotheticalInstructedStudents, numberOfStudents)) {
+        if (claims.get(index) != HIRED) {
+          bid(index, priority);
+          if (numberOfBids == bids.length) {
+            int[] grownBids = new int[Math.max(8, bids.length * 2)];
+            System.arraycopy(bids, 0, grownBids, 0, numberOfBids);
+            bids = grownBids;
+          }
+          bids[numberOfBids++] = index;
+          hypotheticalInstructedStudents += humanResource.calculateInstructableStudents(
+              Staff.MAXIMUM_STAMINA, template.getSkill(index));
+        }
+        index++;
+      }
+      return numberOfBids;
+    }
+
+    /**
+     * Hires the staff this seat won in the current round into the given human resource department.
+     * Must only be called once every university has placed its bids for the round.
+     *
+     * @param humanResource the human resource department of the university
+     * @return the number of staff hired
+     */
+    int hireWonStaff(HumanResource humanResource) {
+      int hired = 0;
+      for (int i = 0; i < numberOfBids; i++) {
+        // only one bid can hold the claim, so only one university can hire the staff member
+        if (claims.compareAndSet(bids[i], priority, HIRED)) {
+          Staff staff = template.createStaff(bids[i]);
+          humanResource.addStaff(staff);
+          System.out.println("Hired " + staff.getName() + ".");
+          hired++;
+        }
+      }
+      numberOfBids = 0;
+      return hired;
+    }
+  }
+}
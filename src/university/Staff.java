@@ -12,6 +12,9 @@ public class Staff implements Comparable<Staff> {
   private int yearsOfTeaching;
   private int stamina;
 
+  // the stamina staff members start with and can't go above
+  public static final int MAXIMUM_STAMINA = 100;
+
   /**
    * Constructs a new staff member with the given name and skill.
    *
@@ -22,7 +25,7 @@ public class Staff implements Comparable<Staff> {
     this.name = name;
     this.skill = skill;
     this.yearsOfTeaching = 0;
-    this.stamina = 100;
+    this.stamina = MAXIMUM_STAMINA;
   }
 
   /**
@@ -44,10 +47,10 @@ public class Staff implements Comparable<Staff> {
    * the stamina to 100.
    */
   public void replenishStamina() {
-    if (stamina + 20 <= 100) {
+    if (stamina + 20 <= MAXIMUM_STAMINA) {
       stamina += 20;
     } else {
-      stamina = 100;
+      stamina = MAXIMUM_STAMINA;
     }
   }
 
@@ -148,6 +151,16 @@ public class Staff implements Comparable<Staff> {
    * @return the maximum possible starting salary of this staff member
    */
   public float getStartingSalaryMax() {
+    return calculateStartingSalaryMax(skill);
+  }
+
+  /**
+   * Returns the maximum possible starting salary of a staff member with the given skill.
+   *
+   * @param skill the skill of the staff member
+   * @return the maximum possible starting salary of a staff member with the given skill
+   */
+  public static float calculateStartingSalaryMax(int skill) {
     return (float) (skill * ((10.5) / 100));
   }
 }
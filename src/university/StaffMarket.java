@@ -0,0 +1,27 @@
+package university;
+
+/**
+ * A staff market that universities hire their staff from. Staff are offered in order of skill,
+ * starting with the highest skill.
+ *
+ * @see HumanResource#hireStaff(StaffMarket, float, float, int)
+ */
+public interface StaffMarket {
+
+  /**
+   * Hires the staff member with the highest skill whose maximum starting salary is less than the
+   * given salary limit, removing them from the market. Returns null if there is no such staff
+   * member.
+   *
+   * @param salaryLimit the salary the maximum starting salary of the staff member must be below
+   * @return the hired staff member, or null if no staff member in the market can be afforded
+   */
+  Staff hire(float salaryLimit);
+
+  /**
+   * Returns the number of staff members still available in the market.
+   *
+   * @return the number of staff members still available in the market
+   */
+  int getNumberOfAvailableStaff();
+}
@@ -0,0 +1,94 @@
+package university;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * An immutable staff market that is read once and shared by every simulation, and every thread,
+ * using it. Only the name and skill of each staff member is kept, sorted by skill, starting with
+ * the highest skill, and a new staff member is created from them only when they are hired.
+ *
+ * @see StaffMarketView
+ */
+public final class StaffMarketTemplate {
+
+  private final String[] names;
+  private final int[] skills;
+
+  /**
+   * Constructs a new staff market template from the given staff.
+   *
+   * @param availableStaff the available staff in the staff market
+   */
+  public StaffMarketTemplate(ArrayList<Staff> availableStaff) {
+    ArrayList<Staff> sortedStaff = new ArrayList<Staff>(availableStaff);
+    // the sort is stable, so staff with the same skill stay in the order they were given in
+    Collections.sort(sortedStaff);
+    names = new String[sortedStaff.size()];
+    skills = new int[sortedStaff.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = sortedStaff.get(i).getName();
+      skills[i] = sortedStaff.get(i).getSkill();
+    }
+  }
+
+  /**
+   * Returns a new view of this template for a single simulation, with none of the staff hired.
+   *
+   * @return a new view of this template
+   */
+  public StaffMarketView createView() {
+    return new StaffMarketView(this);
+  }
+
+  /**
+   * Returns the number of staff in the staff market.
+   *
+   * @return the number of staff in the staff market
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the skill of the staff member at the given index.
+   *
+   * @param index the index of the staff member
+   * @return the skill of the staff member
+   */
+  public int getSkill(int index) {
+    return skills[index];
+  }
+
+  /**
+   * Creates a new staff member from the staff member at the given index, used when hiring them.
+   *
+   * @param index the index of the staff member
+   * @return a new staff member with the name and skill of the staff member at the given index
+   */
+  public Staff createStaff(int index) {
+    return new Staff(names[index], skills[index]);
+  }
+
+  /**
+   * Returns the index of the first staff member in order of skill whose maximum starting salary is
+   * less than the given salary limit. Staff are sorted by skill, and so by maximum starting salary,
+   * so this is a binary search.
+   *
+   * @param salaryLimit the salary the maximum starting salary of the staff member must be below
+   * @return the index of the first affordable staff member, or the number of staff if there is none
+   */
+  public int findFirstAffordable(float salaryLimit) {
+    int low = 0;
+    int high = skills.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (Staff.calculateStartingSalaryMax(skills[middle]) < salaryLimit) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+}
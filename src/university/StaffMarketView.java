@@ -0,0 +1,57 @@
+package university;
+
+import java.util.BitSet;
+
+/**
+ * A single simulation's view of a shared staff market template. The view only keeps a bitset of
+ * the staff that have been hired and a cursor to the highest skilled staff member that hasn't, so
+ * creating one costs next to nothing no matter how many simulations share the template.
+ *
+ * @see StaffMarketTemplate
+ */
+public class StaffMarketView implements StaffMarket {
+
+  private StaffMarketTemplate template;
+  private BitSet hired;
+  // the index of the highest skilled staff member that hasn't been hired
+  private int cursor = 0;
+
+  /**
+   * Constructs a new view of the given staff market template, with none of the staff hired.
+   *
+   * @param template the staff market template
+   */
+  public StaffMarketView(StaffMarketTemplate template) {
+    this.template = template;
+    hired = new BitSet(template.size());
+  }
+
+  /**
+   * Hires the staff member with the highest skill whose maximum starting salary is less than the
+   * given salary limit, creating them from the template. Returns null if there is no such staff
+   * member.
+   *
+   * @param salaryLimit the salary the maximum starting salary of the staff member must be below
+   * @return the hired staff member, or null if no staff member in the market can be afforded
+   */
+  public Staff hire(float salaryLimit) {
+    int index = hired.nextClearBit(Math.max(cursor, template.findFirstAffordable(salaryLimit)));
+    if (index >= template.size()) {
+      return null;
+    }
+    hired.set(index);
+    if (index == cursor) {
+      cursor = hired.nextClearBit(cursor);
+    }
+    return template.createStaff(index);
+  }
+
+  /**
+   * Returns the number of staff that have not been hired yet.
+   *
+   * @return the number of staff that have not been hired yet
+   */
+  public int getNumberOfAvailableStaff() {
+    return template.size() - hired.cardinality();
+  }
+}
@@ -0,0 +1,61 @@
+package university;
+
+/**
+ * The keys of the Zobrist-style hash of a university's state. Every part of the state, such as a
+ * facility at a level or a staff member with a given skill, stamina, and years of teaching, has a
+ * random-looking 64-bit key, and the hash of the state is the exclusive or of the keys of all its
+ * parts. A part changing only changes the hash by its old and new key, so the hash can be kept up
+ * to date as the state changes rather than worked out from scratch.
+ *
+ * <p>The keys are worked out by mixing the part's values rather than drawn from a table, so there
+ * is a key for every facility id however big the estate gets, and the same state always has the
+ * same hash, on any run, which is what makes the hash usable for comparing runs.
+ *
+ * @see University#getStateHash()
+ * @see CycleDetector
+ */
+final class StateHash {
+
+  // the parts of the state, so the keys of different parts never line up
+  static final int FACILITY = 1;
+  static final int STAFF = 2;
+  static final int BUDGET = 3;
+  static final int REPUTATION = 4;
+
+  // the fractional part of the golden ratio, spreads consecutive values over the whole range
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  /**
+   * Constructs nothing, the keys are only worked out by the static methods.
+   */
+  private StateHash() {
+  }
+
+  /**
+   * Returns the key of the given part of the state with the given values.
+   *
+   * @param part   the part of the state, e.g. FACILITY
+   * @param first  the first value of the part, e.g. the id of the facility
+   * @param second the second value of the part, e.g. the id of the facility's type
+   * @param third  the third value of the part, e.g. the level of the facility
+   * @return the key of the part
+   */
+  static long key(int part, long first, long second, long third) {
+    long key = mix(part * GOLDEN_GAMMA + first);
+    key = mix(key + second * GOLDEN_GAMMA);
+    return mix(key + third * GOLDEN_GAMMA);
+  }
+
+  /**
+   * Mixes the bits of the given value, the finaliser of the SplitMix64 generator, so values that
+   * differ by a single bit give keys that differ in about half their bits.
+   *
+   * @param value the value
+   * @return the mixed value
+   */
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+}
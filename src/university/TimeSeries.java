@@ -0,0 +1,332 @@
+package university;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * An in-memory history of a few metrics of a simulation, one row of values a year. Every metric is
+ * a column of primitive arrays, which grow a chunk at a time rather than being copied whenever
+ * they fill up.
+ *
+ * <p>The history keeps at most a given number of points. Until then every row is a point of its
+ * own, and once the points are used up every two neighbouring points are merged into one, halving
+ * the number of points and doubling the number of rows each point covers from then on. A point
+ * keeps the minimum, maximum, and mean of each metric over its rows, and the first and last year
+ * they were recorded in, so however long a run gets the history takes up the same memory and still
+ * shows the range of every metric over every stretch of the run.
+ *
+ * <p>Rows don't have to be recorded every year, a year that was fast-forwarded past can be left
+ * out, so the years a point covers are kept rather than worked out from its index.
+ */
+public class TimeSeries {
+
+  // the number of points in a chunk, a power of two so the chunk of a point is a shift away
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private String[] names;
+  private int maximumLength;
+  // the number of rows every point covers once it's full
+  private int rowsPerPoint = 1;
+  private int size = 0;
+  // indexed by chunk, then by the index of the point in the chunk
+  private int[][] firstYears = new int[0][];
+  private int[][] lastYears = new int[0][];
+  private int[][] counts = new int[0][];
+  // indexed by column, then by chunk, then by the index of the point in the chunk
+  private double[][][] minimums;
+  private double[][][] maximums;
+  private double[][][] sums;
+
+  /**
+   * Constructs a new, empty history of the metrics with the given names, keeping at most the given
+   * number of points.
+   *
+   * @param names         the names of the metrics, one column each
+   * @param maximumLength the maximum number of points kept, rows recorded past it are merged
+   * @throws IllegalArgumentException if the maximum number of points isn't even and at least 2
+   */
+  public TimeSeries(String[] names, int maximumLength) {
+    if (maximumLength < 2 || maximumLength % 2 != 0) {
+      throw new IllegalArgumentException(
+          "A time series must keep an even number of points of at least 2.");
+    }
+    this.names = names.clone();
+    this.maximumLength = maximumLength;
+    minimums = new double[names.length][0][];
+    maximums = new double[names.length][0][];
+    sums = new double[names.length][0][];
+  }
+
+  /**
+   * Records a row of values, one for every metric in the order of their names. The values are
+   * copied, so the same array can be reused for every row.
+   *
+   * @param year   the year the values are for
+   * @param values the values of the metrics
+   * @throws IllegalArgumentException if there isn't a value for every metric
+   */
+  public void add(int year, double[] values) {
+    if (values.length != names.length) {
+      throw new IllegalArgumentException(
+          "Expected " + names.length + " values but got " + values.length + ".");
+    }
+    if (size > 0 && counts[chunkOf(size - 1)][indexOf(size - 1)] < rowsPerPoint) {
+      // the last point isn't full yet, so the row is merged into it
+      int chunk = chunkOf(size - 1);
+      int index = indexOf(size - 1);
+      lastYears[chunk][index] = year;
+      counts[chunk][index]++;
+      for (int column = 0; column < names.length; column++) {
+        double value = values[column];
+        minimums[column][chunk][index] = Math.min(minimums[column][chunk][index], value);
+        maximums[column][chunk][index] = Math.max(maximums[column][chunk][index], value);
+        sums[column][chunk][index] += value;
+      }
+      return;
+    }
+    if (size == maximumLength) {
+      halve();
+    }
+    if (chunkOf(size) == firstYears.length) {
+      addChunk();
+    }
+    int chunk = chunkOf(size);
+    int index = indexOf(size);
+    firstYears[chunk][index] = year;
+    lastYears[chunk][index] = year;
+    counts[chunk][index] = 1;
+    for (int column = 0; column < names.length; column++) {
+      minimums[column][chunk][index] = values[column];
+      maximums[column][chunk][index] = values[column];
+      sums[column][chunk][index] = values[column];
+    }
+    size++;
+  }
+
+  /**
+   * Adds a chunk to the end of every column.
+   */
+  private void addChunk() {
+    int chunks = firstYears.length + 1;
+    firstYears = Arrays.copyOf(firstYears, chunks);
+    lastYears = Arrays.copyOf(lastYears, chunks);
+    counts = Arrays.copyOf(counts, chunks);
+    firstYears[chunks - 1] = new int[CHUNK_SIZE];
+    lastYears[chunks - 1] = new int[CHUNK_SIZE];
+    counts[chunks - 1] = new int[CHUNK_SIZE];
+    for (int column = 0; column < names.length; column++) {
+      minimums[column] = Arrays.copyOf(minimums[column], chunks);
+      maximums[column] = Arrays.copyOf(maximums[column], chunks);
+      sums[column] = Arrays.copyOf(sums[column], chunks);
+      minimums[column][chunks - 1] = new double[CHUNK_SIZE];
+      maximums[column][chunks - 1] = new double[CHUNK_SIZE];
+      sums[column][chunks - 1] = new double[CHUNK_SIZE];
+    }
+  }
+
+  /**
+   * Merges every two neighbouring points into one, in place, halving the number of points and
+   * doubling the number of rows every point covers from now on. Only called when every point is
+   * full, so the merged points are full too.
+   */
+  private void halve() {
+    for (int point = 0; point < size / 2; point++) {
+      int chunk = chunkOf(point);
+      int index = indexOf(point);
+      int firstChunk = chunkOf(2 * point);
+      int firstIndex = indexOf(2 * point);
+      int secondChunk = chunkOf(2 * point + 1);
+      int secondIndex = indexOf(2 * point + 1);
+      firstYears[chunk][index] = firstYears[firstChunk][firstIndex];
+      lastYears[chunk][index] = lastYears[secondChunk][secondIndex];
+      counts[chunk][index] = counts[firstChunk][firstIndex] + counts[secondChunk][secondIndex];
+      for (int column = 0; column < names.length; column++) {
+        minimums[column][chunk][index] = Math.min(minimums[column][firstChunk][firstIndex],
+            minimums[column][secondChunk][secondIndex]);
+        maximums[column][chunk][index] = Math.max(maximums[column][firstChunk][firstIndex],
+            maximums[column][secondChunk][secondIndex]);
+        sums[column][chunk][index] = sums[column][firstChunk][firstIndex]
+            + sums[column][secondChunk][secondIndex];
+      }
+    }
+    size /= 2;
+    rowsPerPoint *= 2;
+  }
+
+  /**
+   * Returns the chunk the point with the given index is in.
+   *
+   * @param point the index of the point
+   * @return the chunk of the point
+   */
+  private static int chunkOf(int point) {
+    return point >>> CHUNK_SHIFT;
+  }
+
+  /**
+   * Returns the index of the point with the given index within its chunk.
+   *
+   * @param point the index of the point
+   * @return the index of the point within its chunk
+   */
+  private static int indexOf(int point) {
+    return point & CHUNK_MASK;
+  }
+
+  /**
+   * Returns the number of points in the history.
+   *
+   * @return the number of points in the history
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of metrics in the history.
+   *
+   * @return the number of metrics in the history
+   */
+  public int getNumberOfColumns() {
+    return names.length;
+  }
+
+  /**
+   * Returns the name of the metric in the given column.
+   *
+   * @param column the column of the metric
+   * @return the name of the metric
+   */
+  public String getName(int column) {
+    return names[column];
+  }
+
+  /**
+   * Returns the column of the metric with the given name, or -1 if there is no such metric.
+   *
+   * @param name the name of the metric
+   * @return the column of the metric, or -1 if there is no such metric
+   */
+  public int getColumn(String name) {
+    for (int column = 0; column < names.length; column++) {
+      if (names[column].equals(name)) {
+        return column;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the first year the point with the given index covers.
+   *
+   * @param point the index of the point
+   * @return the first year of the point
+   */
+  public int getFirstYear(int point) {
+    checkIndex(point);
+    return firstYears[chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Returns the last year the point with the given index covers.
+   *
+   * @param point the index of the point
+   * @return the last year of the point
+   */
+  public int getLastYear(int point) {
+    checkIndex(point);
+    return lastYears[chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Returns the number of rows the point with the given index covers.
+   *
+   * @param point the index of the point
+   * @return the number of rows of the point
+   */
+  public int getCount(int point) {
+    checkIndex(point);
+    return counts[chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Returns the minimum of the metric in the given column over the rows of the given point.
+   *
+   * @param column the column of the metric
+   * @param point  the index of the point
+   * @return the minimum of the metric over the point
+   */
+  public double getMinimum(int column, int point) {
+    checkIndex(point);
+    return minimums[column][chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Returns the maximum of the metric in the given column over the rows of the given point.
+   *
+   * @param column the column of the metric
+   * @param point  the index of the point
+   * @return the maximum of the metric over the point
+   */
+  public double getMaximum(int column, int point) {
+    checkIndex(point);
+    return maximums[column][chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Returns the mean of the metric in the given column over the rows of the given point.
+   *
+   * @param column the column of the metric
+   * @param point  the index of the point
+   * @return the mean of the metric over the point
+   */
+  public double getMean(int column, int point) {
+    checkIndex(point);
+    return sums[column][chunkOf(point)][indexOf(point)] / counts[chunkOf(point)][indexOf(point)];
+  }
+
+  /**
+   * Checks that there is a point with the given index.
+   *
+   * @param point the index of the point
+   * @throws IndexOutOfBoundsException if there is no point with the index
+   */
+  private void checkIndex(int point) {
+    if (point < 0 || point >= size) {
+      throw new IndexOutOfBoundsException("Index " + point + " out of bounds for " + size
+          + " points.");
+    }
+  }
+
+  /**
+   * Writes the history to the given file as comma separated values, a line for every point with
+   * its first and last year and the minimum, mean, and maximum of every metric, after a header
+   * line naming the columns. Replaces the file if it exists.
+   *
+   * @param file the file to write to
+   * @throws IOException if the file can't be written
+   */
+  public void writeCsv(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("firstYear,lastYear");
+      for (String name : names) {
+        writer.write("," + name + "Minimum," + name + "Mean," + name + "Maximum");
+      }
+      writer.newLine();
+      for (int point = 0; point < size; point++) {
+        writer.write(getFirstYear(point) + "," + getLastYear(point));
+        for (int column = 0; column < names.length; column++) {
+          writer.write("," + getMinimum(column, point) + "," + getMean(column, point) + ","
+              + getMaximum(column, point));
+        }
+        writer.newLine();
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package university;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A journal of every change to a university's budget, kept as fixed-width binary entries in a ring
+ * buffer outside the Java heap. Recording an entry writes four numbers into the buffer, so a
+ * journal can be left on for a million-year run without slowing it down or filling the heap, and
+ * once the buffer is full the oldest entries are overwritten, keeping the most recent ones.
+ *
+ * <p>Each entry is ENTRY_SIZE bytes, little-endian: the year as an int, the kind of transaction as
+ * an int, the id of the facility involved (-1 if there is none) as an int, the number of years the
+ * transaction covers as an int, and the amount of money as a long, negative for money spent. Every
+ * transaction covers a single year except a fast-forward, which covers every year skipped. The
+ * journal is written to a file in the same format, oldest entry first.
+ *
+ * <p>A journal isn't thread-safe, every university should have its own.
+ *
+ * @see University#setJournal(TransactionJournal)
+ * @see Money
+ */
+public final class TransactionJournal {
+
+  // the kinds of transaction
+  public static final int BUILD = 0;
+  public static final int UPGRADE = 1;
+  public static final int STUDENT_FEES = 2;
+  public static final int RECREATIONAL_PROFITS = 3;
+  public static final int MAINTENANCE = 4;
+  public static final int SALARIES = 5;
+  // the income of a number of years fast-forwarded in one go, covering all of those years
+  public static final int FAST_FORWARD = 6;
+  // any other change to the budget, such as increaseBudget
+  public static final int OTHER = 7;
+
+  // the size of an entry in bytes
+  public static final int ENTRY_SIZE = 24;
+  private static final int YEAR_OFFSET = 0;
+  private static final int KIND_OFFSET = 4;
+  private static final int ID_OFFSET = 8;
+  private static final int YEARS_OFFSET = 12;
+  private static final int AMOUNT_OFFSET = 16;
+
+  private final ByteBuffer entries;
+  private final int capacity;
+  // the number of entries ever recorded, and the index in the buffer the next one goes in
+  private long numberOfRecorded = 0;
+  private int next = 0;
+
+  /**
+   * Constructs a new, empty journal that keeps the given number of most recent entries.
+   *
+   * @param capacity the number of entries kept
+   * @throws IllegalArgumentException if the capacity isn't positive or the buffer would be too big
+   */
+  public TransactionJournal(int capacity) {
+    if (capacity < 1 || capacity > Integer.MAX_VALUE / ENTRY_SIZE) {
+      throw new IllegalArgumentException("A journal must keep between 1 and "
+          + Integer.MAX_VALUE / ENTRY_SIZE + " entries.");
+    }
+    this.capacity = capacity;
+    entries = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Records a transaction covering a single year, overwriting the oldest entry if the journal is
+   * full.
+   *
+   * @param year   the year of the transaction
+   * @param kind   the kind of transaction, e.g. BUILD
+   * @param id     the id of the facility involved, or -1 if there is none
+   * @param amount the amount of money, negative for money spent
+   * @see Money
+   */
+  public void record(int year, int kind, int id, long amount) {
+    record(year, kind, id, 1, amount);
+  }
+
+  /**
+   * Records a transaction covering the given number of years, overwriting the oldest entry if the
+   * journal is full.
+   *
+   * @param year   the year of the transaction, the first of the years it covers
+   * @param kind   the kind of transaction, e.g. FAST_FORWARD
+   * @param id     the id of the facility involved, or -1 if there is none
+   * @param years  the number of years the transaction covers
+   * @param amount the amount of money, negative for money spent
+   * @see Money
+   */
+  public void record(int year, int kind, int id, int years, long amount) {
+    int offset = next * ENTRY_SIZE;
+    entries.putInt(offset + YEAR_OFFSET, year);
+    entries.putInt(offset + KIND_OFFSET, kind);
+    entries.putInt(offset + ID_OFFSET, id);
+    entries.putInt(offset + YEARS_OFFSET, years);
+    entries.putLong(offset + AMOUNT_OFFSET, amount);
+    next = next + 1 == capacity ? 0 : next + 1;
+    numberOfRecorded++;
+  }
+
+  /**
+   * Returns the number of entries ever recorded, including those that have been overwritten.
+   *
+   * @return the number of entries ever recorded
+   */
+  public long getNumberOfRecorded() {
+    return numberOfRecorded;
+  }
+
+  /**
+   * Returns the number of entries kept, at most the capacity of the journal.
+   *
+   * @return the number of entries kept
+   */
+  public int size() {
+    return (int) Math.min(numberOfRecorded, capacity);
+  }
+
+  /**
+   * Returns the year of the entry with the given index, counting from the oldest entry kept.
+   *
+   * @param index the index of the entry
+   * @return the year of the entry
+   */
+  public int getYear(int index) {
+    return entries.getInt(offsetOf(index) + YEAR_OFFSET);
+  }
+
+  /**
+   * Returns the kind of transaction of the entry with the given index, counting from the oldest
+   * entry kept.
+   *
+   * @param index the index of the entry
+   * @return the kind of transaction of the entry
+   */
+  public int getKind(int index) {
+    return entries.getInt(offsetOf(index) + KIND_OFFSET);
+  }
+
+  /**
+   * Returns the id of the entry with the given index, counting from the oldest entry kept.
+   *
+   * @param index the index of the entry
+   * @return the id of the entry
+   */
+  public int getId(int index) {
+    return entries.getInt(offsetOf(index) + ID_OFFSET);
+  }
+
+  /**
+   * Returns the number of years the entry with the given index covers, counting from the oldest
+   * entry kept.
+   *
+   * @param index the index of the entry
+   * @return the number of years the entry covers
+   */
+  public int getYears(int index) {
+    return entries.getInt(offsetOf(index) + YEARS_OFFSET);
+  }
+
+  /**
+   * Returns the amount of money of the entry with the given index, counting from the oldest entry
+   * kept.
+   *
+   * @param index the index of the entry
+   * @return the amount of money of the entry
+   */
+  public long getAmount(int index) {
+    return entries.getLong(offsetOf(index) + AMOUNT_OFFSET);
+  }
+
+  /**
+   * Returns the offset in the buffer of the entry with the given index, counting from the oldest
+   * entry kept.
+   *
+   * @param index the index of the entry
+   * @return the offset of the entry
+   * @throws IndexOutOfBoundsException if there is no entry with the index
+   */
+  private int offsetOf(int index) {
+    int size = size();
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size
+          + " entries.");
+    }
+    // once the journal has wrapped around, the oldest entry is the one to be overwritten next
+    int oldest = numberOfRecorded > capacity ? next : 0;
+    return (int) ((oldest + (long) index) % capacity) * ENTRY_SIZE;
+  }
+
+  /**
+   * Writes the entries kept to the given file, oldest first, replacing the file if it exists.
+   *
+   * @param file the file to write to
+   * @throws IOException if the file can't be written
+   */
+  public void writeTo(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer view = entries.duplicate();
+      if (numberOfRecorded >= capacity) {
+        // once the journal is full, the oldest entries are from the next one to the end of the
+        // buffer, which is the whole buffer if it has just filled up
+        view.limit(capacity * ENTRY_SIZE).position(next * ENTRY_SIZE);
+        writeFully(channel, view);
+      }
+      view.limit(next * ENTRY_SIZE).position(0);
+      writeFully(channel, view);
+    }
+  }
+
+  /**
+   * Writes everything left in the given buffer to the given channel.
+   *
+   * @param channel the channel
+   * @param buffer  the buffer
+   * @throws IOException if the channel can't be written to
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -1,20 +1,15 @@
 package university;
 
 import facilities.Facility;
-import facilities.buildings.AbstractBuilding;
+import facilities.FacilityType;
 import facilities.buildings.Building;
-import facilities.buildings.Hall;
-import facilities.buildings.Lab;
-import facilities.buildings.Theatre;
-import facilities.recreational.AbstractRecreational;
-import facilities.recreational.Cafeteria;
-import facilities.recreational.Gym;
 import facilities.recreational.Recreational;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import jdk.jfr.EventType;
+import metrics.DecisionEvent;
+import metrics.Tracer;
 
 /**
  * The University class, which contains the estate and human resource of the university. It's
@@ -26,7 +21,11 @@ import java.util.LinkedHashMap;
  */
 public class University {
 
+  // the budget as a float, kept in step with the exact ledger and used wherever the budget is
+  // compared with costs worked out in floats
   private float budget;
+  // the exact budget as an amount of money, every change to the budget goes through here
+  private long ledger;
   private Estate estate;
   private int reputation = 0;
   private HumanResource humanResource;
@@ -39,13 +38,44 @@ public class University {
   private static final float COSTS_MODIFIER_BUILDINGS = 2.0f;
   private static final float COSTS_MODIFIER_RECREATIONAL = 1.15f;
 
+  // the reputation gained by upgrading and building a building, used when calculating its score
+  private static final float UPGRADE_REPUTATION = 50;
+  private static final float BUILD_REPUTATION = 100;
+  // ranks of a category in the bottleneck rankings, 1 to 3, or 0 if it isn't ranked
+  private static final int SCORE_TABLE_RANKS = 4;
+  // looked up once, so a decision can check whether its event is enabled before creating one
+  private static final EventType DECISION_EVENT_TYPE = EventType.getEventType(DecisionEvent.class);
+
   // used to give buildings unique names
   private int counter = 1;
-  private static final String[] POSSIBLE_HALL_NAMES = {"Glen Eyre", "Mayflower", "Highfield",
-      "Wessex Lane"};
-  private static final String[] POSSIBLE_THEATRE_NAMES = {"Nuffield", "Turner Sims",
-      "John Hansard"};
-  private static final String[] POSSIBLE_LAB_NAMES = {"Zepler", "Mountbatten", "Eustice"};
+
+  // scratch buffers reused by every planning pass of buildAndUpgrade, only grown when the estate
+  // outgrows them, so a year that builds and upgrades nothing allocates nothing
+  private int[] candidateIds = new int[0];
+  private FacilityType[] candidateTypes = new FacilityType[0];
+  private float[] candidateScores = new float[0];
+  private int[] candidateOrder = new int[0];
+  private int[] orderScratch = new int[0];
+  private int[] recreationalScratch = new int[0];
+  // memoised scores indexed by scoreIndex, and the maximum level of any type plus 1, see
+  // buildScoreTable
+  private float[] scoreTable;
+  private int scoreTableLevels;
+  // the bottleneck rank of each type of building this planning pass, indexed by the id of the type
+  private int[] rankByType;
+  // every facility type, indexed by id
+  private FacilityType[] facilityTypes;
+  // plans the builds and upgrades of buildings over several years, if set
+  private LookaheadPlanner planner;
+  // scratch buffers reused by every plan: the building counts the planning state is made from, the
+  // planning state itself, created by the first plan, and the actions of the plan
+  private int[] planningCounts;
+  private PlanningState planningState;
+  private int[] planActions = new int[LookaheadPlanner.MAXIMUM_ACTIONS_PER_YEAR];
+  // records every change to the budget, if set
+  private TransactionJournal journal;
+  // records builds and upgrades as trace events, if set
+  private Tracer tracer;
 
   /**
    * Constructs a new university with the given funding. Constructs a new estate and human resource
@@ -54,78 +84,145 @@ public class University {
    * @param funding the funding of the university
    */
   public University(int funding) {
-    this.budget = funding;
+    setLedger(Money.of(funding));
     estate = new Estate();
     humanResource = new HumanResource();
+    buildScoreTable();
+  }
+
+  /**
+   * Builds the table of memoised scores for building and upgrading every type of building at every
+   * level and bottleneck rank. A score only depends on those and the scoring constants, so it's
+   * worked out once here rather than for every candidate every year. The facility types are sealed
+   * by the time the estate has been created, so the table can't be outgrown.
+   *
+   * @see #calculateScore(Building, String, String[])
+   */
+  private void buildScoreTable() {
+    FacilityType[] types = FacilityType.values();
+    facilityTypes = types;
+    scoreTableLevels = 0;
+    for (FacilityType type : types) {
+      scoreTableLevels = Math.max(scoreTableLevels, type.getEconomics().getMaximumLevel() + 1);
+    }
+    scoreTable = new float[types.length * 2 * scoreTableLevels * SCORE_TABLE_RANKS];
+    rankByType = new int[types.length];
+    for (FacilityType type : FacilityType.getBuildingTypes()) {
+      for (int level = 1; level <= type.getEconomics().getMaximumLevel(); level++) {
+        for (int rank = 0; rank < SCORE_TABLE_RANKS; rank++) {
+          scoreTable[scoreIndex(type, false, level, rank)] = calculateScore(UPGRADE_REPUTATION,
+              type.getEconomics().getCapacity(level), type.getEconomics().getUpgradeCost(level),
+              rank);
+          scoreTable[scoreIndex(type, true, level, rank)] = calculateScore(BUILD_REPUTATION,
+              type.getEconomics().getCapacity(level), type.getEconomics().getUpgradeCost(level),
+              rank);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the index in the score table of the score for building or upgrading a building of the
+   * given type and level with the given bottleneck rank.
+   *
+   * @param type  the type of the building
+   * @param build whether the building is being built, otherwise it's being upgraded
+   * @param level the level of the building
+   * @param rank  the rank of the building's category in the bottleneck rankings
+   * @return the index of the score in the score table
+   */
+  private int scoreIndex(FacilityType type, boolean build, int level, int rank) {
+    return ((type.getId() * 2 + (build ? 1 : 0)) * scoreTableLevels + level) * SCORE_TABLE_RANKS
+        + rank;
   }
 
   /**
    * Builds a new facility with the given type and name. Returns the facility if successful,
    * otherwise returns null.
    *
-   * @param type the type of the facility
+   * @param type the type of the facility, e.g. "Hall"
    * @param name the name of the facility
    * @return the facility if successful, otherwise returns null
-   * @see Estate#addFacility(String, String)
+   * @see #build(FacilityType, String)
    */
   public Facility build(String type, String name) {
+    // the type is parsed here, if the type is invalid, null is returned
+    FacilityType facilityType = FacilityType.fromName(type);
+    if (facilityType == null) {
+      return null;
+    }
+    return build(facilityType, name);
+  }
+
+  /**
+   * Builds a new facility with the given type and name. Returns the facility.
+   *
+   * @param type the type of the facility
+   * @param name the name of the facility
+   * @return the facility
+   * @see Estate#addFacility(FacilityType, String)
+   */
+  public Facility build(FacilityType type, String name) {
+    return build(type, name, 0);
+  }
+
+  /**
+   * Builds a new facility with the given type, name and building number. Returns the facility. The
+   * building number is only formatted into the name of the facility when it's displayed.
+   *
+   * @param type           the type of the facility
+   * @param name           the name of the facility
+   * @param buildingNumber the building number of the facility, or 0 for no building number
+   * @return the facility
+   * @see Facility#setBuildingNumber(int)
+   */
+  public Facility build(FacilityType type, String name, int buildingNumber) {
     Facility facility = estate.addFacility(type, name);
-    // ensures building the facility succeeded as addState returns the facility if successful,
-    // otherwise returns null
-    if (facility != null) {
-      // reduce its cost from the budget, type cast it to a building to get its build cost. Then
-      // increase the reputation
-      if (facility instanceof Building) {
-        budget -= ((facilities.buildings.Building) facility).getBuildCost();
-      } else if (facility instanceof Recreational) {
-        budget -= ((facilities.recreational.Recreational) facility).getBuildCost();
-      }
-      reputation += 100;
-      System.out.println("Built " + facility.getClass().getSimpleName() + " "
-          + facility.getName() + ".");
-      return facility;
+    facility.setBuildingNumber(buildingNumber);
+    // reduce its cost from the budget, type cast it to a building or recreational facility to get
+    // its build cost. Then increase the reputation
+    if (type.isBuilding()) {
+      spend(TransactionJournal.BUILD, facility, ((Building) facility).getBuildCost());
+    } else {
+      spend(TransactionJournal.BUILD, facility, ((Recreational) facility).getBuildCost());
     }
-    return null;
+    reputation += 100;
+    System.out.println("Built " + type.getName() + " " + facility.getName() + ".");
+    return facility;
   }
 
   /**
    * Upgrades the given building. Throws an exception if the building is not found in the university
-   * or if the building is already at maximum level.
+   * or if the building is already at maximum level. The building is looked up in the estate by its
+   * id, so this takes constant time.
    *
    * @param building the building to upgrade
    * @throws Exception if the building is not found in the university or if the building is already
    *                   at maximum level
+   * @see Estate#contains(Facility)
    */
   public void upgrade(Facility building) throws Exception {
-    Facility[] facilities = estate.getFacilities();
-    // iterates through every facility in the estate, matching its name to the building
-    // to-be-upgraded. type casts required as the estate returns facilities, not buildings, and
-    // buildings need to be type cast as a facility to get its name
-    for (Facility facility : facilities) {
-      if (facility.getName().equals(((Facility) building).getName())) {
-        if (facility instanceof Building) {
-          if (((AbstractBuilding) building).isUpgradable()) {
-            budget -= ((Building) building).getUpgradeCost();
-            ((Building) building).increaseLevel();
-            reputation += 50;
-            System.out.println("Upgraded " + building.getClass().getSimpleName() + " "
-                + ((AbstractBuilding) building).getName() + ".");
-            return;
-          }
-        } else if (facility instanceof Recreational) {
-          if (((Recreational) building).isUpgradable()) {
-            budget -= ((Recreational) building).getUpgradeCost();
-            ((Recreational) building).increaseLevel();
-            reputation += 50;
-            System.out.println("Upgraded " + building.getClass().getSimpleName() + " "
-                + ((AbstractRecreational) building).getName() + ".");
-            return;
-          }
-        }
-        throw new Exception("Building is already at maximum level.");
+    if (!estate.contains(building)) {
+      throw new Exception("Building not found in university.");
+    }
+    if (building.getType().isBuilding()) {
+      if (((Building) building).isUpgradable()) {
+        spend(TransactionJournal.UPGRADE, building, ((Building) building).getUpgradeCost());
+        ((Building) building).increaseLevel();
+        reputation += 50;
+        System.out.println("Upgraded " + building.getType().getName() + " " + building.getName()
+            + ".");
+        return;
       }
+    } else if (((Recreational) building).isUpgradable()) {
+      spend(TransactionJournal.UPGRADE, building, ((Recreational) building).getUpgradeCost());
+      ((Recreational) building).increaseLevel();
+      reputation += 50;
+      System.out.println("Upgraded " + building.getType().getName() + " " + building.getName()
+          + ".");
+      return;
     }
-    throw new Exception("Building not found in university.");
+    throw new Exception("Building is already at maximum level.");
   }
 
   /**
@@ -137,6 +234,93 @@ public class University {
     return budget;
   }
 
+  /**
+   * Returns the budget of the university as an exact amount of money.
+   *
+   * @return the budget of the university as an amount of money
+   * @see Money
+   */
+  public long getExactBudget() {
+    return ledger;
+  }
+
+  /**
+   * Sets the exact budget of the university, keeping the float budget in step with it.
+   *
+   * @param amount the budget as an amount of money
+   */
+  private void setLedger(long amount) {
+    ledger = amount;
+    budget = Money.toFloat(amount);
+  }
+
+  /**
+   * Changes the budget by the given amount of money over a single year, recording the transaction
+   * in the journal if there is one.
+   *
+   * @param kind   the kind of transaction
+   * @param id     the id of the facility involved, or -1 if there is none
+   * @param amount the amount of money, negative for money spent
+   * @see TransactionJournal#record(int, int, int, long)
+   */
+  private void transact(int kind, int id, long amount) {
+    transact(kind, id, 1, amount);
+  }
+
+  /**
+   * Changes the budget by the given amount of money over the given number of years, recording the
+   * transaction in the journal if there is one.
+   *
+   * @param kind   the kind of transaction
+   * @param id     the id of the facility involved, or -1 if there is none
+   * @param years  the number of years the transaction covers
+   * @param amount the amount of money, negative for money spent
+   * @see TransactionJournal#record(int, int, int, int, long)
+   */
+  private void transact(int kind, int id, int years, long amount) {
+    setLedger(Money.add(ledger, amount));
+    if (journal != null) {
+      journal.record(humanResource.getYear(), kind, id, years, amount);
+    }
+  }
+
+  /**
+   * Reduces the budget by the given whole number of coins spent on the given facility.
+   *
+   * @param kind     the kind of transaction, building or upgrading
+   * @param facility the facility the coins were spent on
+   * @param coins    the number of coins spent
+   */
+  private void spend(int kind, Facility facility, int coins) {
+    transact(kind, facility.getId(), -Money.of(coins));
+    if (tracer != null) {
+      tracer.instant(kind == TransactionJournal.BUILD ? "build" : "upgrade", "estate",
+          humanResource.getYear(), facility.getType().getName() + " " + facility.getName());
+    }
+  }
+
+  /**
+   * Sets the journal every change to the budget is recorded in, or turns recording off.
+   *
+   * @param journal the transaction journal, or null to stop recording
+   * @see TransactionJournal
+   */
+  public void setJournal(TransactionJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Sets the tracer builds, upgrades, hires, retirements, and staff leaving are recorded with as
+   * instant trace events, or turns tracing off.
+   *
+   * @param tracer the tracer, or null to stop tracing
+   * @see HumanResource#setTracer(Tracer)
+   */
+  public void setTracer(Tracer tracer) {
+    this.tracer = tracer;
+    humanResource.setTracer(tracer);
+  }
+
   /**
    * Returns the reputation of the university.
    *
@@ -146,6 +330,48 @@ public class University {
     return reputation;
   }
 
+  /**
+   * Returns the hash of the state of the university: its facilities and their levels, its roster,
+   * its budget to the whole coin, and its reputation. Universities in the same state have the same
+   * hash, on any run, so comparing hashes is a quick way to compare the states of two runs. The
+   * budget is rounded down to the whole coin so rounding noise doesn't tell states apart.
+   *
+   * @return the hash of the state of the university
+   * @see Estate#getStateHash()
+   * @see HumanResource#getRosterHash()
+   */
+  public long getStateHash() {
+    return estate.getStateHash() ^ humanResource.getRosterHash()
+        ^ StateHash.key(StateHash.BUDGET, Math.floorDiv(ledger, Money.SCALE), 0, 0)
+        ^ StateHash.key(StateHash.REPUTATION, reputation, 0, 0);
+  }
+
+  /**
+   * Returns the hash of the state of the university a cycle detector compares years by: its
+   * facilities and their levels, and its roster leaving out the years of teaching. The budget and
+   * reputation are left out, as they keep moving in a cycle of years, by the same amounts on
+   * every repeat.
+   *
+   * @return the hash of the state of the university, without its budget and reputation
+   * @see CycleDetector
+   */
+  long getCycleHash() {
+    return estate.getStateHash() ^ humanResource.getCycleHash();
+  }
+
+  /**
+   * Returns the version of the university, which changes whenever the estate or the roster does or
+   * the roster might have changed by chance. Neither ever goes back to an earlier state, so years
+   * with different versions can't be repeats of each other.
+   *
+   * @return the version of the university
+   * @see Estate#getVersion()
+   * @see HumanResource#getVersion()
+   */
+  long getVersion() {
+    return ((long) estate.getVersion() << 32) | (humanResource.getVersion() & 0xFFFFFFFFL);
+  }
+
   /**
    * Returns the number of students in the university. Uses the getNumberOfStudents method in the
    * estate. Please see it for explanation.
@@ -157,12 +383,21 @@ public class University {
     return estate.getNumberOfStudents();
   }
 
+  /**
+   * Returns the number of staff in the university.
+   *
+   * @return the number of staff in the university
+   */
+  public int getNumberOfStaff() {
+    return humanResource.getNumberOfStaff();
+  }
+
   /**
    * Collects money from students. Adds 10 coins per student to the budget. Prints the amount
    * collected and the number of students.
    */
   public void collectStudentMoney() {
-    increaseBudget(getNumberOfStudents() * 10);
+    transact(TransactionJournal.STUDENT_FEES, -1, Money.times(Money.of(10), getNumberOfStudents()));
     System.out.println(
         "Collected " + getNumberOfStudents() * 10 + " coins from " + getNumberOfStudents()
             + " students.");
@@ -175,7 +410,7 @@ public class University {
    * @see Estate#collectProfits()
    */
   public void collectRecreationalProfits() {
-    increaseBudget(estate.collectProfits());
+    transact(TransactionJournal.RECREATIONAL_PROFITS, -1, estate.collectProfits());
   }
 
   /**
@@ -184,7 +419,7 @@ public class University {
    * @param amount the amount to increase the budget by
    */
   public void increaseBudget(float amount) {
-    budget += amount;
+    transact(TransactionJournal.OTHER, -1, Money.of(amount));
   }
 
   /**
@@ -199,6 +434,41 @@ public class University {
     return humanResource.hireStaff(availableStaff, budget, getAllCosts(), getNumberOfStudents());
   }
 
+  /**
+   * Hires staff from the given staff market. Uses the hireStaff method in the human resource.
+   * Please see it for explanation.
+   *
+   * @param staffMarket the staff market to hire from
+   * @see HumanResource#hireStaff(StaffMarket, float, float, int)
+   */
+  public void hireStaff(StaffMarket staffMarket) {
+    humanResource.hireStaff(staffMarket, budget, getAllCosts(), getNumberOfStudents());
+  }
+
+  /**
+   * Bids for staff on a shared staff market through the given seat. Returns the number of bids
+   * placed.
+   *
+   * @param seat the university's seat at the shared staff market
+   * @return the number of bids placed
+   * @see SharedStaffMarket.Seat#placeBids(HumanResource, float, float, int)
+   */
+  public int bidForStaff(SharedStaffMarket.Seat seat) {
+    return seat.placeBids(humanResource, budget, getAllCosts(), getNumberOfStudents());
+  }
+
+  /**
+   * Hires the staff won on a shared staff market through the given seat. Returns the number of
+   * staff hired.
+   *
+   * @param seat the university's seat at the shared staff market
+   * @return the number of staff hired
+   * @see SharedStaffMarket.Seat#hireWonStaff(HumanResource)
+   */
+  public int hireWonStaff(SharedStaffMarket.Seat seat) {
+    return seat.hireWonStaff(humanResource);
+  }
+
   /**
    * Instructs students. Returns the number of uninstructed students. Uses the instructStudents
    * method in the human resource. Please see it for explanation.
@@ -216,7 +486,7 @@ public class University {
    */
   public void payMaintenanceCosts() {
     float total = estate.getMaintenanceCost();
-    budget -= total;
+    transact(TransactionJournal.MAINTENANCE, -1, -estate.getExactMaintenanceCost());
     System.out.println("Paid " + total + " coins in maintenance costs.");
   }
 
@@ -224,7 +494,7 @@ public class University {
    * Pays staff salaries. Reduces the budget by the staff salaries. Prints the amount paid.
    */
   public void payStaffSalaries() {
-    budget -= humanResource.getSalary();
+    transact(TransactionJournal.SALARIES, -1, -humanResource.getExactSalary());
     System.out.println("Paid " + humanResource.getSalary() + " coins in staff salaries.");
   }
 
@@ -241,14 +511,13 @@ public class University {
   }
 
   /**
-   * Increases the years of teaching of all staff members by 1. Uses the getStaff method in the
-   * human resource to iterate over all staff.
+   * Increases the years of teaching of all staff members by 1. Uses the increaseStaffExperience
+   * method in the human resource, which keeps its retirement calendar in step.
+   *
+   * @see HumanResource#increaseStaffExperience()
    */
   public void increaseStaffExperience() {
-    Iterator<Staff> staff = humanResource.getStaff();
-    while (staff.hasNext()) {
-      staff.next().increaseYearsOfTeaching();
-    }
+    humanResource.increaseStaffExperience();
   }
 
   /**
@@ -303,6 +572,149 @@ public class University {
     humanResource.updateStaffRoster();
   }
 
+  /**
+   * Fast-forwards through the coming years while the university is in a steady state, returning the
+   * number of years fast-forwarded, or 0 if the coming year isn't steady. A year is steady when
+   * buildAndUpgrade can't afford to build or upgrade anything, no staff can be hired, and the
+   * roster is certain to stay the same, so the year is exactly like the one before it. The budget
+   * and reputation are then moved ahead by the deltas of a year times the number of years in one
+   * go, for as long as that's certain to last: until the budget would reach the point where
+   * something could be built or upgraded, or the first staff member would retire. The simulation
+   * falls back to simulating each year in full from there. A university with a lookahead planner is
+   * never fast-forwarded, as what the planner does can't be predicted.
+   *
+   * @param maximumYears the maximum number of years to fast-forward
+   * @param staffMarket  the staff market the university hires from
+   * @return the number of years fast-forwarded
+   * @see HumanResource#getSteadyYears(int)
+   */
+  public int fastForward(int maximumYears, StaffMarket staffMarket) {
+    int numberOfStudents = getNumberOfStudents();
+    if (maximumYears < 1 || planner != null || numberOfStudents == 0) {
+      return 0;
+    }
+    // staff are only hired when the university is understaffed and the market has staff left
+    int instructableStudents = humanResource.calculateHypotheticalInstructedStudents();
+    if (humanResource.isUnderstaffed(instructableStudents, numberOfStudents)
+        && staffMarket.getNumberOfAvailableStaff() > 0) {
+      return 0;
+    }
+    long years = Math.min(maximumYears, humanResource.getSteadyYears(numberOfStudents));
+
+    // the ledger is exact, so a year's income times the number of years is exactly what
+    // simulating the years one by one would have added up to
+    long income = Money.subtract(Money.subtract(
+        Money.times(Money.of(10 + estate.getProfitPerStudent()), numberOfStudents),
+        estate.getExactMaintenanceCost()), humanResource.getExactSalary());
+    double actionBudget = calculateActionBudget();
+    if (budget >= actionBudget) {
+      return 0;
+    }
+    if (income > 0) {
+      // the years that start below the action budget, less one so rounding can never carry the
+      // budget past it without buildAndUpgrade having a look
+      years = Math.min(years,
+          (long) Math.ceil((actionBudget - budget) / Money.toDouble(income)) - 1);
+    }
+    if (years < 1) {
+      return 0;
+    }
+
+    int uninstructedStudents = Math.max(0, numberOfStudents - instructableStudents);
+    transact(TransactionJournal.FAST_FORWARD, -1, (int) years, Money.times(income, years));
+    reputation = (int) Math.max(0, reputation - years * uninstructedStudents);
+    humanResource.fastForward((int) years);
+    return (int) years;
+  }
+
+  /**
+   * Skips whole repeats of a cycle of years the university is going round, returning the number of
+   * years skipped, or 0 if none can be. Every repeat changes the budget and reputation by the same
+   * amounts, so they are moved ahead by those amounts times the number of repeats in one go, for
+   * as long as that's certain to last: until any year of a repeat could start with a budget at
+   * which something could be built or upgraded, the reputation would bottom out, or the first
+   * staff member would retire. A university with a lookahead planner is never skipped ahead.
+   *
+   * @param maximumCycles    the maximum number of repeats to skip
+   * @param cycleLength      the number of years in the cycle
+   * @param budgetChange     the change to the exact budget over a repeat
+   * @param budgetRise       how far the budget any year of the cycle starts with is above the
+   *                         budget the cycle starts with, at least 0
+   * @param reputationChange the change to the reputation over a repeat
+   * @return the number of years skipped
+   * @see CycleDetector#skipCycles(int, University, int)
+   */
+  int skipCycles(int maximumCycles, int cycleLength, long budgetChange, long budgetRise,
+      int reputationChange) {
+    if (maximumCycles < 1 || planner != null) {
+      return 0;
+    }
+    long cycles = Math.min(maximumCycles,
+        humanResource.getYearsUntilRetirement() / cycleLength);
+    // the reputation only goes down in a cycle, and only bottoms out once it would go below 0
+    if (reputationChange < 0) {
+      cycles = Math.min(cycles, reputation / -reputationChange);
+    }
+    // the budget the cycle starts with has already moved on by one repeat, so the highest budget
+    // a skipped year starts with is the rise on top of the budget now and the repeats after it
+    double actionBudget = calculateActionBudget();
+    double highestBudget = Money.toDouble(Money.add(ledger, budgetRise));
+    if (highestBudget >= actionBudget) {
+      return 0;
+    }
+    if (budgetChange > 0) {
+      // less one so rounding can never carry the budget past it without buildAndUpgrade having a
+      // look
+      cycles = Math.min(cycles,
+          (long) Math.ceil((actionBudget - highestBudget) / Money.toDouble(budgetChange)) - 1);
+    }
+    if (cycles < 1) {
+      return 0;
+    }
+
+    int years = (int) cycles * cycleLength;
+    transact(TransactionJournal.FAST_FORWARD, -1, years, Money.times(budgetChange, cycles));
+    reputation += (int) cycles * reputationChange;
+    humanResource.fastForward(years);
+    return years;
+  }
+
+  /**
+   * Calculates the lowest budget at which buildAndUpgrade would build or upgrade anything, using
+   * the same criteria as it does. Below this budget buildAndUpgrade does nothing.
+   *
+   * @return the lowest budget at which buildAndUpgrade would build or upgrade anything
+   * @see #buildAndUpgrade()
+   */
+  private double calculateActionBudget() {
+    float allCosts = getAllCosts();
+    double actionBudget = Double.POSITIVE_INFINITY;
+    for (FacilityType type : FacilityType.getRecreationalTypes()) {
+      if (estate.getNumberOfFacilities(type) == 0) {
+        actionBudget = Math.min(actionBudget,
+            allCosts + type.getEconomics().getBuildCost() * COSTS_MODIFIER_RECREATIONAL);
+      }
+    }
+    for (int i = 0; i < estate.getNumberOfUpgradableRecreational(); i++) {
+      int id = estate.getUpgradableRecreationalId(i);
+      actionBudget =
+          Math.min(actionBudget, getUpgradeCost(id) + allCosts * COSTS_MODIFIER_RECREATIONAL);
+    }
+    // buildings are only built or upgraded above the budget limit, and then only if the cheapest
+    // of them leaves enough of the budget
+    float budgetLimit = allCosts * COSTS_MODIFIER_BUILDINGS + 450;
+    double cheapestBuilding = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < estate.getNumberOfUpgradableBuildings(); i++) {
+      cheapestBuilding = Math.min(cheapestBuilding,
+          budgetLimit + getUpgradeCost(estate.getUpgradableBuildingId(i)));
+    }
+    for (FacilityType type : FacilityType.getBuildingTypes()) {
+      cheapestBuilding = Math.min(cheapestBuilding,
+          budgetLimit - 300 + type.getEconomics().getBuildCost());
+    }
+    return Math.min(actionBudget, Math.max(budgetLimit, cheapestBuilding));
+  }
+
   /**
    * Builds and upgrades buildings. If there are no students (meaning it's the very beginning of the
    * simulation), builds a hall, lab, and theatre. Otherwise, it will check if all recreational
@@ -319,37 +731,43 @@ public class University {
    * costs of the university (to ensure that the budget won't become negative at the end of the year
    * by paying costs) by the COSTS_MODIFIER_BUILDINGS constant and adding 450.
    *
+   * <p>The planning pass scores and sorts the candidates in scratch buffers reused from year to
+   * year, so a year that builds and upgrades nothing allocates nothing.
+   *
    * @see #calculateScore(Building, String, String[])
-   * @see #sortMapByValue(LinkedHashMap)
    */
   public void buildAndUpgrade() {
     // if there are no students (very beginning of the simulation), build a hall, lab, and theatre
     if (getNumberOfStudents() == 0) {
-      build("Hall", getRandomName("Hall") + " (B" + counter++ + ")");
-      build("Lab", getRandomName("Lab") + " (B" + counter++ + ")");
-      build("Theatre", getRandomName("Theatre") + " (B" + counter++ + ")");
+      build(FacilityType.HALL, getRandomName(FacilityType.HALL), counter++);
+      build(FacilityType.LAB, getRandomName(FacilityType.LAB), counter++);
+      build(FacilityType.THEATRE, getRandomName(FacilityType.THEATRE), counter++);
       return;
     }
 
     // build unbuilt recreational facilities if possible (if budget - buildCost >= total costs + 
     // build cost of the recreational facility * COSTS_MODIFIER_RECREATIONAL)
-    String[] unbuiltRecreationalTypes = estate.getUnbuiltRecreationalTypes();
-    if (unbuiltRecreationalTypes.length != 0) {
-      for (String type : unbuiltRecreationalTypes) {
-        if ((type.equals("Cafeteria") && budget
-            >= getAllCosts() + new Cafeteria("").getBuildCost() * COSTS_MODIFIER_RECREATIONAL) || (
-            type.equals("Gym") && budget
-                >= getAllCosts() + new Gym("").getBuildCost() * COSTS_MODIFIER_RECREATIONAL)) {
-          build(type, getRandomName(type));
-        }
+    for (FacilityType type : FacilityType.getRecreationalTypes()) {
+      if (estate.getNumberOfFacilities(type) == 0 && budget >= getAllCosts()
+          + type.getEconomics().getBuildCost() * COSTS_MODIFIER_RECREATIONAL) {
+        build(type, getRandomName(type));
       }
     }
 
-    Recreational[] upgradeableRecreational = estate.getUpgradableRecreational();
-    for (Recreational recreational : upgradeableRecreational) {
-      if (budget - recreational.getUpgradeCost() >= getAllCosts() * COSTS_MODIFIER_RECREATIONAL) {
+    // the ids are copied into a scratch array as upgrading a recreational facility to its maximum
+    // level removes it from the upgradable ones
+    int numberOfRecreational = estate.getNumberOfUpgradableRecreational();
+    if (recreationalScratch.length < numberOfRecreational) {
+      recreationalScratch = new int[numberOfRecreational * 2];
+    }
+    for (int i = 0; i < numberOfRecreational; i++) {
+      recreationalScratch[i] = estate.getUpgradableRecreationalId(i);
+    }
+    for (int i = 0; i < numberOfRecreational; i++) {
+      int id = recreationalScratch[i];
+      if (budget - getUpgradeCost(id) >= getAllCosts() * COSTS_MODIFIER_RECREATIONAL) {
         try {
-          upgrade((Facility) recreational);
+          upgrade(estate.getFacility(id));
         } catch (Exception e) {
           System.out.println("Error: " + e);
           e.printStackTrace();
@@ -358,79 +776,240 @@ public class University {
 
     }
 
-    ArrayList<Building> upgradeableBuildings = new ArrayList<Building>(
-        Arrays.asList(estate.getUpgradableBuildings()));
-    // using a linked hash map to preserve the order of the buildings as regular hash maps don't
-    // preserve order, and the order is important for the algorithm
-    LinkedHashMap<Building, Float> buildingScores = new LinkedHashMap<Building, Float>();
+    if (planner != null) {
+      applyPlan();
+      return;
+    }
+
+    // the candidates are every upgradable building, followed by a new building of each type. A
+    // candidate with an id of -1 is a new building of its type
+    int numberOfUpgradable = estate.getNumberOfUpgradableBuildings();
+    FacilityType[] buildingTypes = FacilityType.getBuildingTypes();
+    int numberOfCandidates = numberOfUpgradable + buildingTypes.length;
+    ensureCandidateCapacity(numberOfCandidates);
     String[] bottleneckRankings = estate.getBottleneckRankings();
-    // calculate the score for upgrading each already built building and add them to the hash map
-    for (Building building : upgradeableBuildings) {
-      float score = calculateScore(building, "upgrade", bottleneckRankings);
-      buildingScores.put(building, score);
-    }
-    // calculate the score for building a new building of each type and add them to the hash map
-    buildingScores.put(new Hall(getRandomName("Hall")),
-        calculateScore(new Hall(""), "build", bottleneckRankings));
-    buildingScores.put(new Lab(getRandomName("Lab")),
-        calculateScore(new Lab(""), "build", bottleneckRankings));
-    buildingScores.put(new Theatre(getRandomName("Theatre")),
-        calculateScore(new Theatre(""), "build", bottleneckRankings));
-    // sort the hash map by value, so the buildings with the highest scores are first
-    buildingScores = sortMapByValue(buildingScores);
+    for (FacilityType type : buildingTypes) {
+      rankByType[type.getId()] = rankOf(type, bottleneckRankings);
+    }
+    int candidate = 0;
+    // look up the score for upgrading each already built building
+    for (int i = 0; i < numberOfUpgradable; i++) {
+      int id = estate.getUpgradableBuildingId(i);
+      FacilityType type = estate.getType(id);
+      candidateIds[candidate] = id;
+      candidateTypes[candidate] = type;
+      candidateScores[candidate] = scoreTable[scoreIndex(type, false, estate.getLevel(id),
+          rankByType[type.getId()])];
+      candidate++;
+    }
+    // look up the score for building a new building of each type, which is scored as a level 1
+    // building of the type
+    for (FacilityType type : buildingTypes) {
+      candidateIds[candidate] = -1;
+      candidateTypes[candidate] = type;
+      candidateScores[candidate] = scoreTable[scoreIndex(type, true, 1, rankByType[type.getId()])];
+      candidate++;
+    }
+    sortCandidates(numberOfCandidates);
 
     // calculate the budget limit and if we are already within or below it, return
     float budgetLimit = getAllCosts() * COSTS_MODIFIER_BUILDINGS + 450;
-    if (budget <= budgetLimit) {
+    if (budget > budgetLimit) {
+      // iterate through the sorted candidates, upgrading them if they are already built upgradable
+      // buildings and the budget after upgrading is greater than the budget limit, or building
+      // them if they are new buildings and the budget is greater than the budget limit - 300
+      for (int i = 0; i < numberOfCandidates; i++) {
+        int sorted = candidateOrder[i];
+        int id = candidateIds[sorted];
+        FacilityType type = candidateTypes[sorted];
+        if (id >= 0 && budget - getUpgradeCost(id) >= budgetLimit) {
+          int upgradeCost = getUpgradeCost(id);
+          try {
+            Facility building = estate.getFacility(id);
+            upgrade(building);
+            recordDecision("upgrade", building, candidateScores[sorted], upgradeCost);
+          } catch (Exception e) {
+            System.out.println("Error: " + e);
+            e.printStackTrace();
+          }
+        } else if (id < 0
+            && budget - type.getEconomics().getBuildCost() >= budgetLimit - 300) {
+          recordDecision("build", build(type, getRandomName(type), counter++),
+              candidateScores[sorted], type.getEconomics().getBuildCost());
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a building built or upgraded by buildAndUpgrade as a flight recorder event, if the
+   * event is enabled.
+   *
+   * @param action   "build" or "upgrade"
+   * @param facility the building built or upgraded
+   * @param score    the score the building was chosen by, NaN if it was planned
+   * @param cost     the cost of the action
+   * @see DecisionEvent
+   */
+  private void recordDecision(String action, Facility facility, float score, int cost) {
+    if (!DECISION_EVENT_TYPE.isEnabled()) {
       return;
     }
+    new DecisionEvent().commit(humanResource.getYear(), action, facility.getType().getName(),
+        facility.getId(), ((Building) facility).getLevel(), score, cost, budget);
+  }
 
-    // iterate through the sorted buildings, upgrading them if they are already built upgradable
-    // buildings and the budget after upgrading is greater than the budget limit, or building them
-    // if they are new buildings and the budget is greater than the budget limit - 300
-    for (Building building : buildingScores.keySet()) {
-      if (upgradeableBuildings.contains(building)
-          && budget - building.getUpgradeCost() >= budgetLimit) {
-        try {
-          upgrade((Facility) building);
-        } catch (Exception e) {
-          System.out.println("Error: " + e);
-          e.printStackTrace();
+  /**
+   * Sets the lookahead planner used to decide which buildings to build and upgrade, instead of
+   * scoring each candidate for the current year alone. Recreational facilities are still built and
+   * upgraded first either way.
+   *
+   * @param planner the lookahead planner, or null to go back to scoring candidates
+   * @see LookaheadPlanner
+   */
+  public void setPlanner(LookaheadPlanner planner) {
+    this.planner = planner;
+  }
+
+  /**
+   * Asks the lookahead planner for this year's builds and upgrades of buildings and carries them
+   * out, recording each as a decision with a score of NaN, as the planner values whole sequences
+   * rather than single actions. The planner works on a cheap copy of the university's state, with
+   * the staff salaries and recreational profits taken to grow with the number of students. The
+   * copy and the plan are kept in scratch buffers, so planning only allocates inside the search.
+   *
+   * @see LookaheadPlanner#plan(PlanningState, int[])
+   */
+  private void applyPlan() {
+    int students = getNumberOfStudents();
+    float salaryPerStudent = students == 0 ? 0 : humanResource.getSalary() / students;
+    if (planningState == null) {
+      planningCounts = new int[facilityTypes.length * scoreTableLevels];
+      estate.countBuildingsByLevel(planningCounts, scoreTableLevels);
+      planningState = new PlanningState(facilityTypes, scoreTableLevels, budget, reputation,
+          planningCounts, salaryPerStudent, estate.getProfitPerStudent());
+    } else {
+      Arrays.fill(planningCounts, 0);
+      estate.countBuildingsByLevel(planningCounts, scoreTableLevels);
+      planningState.reset(budget, reputation, salaryPerStudent, estate.getProfitPerStudent());
+    }
+    int numberOfActions = planner.plan(planningState, planActions);
+    for (int i = 0; i < numberOfActions; i++) {
+      int action = planActions[i];
+      FacilityType type = facilityTypes[PlanningState.typeIdOf(action)];
+      if (PlanningState.kindOf(action) == PlanningState.BUILD) {
+        recordDecision("build", build(type, getRandomName(type), counter++), Float.NaN,
+            type.getEconomics().getBuildCost());
+        continue;
+      }
+      // any upgradable building of the type and level will do, they're interchangeable
+      for (int j = 0; j < estate.getNumberOfUpgradableBuildings(); j++) {
+        int id = estate.getUpgradableBuildingId(j);
+        if (estate.getType(id) == type && estate.getLevel(id) == PlanningState.levelOf(action)) {
+          int upgradeCost = getUpgradeCost(id);
+          try {
+            Facility building = estate.getFacility(id);
+            upgrade(building);
+            recordDecision("upgrade", building, Float.NaN, upgradeCost);
+          } catch (Exception e) {
+            System.out.println("Error: " + e);
+            e.printStackTrace();
+          }
+          break;
         }
-      } else if (!upgradeableBuildings.contains(building)
-          && budget - building.getBuildCost() >= budgetLimit - 300) {
-        // type casting necessary to get the building name
-        build(building.getClass().getSimpleName(),
-            ((Facility) building).getName() + " (B" + counter++ + ")");
       }
     }
   }
 
+  /**
+   * Returns the cost of upgrading the facility in the estate with the given id, read from the
+   * economics of its type so no facility object is needed.
+   *
+   * @param id the id of the facility
+   * @return the cost of upgrading the facility
+   */
+  private int getUpgradeCost(int id) {
+    return estate.getType(id).getEconomics().getUpgradeCost(estate.getLevel(id));
+  }
+
+  /**
+   * Grows the candidate scratch buffers of buildAndUpgrade if they can't hold the given number of
+   * candidates. They're grown to twice what's needed, so they soon stop growing as the estate does.
+   *
+   * @param numberOfCandidates the number of candidates the buffers need to hold
+   */
+  private void ensureCandidateCapacity(int numberOfCandidates) {
+    if (candidateScores.length < numberOfCandidates) {
+      candidateIds = new int[numberOfCandidates * 2];
+      candidateTypes = new FacilityType[numberOfCandidates * 2];
+      candidateScores = new float[numberOfCandidates * 2];
+      candidateOrder = new int[numberOfCandidates * 2];
+      orderScratch = new int[numberOfCandidates * 2];
+    }
+  }
+
+  /**
+   * Sorts the indices of the first given number of candidates into candidateOrder, from highest to
+   * lowest score. Candidates with equal scores are ordered with the last scored first, which is
+   * the order the planning pass has always broken ties in. Uses a bottom-up merge sort over the
+   * indices, which takes O(n log n) time and only the preallocated scratch buffers.
+   *
+   * @param numberOfCandidates the number of candidates
+   */
+  private void sortCandidates(int numberOfCandidates) {
+    // starting from the last candidate and sorting stably puts later candidates first on ties
+    int[] order = candidateOrder;
+    int[] merged = orderScratch;
+    for (int i = 0; i < numberOfCandidates; i++) {
+      order[i] = numberOfCandidates - 1 - i;
+    }
+    for (int width = 1; width < numberOfCandidates; width *= 2) {
+      for (int low = 0; low < numberOfCandidates; low += 2 * width) {
+        int middle = Math.min(low + width, numberOfCandidates);
+        int high = Math.min(low + 2 * width, numberOfCandidates);
+        int left = low;
+        int right = middle;
+        for (int k = low; k < high; k++) {
+          // takes from the left run on equal scores to keep the sort stable
+          if (left < middle && (right >= high
+              || candidateScores[order[left]] >= candidateScores[order[right]])) {
+            merged[k] = order[left++];
+          } else {
+            merged[k] = order[right++];
+          }
+        }
+      }
+      int[] swap = order;
+      order = merged;
+      merged = swap;
+    }
+    candidateOrder = order;
+    orderScratch = merged;
+  }
+
   /**
    * Returns a random name for the given type of building.
    *
-   * @param type the type of building
+   * @param type the type of building, e.g. "Hall"
    * @return a random name for the given type of building
+   * @see #getRandomName(FacilityType)
    */
   public String getRandomName(String type) {
-    String[] possibleNames = null;
-    switch (type) {
-      case "Hall":
-        possibleNames = POSSIBLE_HALL_NAMES;
-        break;
-      case "Theatre":
-        possibleNames = POSSIBLE_THEATRE_NAMES;
-        break;
-      case "Lab":
-        possibleNames = POSSIBLE_LAB_NAMES;
-        break;
-      case "Cafeteria":
-        return "Exquisiette";
-      case "Gym":
-        return "Jubilee";
-      default:
-        return "";
+    FacilityType facilityType = FacilityType.fromName(type);
+    if (facilityType == null) {
+      return "";
     }
+    return getRandomName(facilityType);
+  }
+
+  /**
+   * Returns a random name for the given type of facility.
+   *
+   * @param type the type of facility
+   * @return a random name for the given type of facility
+   */
+  public String getRandomName(FacilityType type) {
+    String[] possibleNames = type.getPossibleNames();
     return possibleNames[(int) Math.round(Math.random() * (possibleNames.length - 1))];
   }
 
@@ -440,7 +1019,7 @@ public class University {
    * (bottleNeckRanking)^RANKING_MODIFIER / (upgradeCost * PRICE_MODIFIER), where the
    * bottleNeckRanking is their index in the bottle neck ranking array + 1. The reputation is 50 if
    * upgrading and 100 if building. The capacity is the capacity of the building. The rank is the
-   * index of the building's class name in the bottleneck rankings array, plus 1. The upgrade cost
+   * index of the building's category in the bottleneck rankings array, plus 1. The upgrade cost
    * is the upgrade cost of the building. The price modifier is 0.1875. The ranking modifier is
    * 3.25. The reputation modifier is 0.325. The capacity modifier is 15.
    *
@@ -456,44 +1035,50 @@ public class University {
 
     // set the reputation gained depending on whether the building is being upgraded or built
     if (reputationType.equals("upgrade")) {
-      reputationGained = 50;
+      reputationGained = UPGRADE_REPUTATION;
     } else if (reputationType.equals("build")) {
-      reputationGained = 100;
+      reputationGained = BUILD_REPUTATION;
     }
 
-    // formula explained in method description
-    score = (float) (
-        ((reputationGained * REPUTATION_MODIFIER) + (building.getCapacity() * CAPACITY_MODIFIER))
-            * Math.pow(
-            (Arrays.asList(bottleneckRankings).indexOf(building.getClass().getSimpleName()) + 1),
-            RANKING_MODIFIER) / (building.getUpgradeCost() * PRICE_MODIFIER));
+    score = calculateScore(reputationGained, building.getCapacity(), building.getUpgradeCost(),
+        rankOf(((Facility) building).getType(), bottleneckRankings));
     return score;
   }
 
   /**
-   * Sorts the given linked hash map by value, from highest to lowest. Returns the sorted map.
+   * Calculates the score for upgrading or building a building with the given capacity, upgrade
+   * cost, and bottleneck ranking. Please see the calculateScore method taking a building for
+   * explanation of the formula.
    *
-   * @param map the map to sort
-   * @return the sorted map
+   * @param reputationGained the reputation gained by upgrading or building the building
+   * @param capacity         the capacity of the building
+   * @param upgradeCost      the upgrade cost of the building
+   * @param rank             the rank of the building's category in the bottleneck rankings
+   * @return the score for upgrading or building the building
+   * @see #calculateScore(Building, String, String[])
    */
-  public LinkedHashMap<Building, Float> sortMapByValue(LinkedHashMap<Building, Float> map) {
-    // seperates the keyset and values, sorting the values
-    ArrayList<Building> buildings = new ArrayList<Building>(map.keySet());
-    ArrayList<Float> scores = new ArrayList<Float>(map.values());
-    Collections.sort(scores);
-    Collections.reverse(scores);
-    LinkedHashMap<Building, Float> sortedMap = new LinkedHashMap<Building, Float>();
-    // iterates through the sorted values, adding the corresponding building to the sorted map
-    // along with its value
-    for (Float score : scores) {
-      for (Building building : buildings) {
-        if (map.get(building) == score) {
-          sortedMap.put(building, score);
-          buildings.remove(building);
-          break;
-        }
+  private static float calculateScore(float reputationGained, int capacity, int upgradeCost,
+      int rank) {
+    // formula explained in method description
+    return (float) (((reputationGained * REPUTATION_MODIFIER) + (capacity * CAPACITY_MODIFIER))
+        * Math.pow(rank, RANKING_MODIFIER) / (upgradeCost * PRICE_MODIFIER));
+  }
+
+  /**
+   * Returns the rank of the given type of building's category in the given bottleneck rankings,
+   * which is its index in the rankings plus 1, or 0 if it's not ranked.
+   *
+   * @param type               the type of building
+   * @param bottleneckRankings the bottleneck rankings of the estate
+   * @return the rank of the type of building's category
+   */
+  private static int rankOf(FacilityType type, String[] bottleneckRankings) {
+    String category = type.getCategory().getName();
+    for (int i = 0; i < bottleneckRankings.length; i++) {
+      if (bottleneckRankings[i].equals(category)) {
+        return i + 1;
       }
     }
-    return sortedMap;
+    return 0;
   }
 }
@@ -0,0 +1,90 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.University;
+
+/**
+ * Test that the planning pass of university.University's buildAndUpgrade allocates nothing in a
+ * steady-state year, one where it scores and sorts the candidates but can't afford to build or
+ * upgrade any of them.
+ *
+ * <ul>
+ *   <li>{@link TestBuildAndUpgradeAllocation.TestSteadyStateYear}: Test a steady-state year of
+ *       buildAndUpgrade.
+ * </ul>
+ */
+@DisplayName("Test allocation of university.University's buildAndUpgrade")
+public class TestBuildAndUpgradeAllocation {
+
+  // enough steady-state years for any allocation in the planning pass to add up to more than the
+  // fixed overhead of measuring
+  private static final int YEARS = 1000;
+
+  private com.sun.management.ThreadMXBean threadBean;
+
+  /**
+   * Get the thread MX bean used to count the bytes allocated by the current thread, skipping the
+   * tests if the JVM can't count them.
+   */
+  @BeforeEach
+  public void setUp() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "The JVM can't count the bytes allocated by a thread");
+    threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported(),
+        "The JVM can't count the bytes allocated by a thread");
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  /**
+   * Test a steady-state year of buildAndUpgrade.
+   */
+  @Nested
+  @DisplayName("Test a steady-state year of buildAndUpgrade")
+  public class TestSteadyStateYear {
+
+    /**
+     * Test that buildAndUpgrade allocates nothing once the estate is built. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>University</code> with a funding of 1000.
+     *   <li>Call <code>buildAndUpgrade</code> once, building the first hall, lab, and theatre,
+     *       which leaves a budget of 400, below the budget limit.
+     *   <li>Call <code>buildAndUpgrade</code> a few times to warm it up.
+     *   <li>Check that calling <code>buildAndUpgrade</code> 1000 more times allocates less than
+     *       one byte per call and doesn't change the budget.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test buildAndUpgrade allocates nothing in a steady-state year")
+    public void testBuildAndUpgrade_SteadyStateAllocatesNothing() {
+      University university = new University(1000);
+      university.buildAndUpgrade();
+      float budget = university.getBudget();
+      for (int i = 0; i < 100; i++) {
+        university.buildAndUpgrade();
+      }
+
+      long threadId = Thread.currentThread().getId();
+      long before = threadBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < YEARS; i++) {
+        university.buildAndUpgrade();
+      }
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+      assertEquals(budget, university.getBudget(), "Nothing should have been built or upgraded");
+      assertTrue(allocated < YEARS,
+          "A steady-state year should allocate nothing, but " + YEARS + " years allocated "
+              + allocated + " bytes");
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.CycleDetector;
+import university.ListStaffMarket;
+import university.Staff;
+import university.StaffMarket;
+import university.University;
+
+/**
+ * Test that university.CycleDetector skips the repeats of a cycle of years exactly as simulating
+ * them would have played out, and only when the university is going round one.
+ *
+ * <ul>
+ *   <li>{@link TestCycleDetector.TestRepeatingState}: Test a university going round a cycle.
+ *   <li>{@link TestCycleDetector.TestChangingState}: Test a university that keeps changing.
+ * </ul>
+ */
+@DisplayName("Test university.CycleDetector")
+public class TestCycleDetector {
+
+  // the number of years the simulations run for
+  private static final int YEARS = 200;
+
+  /**
+   * Simulates a year of the given university in the same order as EcsSim's simulate.
+   *
+   * @param university  the university
+   * @param staffMarket the staff market the university hires from
+   */
+  private static void simulateYear(University university, StaffMarket staffMarket) {
+    university.buildAndUpgrade();
+    university.collectStudentMoney();
+    university.collectRecreationalProfits();
+    university.hireStaff(staffMarket);
+    int uninstructedStudents = university.instructStudents();
+    university.payMaintenanceCosts();
+    university.payStaffSalaries();
+    university.increaseStaffExperience();
+    university.decreaseReputationByUninstructedStudents(uninstructedStudents);
+    university.updateStaffRoster();
+    university.replenishAllStamina();
+  }
+
+  /**
+   * Test a university going round a cycle.
+   */
+  @Nested
+  @DisplayName("Test a university going round a cycle")
+  public class TestRepeatingState {
+
+    /**
+     * Test that the skipped years end in the same budget and reputation as simulating them. The
+     * test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create two <code>University</code>s with a funding of 1000 and an empty staff market,
+     *       and call <code>buildAndUpgrade</code> on both, building the first hall, lab, and
+     *       theatre. With no staff to hire, nothing random happens from then on, and every year
+     *       is like the one before it but for the budget and reputation.
+     *   <li>Simulate both years ahead, asking a <code>CycleDetector</code> about the first one
+     *       before every year, until it skips some years.
+     *   <li>Simulate the second one through the skipped years.
+     *   <li>Check that both universities have exactly the same budget and reputation.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test skipping a cycle is the same as simulating it")
+    public void testSkipCycles_SameAsSimulating() {
+      StaffMarket staffMarket = new ListStaffMarket(new ArrayList<Staff>());
+      University skipped = new University(1000);
+      University simulated = new University(1000);
+      skipped.buildAndUpgrade();
+      simulated.buildAndUpgrade();
+
+      CycleDetector cycleDetector = new CycleDetector();
+      int years = 0;
+      int year = 0;
+      for (; year < YEARS && years == 0; year++) {
+        years = cycleDetector.skipCycles(year, skipped, YEARS - year);
+        if (years == 0) {
+          simulateYear(skipped, staffMarket);
+          simulateYear(simulated, staffMarket);
+        }
+      }
+      assertTrue(years > 0, "The cycle detector never skipped a year");
+      assertTrue(year - 1 + years <= YEARS, "More years were skipped than were left");
+      for (int i = 0; i < years; i++) {
+        simulateYear(simulated, staffMarket);
+      }
+
+      assertEquals(simulated.getExactBudget(), skipped.getExactBudget(),
+          "The budget after skipping differs from simulating");
+      assertEquals(simulated.getReputation(), skipped.getReputation(),
+          "The reputation after skipping differs from simulating");
+    }
+
+    /**
+     * Test that the skipped years stop short of anything being built. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>University</code> with a funding of 1000 and an empty staff market, and
+     *       call <code>buildAndUpgrade</code>, building the first hall, lab, and theatre.
+     *   <li>Simulate the university for 200 years, asking a <code>CycleDetector</code> before every
+     *       year whether it can be skipped.
+     *   <li>Check that some years were skipped and that the university still ends up building,
+     *       having more students than it started with.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test skipping a cycle stops short of building")
+    public void testSkipCycles_StopsShortOfBuilding() {
+      StaffMarket staffMarket = new ListStaffMarket(new ArrayList<Staff>());
+      University university = new University(1000);
+      university.buildAndUpgrade();
+      int numberOfStudents = university.getNumberOfStudents();
+
+      CycleDetector cycleDetector = new CycleDetector();
+      int skippedYears = 0;
+      int year = 0;
+      while (year < YEARS) {
+        int years = cycleDetector.skipCycles(year, university, YEARS - year);
+        if (years == 0) {
+          simulateYear(university, staffMarket);
+          years = 1;
+        } else {
+          skippedYears += years;
+        }
+        year += years;
+      }
+
+      assertEquals(YEARS, year, "More years were skipped than were left");
+      assertTrue(skippedYears > 0, "The cycle detector never skipped a year");
+      assertTrue(university.getNumberOfStudents() > numberOfStudents,
+          "The university never built or upgraded anything");
+    }
+  }
+
+  /**
+   * Test a university that keeps changing.
+   */
+  @Nested
+  @DisplayName("Test a university that keeps changing")
+  public class TestChangingState {
+
+    /**
+     * Test that nothing is skipped while the university builds or upgrades every year. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>University</code> with a funding of 1000000 and an empty staff market.
+     *   <li>Simulate the university for 20 years, asking a <code>CycleDetector</code> before every
+     *       year whether it can be skipped.
+     *   <li>Check that no year was skipped.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test nothing is skipped while the estate changes")
+    public void testSkipCycles_NothingSkippedWhileChanging() {
+      StaffMarket staffMarket = new ListStaffMarket(new ArrayList<Staff>());
+      University university = new University(1000000);
+      CycleDetector cycleDetector = new CycleDetector();
+      for (int year = 0; year < 20; year++) {
+        assertEquals(0, cycleDetector.skipCycles(year, university, 20 - year),
+            "A year was skipped while the university was still building");
+        simulateYear(university, staffMarket);
+      }
+    }
+  }
+}
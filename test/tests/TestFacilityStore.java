@@ -0,0 +1,139 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import facilities.Facility;
+import facilities.FacilityStore;
+import facilities.FacilityType;
+import facilities.buildings.Building;
+import facilities.buildings.Hall;
+import facilities.recreational.Recreational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.Estate;
+
+/**
+ * Test that facilities.FacilityStore keeps every facility as columns, and that the facilities
+ * handed out by it and by university.Estate are handles that read and write those columns.
+ *
+ * <ul>
+ *   <li>{@link TestFacilityStore.TestColumns}: Test the columns of the store.
+ *   <li>{@link TestFacilityStore.TestHandles}: Test the handles on facilities in an estate.
+ * </ul>
+ */
+@DisplayName("Test facilities.FacilityStore")
+public class TestFacilityStore {
+
+  /**
+   * Test the columns of the store.
+   */
+  @Nested
+  @DisplayName("Test the columns of the store")
+  public class TestColumns {
+
+    /**
+     * Test that the store keeps the type, level, and name of every facility and finds the
+     * facilities of a type. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>FacilityStore</code> and add a hall, a lab, and another hall, the halls
+     *       with the same name.
+     *   <li>Check the ids, types, levels, and counts of the facilities.
+     *   <li>Give the second hall a building number and check that only its name shows it.
+     *   <li>Check that the halls are found by type in order, and that ids past the end throw.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test the type, level, and name columns")
+    public void testAdd_Columns() {
+      FacilityStore store = new FacilityStore(FacilityType.values());
+      assertEquals(0, store.add(FacilityType.HALL, "Glen Eyre"), "The first id isn't 0");
+      assertEquals(1, store.add(FacilityType.LAB, "Zepler"), "The second id isn't 1");
+      assertEquals(2, store.add(FacilityType.HALL, "Glen Eyre"), "The third id isn't 2");
+
+      assertEquals(3, store.size(), "The size is wrong");
+      assertEquals(2, store.count(FacilityType.HALL), "The number of halls is wrong");
+      assertEquals(0, store.count(FacilityType.THEATRE), "There is a theatre");
+      assertEquals(FacilityType.LAB, store.getType(1), "The type is wrong");
+      assertEquals(1, store.getLevel(2), "A new facility isn't at level 1");
+
+      store.setBuildingNumber(2, 4);
+      assertEquals("Glen Eyre", store.getName(0), "The name is wrong");
+      assertEquals("Glen Eyre (B4)", store.getName(2), "The building number isn't shown");
+
+      assertEquals(0, store.nextOfType(FacilityType.HALL, 0), "The first hall is wrong");
+      assertEquals(2, store.nextOfType(FacilityType.HALL, 1), "The second hall is wrong");
+      assertEquals(-1, store.nextOfType(FacilityType.HALL, 3), "There is a third hall");
+      assertEquals(-1, store.nextOfType(FacilityType.THEATRE, 0), "There is a theatre");
+      assertThrows(IndexOutOfBoundsException.class, () -> store.getFacility(3));
+    }
+  }
+
+  /**
+   * Test the handles on facilities in an estate.
+   */
+  @Nested
+  @DisplayName("Test the handles on facilities")
+  public class TestHandles {
+
+    /**
+     * Test that handles on the same facility are equal and see each other's changes, and that the
+     * estate keeps its totals up to date through them. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create an <code>Estate</code>, add a hall and a gym, and get a second handle on the
+     *       hall by its id.
+     *   <li>Check that the handles are different objects, but equal, of the hall's class, and in
+     *       the estate, while a standalone hall of the same name isn't.
+     *   <li>Upgrade the hall through one handle and check that the other sees the new level and
+     *       capacity, and that the estate's capacity and state hash changed.
+     *   <li>Upgrade the gym and check that the estate's profit per student went up.
+     *   <li>Check that the facilities of the estate, read through its list, are the same
+     *       facilities.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test handles share the facility")
+    public void testGetFacility_HandlesShareTheFacility() {
+      Estate estate = new Estate();
+      Facility hall = estate.addFacility(FacilityType.HALL, "Glen Eyre");
+      Facility gym = estate.addFacility(FacilityType.GYM, "Jubilee");
+      Facility sameHall = estate.getFacility(hall.getId());
+
+      assertNotSame(hall, sameHall, "The handles are the same object");
+      assertEquals(hall, sameHall, "Handles on the same facility aren't equal");
+      assertEquals(hall.hashCode(), sameHall.hashCode(), "The handles' hash codes differ");
+      assertNotEquals(hall, gym, "Handles on different facilities are equal");
+      assertEquals(Hall.class, sameHall.getClass(), "The handle isn't a hall");
+      assertTrue(estate.contains(sameHall), "The handle isn't in the estate");
+      assertFalse(estate.contains(new Hall("Glen Eyre")), "A standalone hall is in the estate");
+
+      int capacity = estate.getCapacity(FacilityType.HALL);
+      long stateHash = estate.getStateHash();
+      ((Building) hall).increaseLevel();
+      assertEquals(2, ((Building) sameHall).getLevel(), "The other handle isn't upgraded");
+      assertEquals(((Building) hall).getCapacity(), ((Building) sameHall).getCapacity(),
+          "The handles' capacities differ");
+      assertEquals(capacity * 2, estate.getCapacity(FacilityType.HALL),
+          "The estate's capacity wasn't updated");
+      assertNotEquals(stateHash, estate.getStateHash(), "The state hash wasn't updated");
+
+      int profitPerStudent = estate.getProfitPerStudent();
+      ((Recreational) gym).increaseLevel();
+      assertEquals(((Recreational) gym).getProfit(), estate.getProfitPerStudent(),
+          "The profit per student wasn't updated");
+      assertTrue(estate.getProfitPerStudent() > profitPerStudent,
+          "The profit per student didn't go up");
+
+      assertArrayEquals(new Facility[] {sameHall, gym}, estate.getFacilities(),
+          "The facilities of the estate are wrong");
+    }
+  }
+}
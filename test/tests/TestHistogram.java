@@ -0,0 +1,224 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import metrics.ConcurrentHistogram;
+import metrics.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test that metrics.Histogram finds percentiles to within the width of a bucket, and that
+ * metrics.ConcurrentHistogram counts every value recorded by several threads at once.
+ *
+ * <ul>
+ *   <li>{@link TestHistogram.TestPercentiles}: Test the percentiles of a histogram.
+ *   <li>{@link TestHistogram.TestConcurrentRecording}: Test recording from several threads.
+ * </ul>
+ */
+@DisplayName("Test metrics.Histogram and metrics.ConcurrentHistogram")
+public class TestHistogram {
+
+  // the number of threads recording in the threaded tests, and the values every thread records
+  private static final int THREADS = 8;
+  private static final int VALUES = 10_000;
+  // the percentiles compared between histograms
+  private static final double[] PERCENTILES = {0, 1, 25, 50, 90, 99, 99.9, 100};
+
+  /**
+   * Test the percentiles of a histogram.
+   */
+  @Nested
+  @DisplayName("Test the percentiles of a histogram")
+  public class TestPercentiles {
+
+    /**
+     * Test that small values get a bucket each and their percentiles are exact. The test sequence
+     * is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>Histogram</code> and record the values 1 to 100.
+     *   <li>Check the count, minimum, maximum, and mean.
+     *   <li>Check that the percentiles of the values below 64 are exact, and that those above
+     *       stay within their bucket of 2 and never pass the biggest value.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test percentiles of small values")
+    public void testGetValueAtPercentile_SmallValues() {
+      Histogram histogram = new Histogram();
+      for (int value = 1; value <= 100; value++) {
+        histogram.record(value);
+      }
+
+      assertEquals(100, histogram.getCount(), "The count is wrong");
+      assertEquals(1, histogram.getMinimum(), "The minimum is wrong");
+      assertEquals(100, histogram.getMaximum(), "The maximum is wrong");
+      assertEquals(50.5, histogram.getMean(), "The mean is wrong");
+      assertEquals(1, histogram.getValueAtPercentile(0), "The 0th percentile isn't the minimum");
+      assertEquals(1, histogram.getValueAtPercentile(1), "The 1st percentile is wrong");
+      assertEquals(50, histogram.getValueAtPercentile(50), "The median is wrong");
+      assertEquals(63, histogram.getValueAtPercentile(63), "The 63rd percentile is wrong");
+      assertEquals(99, histogram.getValueAtPercentile(99), "The 99th percentile is wrong");
+      assertEquals(100, histogram.getValueAtPercentile(100),
+          "The 100th percentile isn't the maximum");
+      assertEquals(100, histogram.getValueAtPercentile(150),
+          "A percentile over 100 isn't the maximum");
+    }
+
+    /**
+     * Test that the percentiles of big values are off by no more than the width of a bucket. The
+     * test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>Histogram</code> and record the values 1000 to 1000000 in steps of
+     *       1000.
+     *   <li>Check that every percentile is at or above the exact value and within a 32nd of it.
+     *   <li>Record Long.MAX_VALUE and check that it's the 100th percentile.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test percentiles of big values are within a bucket")
+    public void testGetValueAtPercentile_BigValues() {
+      Histogram histogram = new Histogram();
+      for (int i = 1; i <= 1000; i++) {
+        histogram.record(1000L * i);
+      }
+
+      for (int percentile = 1; percentile <= 100; percentile++) {
+        long exact = 10_000L * percentile;
+        long value = histogram.getValueAtPercentile(percentile);
+        assertTrue(value >= exact && value <= exact + exact / 32,
+            "The " + percentile + "th percentile " + value + " isn't within a bucket of " + exact);
+      }
+      histogram.record(Long.MAX_VALUE);
+      assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100),
+          "The 100th percentile isn't the biggest long");
+    }
+
+    /**
+     * Test that an empty histogram and negative values read as 0. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>Histogram</code> and check that its count, minimum, maximum, mean, and
+     *       median are all 0.
+     *   <li>Record -5 and check that it was recorded as 0.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test empty histograms and negative values")
+    public void testRecord_EmptyAndNegative() {
+      Histogram histogram = new Histogram();
+      assertEquals(0, histogram.getCount(), "An empty histogram has a count");
+      assertEquals(0, histogram.getMinimum(), "An empty histogram has a minimum");
+      assertEquals(0, histogram.getMaximum(), "An empty histogram has a maximum");
+      assertEquals(0, histogram.getMean(), "An empty histogram has a mean");
+      assertEquals(0, histogram.getValueAtPercentile(50), "An empty histogram has a median");
+
+      histogram.record(-5);
+      assertEquals(1, histogram.getCount(), "The negative value wasn't recorded");
+      assertEquals(0, histogram.getMinimum(), "The negative value wasn't recorded as 0");
+      assertEquals(0, histogram.getValueAtPercentile(100),
+          "The negative value wasn't recorded as 0");
+    }
+  }
+
+  /**
+   * Test recording from several threads.
+   */
+  @Nested
+  @DisplayName("Test recording from several threads")
+  public class TestConcurrentRecording {
+
+    /**
+     * Test that a snapshot of a concurrent histogram and merged per-thread histograms agree with a
+     * single histogram of the same values. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>ConcurrentHistogram</code> of 2 stripes, fewer than the threads so they
+     *       share stripes, and a <code>Histogram</code> for every thread.
+     *   <li>Have 8 threads, all released at once, record the values 0 to 9999 into both the
+     *       concurrent histogram and their own histogram.
+     *   <li>Add the per-thread histograms up, and record the same values into a single histogram.
+     *   <li>Check that the snapshot and the merged histogram have the same count, minimum,
+     *       maximum, mean, and percentiles as the single histogram.
+     * </ul>
+     *
+     * @throws InterruptedException if the test is interrupted waiting for the threads
+     */
+    @Test
+    @DisplayName("Test snapshots and merges count every value")
+    public void testSnapshot_CountsEveryValue() throws InterruptedException {
+      ConcurrentHistogram concurrentHistogram = new ConcurrentHistogram(2);
+      Histogram[] histograms = new Histogram[THREADS];
+      CountDownLatch start = new CountDownLatch(1);
+      Thread[] threads = new Thread[THREADS];
+      for (int i = 0; i < THREADS; i++) {
+        Histogram histogram = new Histogram();
+        histograms[i] = histogram;
+        threads[i] = new Thread(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int value = 0; value < VALUES; value++) {
+            concurrentHistogram.record(value);
+            histogram.record(value);
+          }
+        });
+        threads[i].start();
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      Histogram merged = new Histogram();
+      Histogram expected = new Histogram();
+      for (int i = 0; i < THREADS; i++) {
+        merged.add(histograms[i]);
+        for (int value = 0; value < VALUES; value++) {
+          expected.record(value);
+        }
+      }
+      Histogram snapshot = concurrentHistogram.snapshot();
+      for (Histogram histogram : new Histogram[] {snapshot, merged}) {
+        assertEquals(THREADS * VALUES, histogram.getCount(), "A value went missing");
+        assertEquals(0, histogram.getMinimum(), "The minimum is wrong");
+        assertEquals(VALUES - 1, histogram.getMaximum(), "The maximum is wrong");
+        assertEquals(expected.getMean(), histogram.getMean(), "The mean is wrong");
+        for (double percentile : PERCENTILES) {
+          assertEquals(expected.getValueAtPercentile(percentile),
+              histogram.getValueAtPercentile(percentile),
+              "The " + percentile + "th percentile is wrong");
+        }
+      }
+    }
+
+    /**
+     * Test that the number of stripes is rounded up to a power of two and checked. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Check that 1, 3, and 1024 stripes become 1, 4, and 1024.
+     *   <li>Check that 0 and 1025 stripes throw.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test the number of stripes")
+    public void testConcurrentHistogram_NumberOfStripes() {
+      assertEquals(1, new ConcurrentHistogram(1).getNumberOfStripes(), "1 stripe isn't 1");
+      assertEquals(4, new ConcurrentHistogram(3).getNumberOfStripes(), "3 stripes aren't 4");
+      assertEquals(1024, new ConcurrentHistogram(1024).getNumberOfStripes(),
+          "1024 stripes aren't 1024");
+      assertThrows(IllegalArgumentException.class, () -> new ConcurrentHistogram(0));
+      assertThrows(IllegalArgumentException.class, () -> new ConcurrentHistogram(1025));
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.Money;
+
+/**
+ * Test that university.Money rounds amounts of money to the nearest unit, keeps sums exact, and
+ * throws rather than silently overflowing.
+ *
+ * <ul>
+ *   <li>{@link TestMoney.TestRounding}: Test rounding amounts of money.
+ *   <li>{@link TestMoney.TestOverflow}: Test amounts of money too big to be kept.
+ * </ul>
+ */
+@DisplayName("Test university.Money")
+public class TestMoney {
+
+  // the largest whole number of coins that can be kept
+  private static final long MAXIMUM_COINS = Long.MAX_VALUE / Money.SCALE;
+
+  /**
+   * Test rounding amounts of money.
+   */
+  @Nested
+  @DisplayName("Test rounding amounts of money")
+  public class TestRounding {
+
+    /**
+     * Test that amounts of coins are rounded to the nearest unit. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Check that whole and fractional numbers of coins, positive and negative, are kept as
+     *       the right number of units.
+     *   <li>Check that 0.4 and 0.6 of a unit round down and up, either side of 0.
+     *   <li>Check that tenths of a coin are kept as the right number of units.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test amounts of coins round to the nearest unit")
+    public void testOf_RoundsToNearestUnit() {
+      assertEquals(10 * Money.SCALE, Money.of(10), "10 coins aren't 10 coins");
+      assertEquals(12_500, Money.of(1.25), "1.25 coins aren't 12500 units");
+      assertEquals(-25_000, Money.of(-2.5), "-2.5 coins aren't -25000 units");
+      assertEquals(0, Money.of(0.00004), "0.4 of a unit doesn't round down");
+      assertEquals(1, Money.of(0.00006), "0.6 of a unit doesn't round up");
+      assertEquals(0, Money.of(-0.00004), "-0.4 of a unit doesn't round up");
+      assertEquals(-1, Money.of(-0.00006), "-0.6 of a unit doesn't round down");
+      assertEquals(Money.of(0.3), Money.ofTenths(3), "3 tenths aren't 0.3 coins");
+    }
+
+    /**
+     * Test that a long run of small amounts adds up exactly where a float wouldn't. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Start from a budget of 10 million coins and add a fee of 10.5 coins a million times,
+     *       both as an amount of money and as a float.
+     *   <li>Check that the amount of money is exactly 20.5 million coins.
+     *   <li>Check that the float isn't, which is what the amounts of money are for.
+     *   <li>Check that the sum matches times and converts back to the same number of coins.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test sums of amounts of money stay exact")
+    public void testAdd_StaysExact() {
+      long budget = Money.of(10_000_000);
+      float floatBudget = 10_000_000f;
+      long fee = Money.ofTenths(105);
+      for (int i = 0; i < 1_000_000; i++) {
+        budget = Money.add(budget, fee);
+        floatBudget += 10.5f;
+      }
+
+      assertEquals(Money.of(20_500_000), budget, "The sum of the fees isn't exact");
+      assertNotEquals(20_500_000f, floatBudget, "A float budget didn't drift");
+      assertEquals(Money.add(Money.of(10_000_000), Money.times(fee, 1_000_000)), budget,
+          "The sum of the fees isn't the fee times the number of fees");
+      assertEquals(20_500_000.0, Money.toDouble(budget), "The budget isn't 20.5 million coins");
+      assertEquals(Money.of(-5), Money.subtract(Money.of(5), Money.of(10)),
+          "5 coins less 10 coins isn't -5 coins");
+    }
+  }
+
+  /**
+   * Test amounts of money too big to be kept.
+   */
+  @Nested
+  @DisplayName("Test amounts of money too big to be kept")
+  public class TestOverflow {
+
+    /**
+     * Test that making an amount too big to be kept throws. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Check that the largest whole number of coins can be kept, and one more coin can't.
+     *   <li>Check that a double number of coins out of range, infinite or not a number throws.
+     *   <li>Check that too many tenths of a coin throws.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test making an amount too big to be kept throws")
+    public void testOf_Overflow() {
+      assertEquals(MAXIMUM_COINS * Money.SCALE, Money.of(MAXIMUM_COINS),
+          "The largest number of coins can't be kept");
+      assertThrows(ArithmeticException.class, () -> Money.of(MAXIMUM_COINS + 1));
+      assertThrows(ArithmeticException.class, () -> Money.of(-MAXIMUM_COINS - 1));
+      assertThrows(ArithmeticException.class, () -> Money.of(1e20));
+      assertThrows(ArithmeticException.class, () -> Money.of(-1e20));
+      assertThrows(ArithmeticException.class, () -> Money.of(Double.POSITIVE_INFINITY));
+      assertThrows(ArithmeticException.class, () -> Money.of(Double.NaN));
+      assertThrows(ArithmeticException.class, () -> Money.ofTenths(Long.MAX_VALUE / 100));
+    }
+
+    /**
+     * Test that adding, subtracting or multiplying past the range throws. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Check that adding 1 unit to the largest amount throws.
+     *   <li>Check that subtracting 1 unit from the smallest amount throws.
+     *   <li>Check that multiplying half the largest amount by 3 throws, and by 2 doesn't.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test arithmetic past the range throws")
+    public void testArithmetic_Overflow() {
+      assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+      assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+      assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+      assertEquals(Long.MAX_VALUE - 1, Money.times(Long.MAX_VALUE / 2, 2),
+          "Twice half the largest amount isn't kept");
+    }
+  }
+}
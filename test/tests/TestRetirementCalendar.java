@@ -0,0 +1,174 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.HumanResource;
+import university.Staff;
+
+/**
+ * Test that university.HumanResource's retirement calendar retires staff at the first roster update
+ * after they pass 30 years of teaching, however the years of teaching were gained.
+ *
+ * <ul>
+ *   <li>{@link TestRetirementCalendar.TestRetirementTiming}: Test when staff retire.
+ * </ul>
+ */
+@DisplayName("Test university.HumanResource's retirement calendar")
+public class TestRetirementCalendar {
+
+  /**
+   * Creates a human resource department with a single staff member with the given years of
+   * teaching. Staff at full stamina never leave, so only retiring takes them off the roster.
+   *
+   * @param yearsOfTeaching the years of teaching of the staff member when hired
+   * @return the human resource department
+   */
+  private static HumanResource hire(int yearsOfTeaching) {
+    Staff staff = new Staff("Grace Hopper", 50);
+    for (int i = 0; i < yearsOfTeaching; i++) {
+      staff.increaseYearsOfTeaching();
+    }
+    HumanResource humanResource = new HumanResource();
+    humanResource.addStaff(staff);
+    return humanResource;
+  }
+
+  /**
+   * Runs the given number of years, each gaining the given number of years of teaching before the
+   * roster is updated.
+   *
+   * @param humanResource            the human resource department
+   * @param years                    the number of years
+   * @param yearsOfTeachingEveryYear the years of teaching gained every year
+   */
+  private static void runYears(HumanResource humanResource, int years,
+      int yearsOfTeachingEveryYear) {
+    for (int i = 0; i < years; i++) {
+      for (int j = 0; j < yearsOfTeachingEveryYear; j++) {
+        humanResource.increaseStaffExperience();
+      }
+      humanResource.updateStaffRoster();
+    }
+  }
+
+  /**
+   * Test when staff retire.
+   */
+  @Nested
+  @DisplayName("Test when staff retire")
+  public class TestRetirementTiming {
+
+    /**
+     * Test that a staff member hired with no years of teaching retires in the 31st year. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>HumanResource</code> with a staff member with 0 years of teaching.
+     *   <li>Run 30 years of a year of teaching and a roster update each, and check the staff member
+     *       is still there.
+     *   <li>Run one more year and check the staff member retired.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test a new staff member retires in the 31st year")
+    public void testUpdateStaffRoster_RetiresAfterThirtyYears() {
+      HumanResource humanResource = hire(0);
+      runYears(humanResource, 30, 1);
+      assertEquals(1, humanResource.getNumberOfStaff(), "The staff member retired too early");
+      runYears(humanResource, 1, 1);
+      assertEquals(0, humanResource.getNumberOfStaff(), "The staff member didn't retire");
+    }
+
+    /**
+     * Test that a staff member hired with years of teaching retires once they pass 30. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>HumanResource</code> with a staff member with 25 years of teaching.
+     *   <li>Run 5 years and check the staff member is still there.
+     *   <li>Run one more year and check the staff member retired.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test a staff member hired with experience retires on time")
+    public void testUpdateStaffRoster_HiredWithExperience() {
+      HumanResource humanResource = hire(25);
+      runYears(humanResource, 5, 1);
+      assertEquals(1, humanResource.getNumberOfStaff(), "The staff member retired too early");
+      runYears(humanResource, 1, 1);
+      assertEquals(0, humanResource.getNumberOfStaff(), "The staff member didn't retire");
+    }
+
+    /**
+     * Test that a staff member hired past retirement retires at the next roster update. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>HumanResource</code> with a staff member with 35 years of teaching.
+     *   <li>Update the roster without gaining a year of teaching and check the staff member
+     *       retired.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test a staff member hired past retirement retires at once")
+    public void testUpdateStaffRoster_HiredPastRetirement() {
+      HumanResource humanResource = hire(35);
+      runYears(humanResource, 1, 0);
+      assertEquals(0, humanResource.getNumberOfStaff(), "The staff member didn't retire");
+    }
+
+    /**
+     * Test that gaining several years of teaching between roster updates doesn't delay retiring.
+     * The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>HumanResource</code> with a staff member with 0 years of teaching.
+     *   <li>Run 15 years of two years of teaching and a roster update each, and check the staff
+     *       member is still there.
+     *   <li>Run one more such year and check the staff member retired.
+     *   <li>Repeat with a staff member gaining 40 years of teaching before a single roster update,
+     *       more than the calendar has buckets.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test several years of teaching between roster updates")
+    public void testUpdateStaffRoster_SeveralYearsBetweenUpdates() {
+      HumanResource humanResource = hire(0);
+      runYears(humanResource, 15, 2);
+      assertEquals(1, humanResource.getNumberOfStaff(), "The staff member retired too early");
+      runYears(humanResource, 1, 2);
+      assertEquals(0, humanResource.getNumberOfStaff(),
+          "The staff member didn't retire once past 30 years of teaching");
+
+      humanResource = hire(0);
+      runYears(humanResource, 1, 40);
+      assertEquals(0, humanResource.getNumberOfStaff(),
+          "The staff member didn't retire once past 30 years of teaching");
+    }
+
+    /**
+     * Test that roster updates without any years of teaching gained don't retire anyone. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>HumanResource</code> with a staff member with 0 years of teaching.
+     *   <li>Run 100 roster updates without gaining a year of teaching, and check the staff member
+     *       is still there.
+     *   <li>Run 31 years of a year of teaching and a roster update each, and check the staff member
+     *       retired.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test roster updates without years of teaching retire nobody")
+    public void testUpdateStaffRoster_NoYearsOfTeaching() {
+      HumanResource humanResource = hire(0);
+      runYears(humanResource, 100, 0);
+      assertEquals(1, humanResource.getNumberOfStaff(), "The staff member retired too early");
+      runYears(humanResource, 31, 1);
+      assertEquals(0, humanResource.getNumberOfStaff(), "The staff member didn't retire");
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.SharedStaffMarket;
+import university.Staff;
+import university.StaffMarketTemplate;
+import university.University;
+
+/**
+ * Test that a university.SharedStaffMarket gives a staff member several universities bid for to
+ * the highest priority bid, whatever order the bids are placed in.
+ *
+ * <ul>
+ *   <li>{@link TestSharedStaffMarket.TestContestedHire}: Test hiring a staff member several
+ *       universities bid for.
+ * </ul>
+ */
+@DisplayName("Test university.SharedStaffMarket")
+public class TestSharedStaffMarket {
+
+  // the number of universities bidding in the threaded test, and the number of rounds it runs
+  private static final int UNIVERSITIES = 8;
+  private static final int ROUNDS = 100;
+
+  /**
+   * Creates a shared staff market of a single staff member.
+   *
+   * @return the shared staff market
+   */
+  private static SharedStaffMarket createMarket() {
+    ArrayList<Staff> availableStaff = new ArrayList<Staff>();
+    availableStaff.add(new Staff("Ada Lovelace", 50));
+    return new SharedStaffMarket(new StaffMarketTemplate(availableStaff));
+  }
+
+  /**
+   * Creates a university that has built its first hall, lab, and theatre and wants to hire staff
+   * for its students.
+   *
+   * @return the university
+   */
+  private static University createUniversity() {
+    University university = new University(1000);
+    university.buildAndUpgrade();
+    return university;
+  }
+
+  /**
+   * Test hiring a staff member several universities bid for.
+   */
+  @Nested
+  @DisplayName("Test hiring a contested staff member")
+  public class TestContestedHire {
+
+    /**
+     * Test that the higher priority bid wins whichever bid is placed first. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>SharedStaffMarket</code> of one staff member and two
+     *       <code>University</code>s, with seats of priority 1 and 2.
+     *   <li>Have the lower priority university bid first, then the higher priority one, and have
+     *       both hire the staff they won.
+     *   <li>Check that the higher priority university hired the staff member and the other didn't.
+     *   <li>Repeat with a new market, the higher priority university bidding first.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test the higher priority bid wins in either order")
+    public void testHireWonStaff_HigherPriorityWins() {
+      for (boolean lowerFirst : new boolean[] {true, false}) {
+        SharedStaffMarket staffMarket = createMarket();
+        University lower = createUniversity();
+        University higher = createUniversity();
+        SharedStaffMarket.Seat lowerSeat = staffMarket.createSeat(1);
+        SharedStaffMarket.Seat higherSeat = staffMarket.createSeat(2);
+        if (lowerFirst) {
+          assertEquals(1, lower.bidForStaff(lowerSeat), "The university didn't bid");
+          assertEquals(1, higher.bidForStaff(higherSeat), "The university didn't bid");
+        } else {
+          assertEquals(1, higher.bidForStaff(higherSeat), "The university didn't bid");
+          assertEquals(1, lower.bidForStaff(lowerSeat), "The university didn't bid");
+        }
+
+        assertEquals(0, lower.hireWonStaff(lowerSeat),
+            "The lower priority university hired the contested staff member");
+        assertEquals(1, higher.hireWonStaff(higherSeat),
+            "The higher priority university didn't hire the contested staff member");
+        assertEquals(0, staffMarket.getNumberOfAvailableStaff(),
+            "The contested staff member is still available");
+      }
+    }
+
+    /**
+     * Test that a changed priority changes the winner. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>SharedStaffMarket</code> of one staff member and two
+     *       <code>University</code>s, with seats of priority 1 and 2.
+     *   <li>Swap the priorities of the seats with <code>setPriority</code>, as the league does
+     *       every year.
+     *   <li>Have both universities bid and hire the staff they won.
+     *   <li>Check that the university of the first seat, now the higher priority, hired the staff
+     *       member.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test a swapped priority swaps the winner")
+    public void testSetPriority_SwapsWinner() {
+      SharedStaffMarket staffMarket = createMarket();
+      University first = createUniversity();
+      University second = createUniversity();
+      SharedStaffMarket.Seat firstSeat = staffMarket.createSeat(1);
+      SharedStaffMarket.Seat secondSeat = staffMarket.createSeat(2);
+      firstSeat.setPriority(2);
+      secondSeat.setPriority(1);
+      first.bidForStaff(firstSeat);
+      second.bidForStaff(secondSeat);
+
+      assertEquals(1, first.hireWonStaff(firstSeat),
+          "The university with the swapped in higher priority didn't hire the staff member");
+      assertEquals(0, second.hireWonStaff(secondSeat),
+          "The university with the swapped in lower priority hired the staff member");
+    }
+
+    /**
+     * Test that the highest priority bid wins when every university bids at once. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>SharedStaffMarket</code> of one staff member and 8
+     *       <code>University</code>s, with seats of priority 1 to 8.
+     *   <li>Have every university bid on a thread of its own, all released at once, then have
+     *       every university hire the staff it won.
+     *   <li>Check that only the university with the highest priority hired the staff member.
+     *   <li>Repeat 100 times with a new market.
+     * </ul>
+     *
+     * @throws InterruptedException if the test is interrupted waiting for the bids
+     */
+    @Test
+    @DisplayName("Test the highest priority bid wins when bidding at once")
+    public void testBidForStaff_HighestPriorityWinsConcurrently() throws InterruptedException {
+      for (int round = 0; round < ROUNDS; round++) {
+        SharedStaffMarket staffMarket = createMarket();
+        University[] universities = new University[UNIVERSITIES];
+        SharedStaffMarket.Seat[] seats = new SharedStaffMarket.Seat[UNIVERSITIES];
+        for (int i = 0; i < UNIVERSITIES; i++) {
+          universities[i] = createUniversity();
+          seats[i] = staffMarket.createSeat(i + 1);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[UNIVERSITIES];
+        for (int i = 0; i < UNIVERSITIES; i++) {
+          final int index = i;
+          threads[i] = new Thread(() -> {
+            try {
+              start.await();
+            } catch (InterruptedException e) {
+              return;
+            }
+            universities[index].bidForStaff(seats[index]);
+          });
+          threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+          thread.join();
+        }
+
+        for (int i = 0; i < UNIVERSITIES; i++) {
+          assertEquals(i == UNIVERSITIES - 1 ? 1 : 0, universities[i].hireWonStaff(seats[i]),
+              "The staff member didn't go to the highest priority bid");
+        }
+      }
+    }
+  }
+}
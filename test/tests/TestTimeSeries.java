@@ -0,0 +1,169 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import university.TimeSeries;
+
+/**
+ * Test that university.TimeSeries keeps the counts, minimums, maximums, means, and years of its
+ * points right as they are halved.
+ *
+ * <ul>
+ *   <li>{@link TestTimeSeries.TestHalving}: Test a single halving of the points.
+ *   <li>{@link TestTimeSeries.TestLongRun}: Test many halvings over a long run.
+ * </ul>
+ */
+@DisplayName("Test university.TimeSeries")
+public class TestTimeSeries {
+
+  // the names of the metrics, the second is the negative of the first so its minimum and maximum
+  // come from the other end of every point
+  private static final String[] NAMES = {"rising", "falling"};
+
+  /**
+   * Records the row of the given index in the given history, in year 3 times the index, with the
+   * values index and minus index.
+   *
+   * @param timeSeries the history
+   * @param row        the index of the row
+   */
+  private static void addRow(TimeSeries timeSeries, int row) {
+    timeSeries.add(3 * row, new double[] {row, -row});
+  }
+
+  /**
+   * Checks that the point with the given index covers exactly the rows from first to last.
+   *
+   * @param timeSeries the history
+   * @param point      the index of the point
+   * @param first      the index of the first row of the point
+   * @param last       the index of the last row of the point
+   */
+  private static void assertPoint(TimeSeries timeSeries, int point, int first, int last) {
+    String message = "Point " + point + " is wrong";
+    assertEquals(last - first + 1, timeSeries.getCount(point), message);
+    assertEquals(3 * first, timeSeries.getFirstYear(point), message);
+    assertEquals(3 * last, timeSeries.getLastYear(point), message);
+    assertEquals(first, timeSeries.getMinimum(0, point), message);
+    assertEquals(last, timeSeries.getMaximum(0, point), message);
+    assertEquals((first + last) / 2.0, timeSeries.getMean(0, point), message);
+    assertEquals(-last, timeSeries.getMinimum(1, point), message);
+    assertEquals(-first, timeSeries.getMaximum(1, point), message);
+    assertEquals(-(first + last) / 2.0, timeSeries.getMean(1, point), message);
+  }
+
+  /**
+   * Test a single halving of the points.
+   */
+  @Nested
+  @DisplayName("Test a single halving")
+  public class TestHalving {
+
+    /**
+     * Test that the points are merged in pairs once they are used up. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>TimeSeries</code> keeping at most 4 points and record 4 rows, checking
+     *       every row is a point of its own.
+     *   <li>Record a 5th row, which halves the points.
+     *   <li>Check that there are 3 points, the first two covering 2 rows each and the last the new
+     *       row, with the right counts, years, minimums, maximums, and means.
+     *   <li>Record a 6th row and check that it's merged into the last point.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test halving merges neighbouring points")
+    public void testAdd_HalvingMergesPairs() {
+      TimeSeries timeSeries = new TimeSeries(NAMES, 4);
+      for (int row = 0; row < 4; row++) {
+        addRow(timeSeries, row);
+      }
+      assertEquals(4, timeSeries.size(), "Every row isn't a point of its own");
+      for (int point = 0; point < 4; point++) {
+        assertPoint(timeSeries, point, point, point);
+      }
+
+      addRow(timeSeries, 4);
+      assertEquals(3, timeSeries.size(), "The points weren't halved");
+      assertPoint(timeSeries, 0, 0, 1);
+      assertPoint(timeSeries, 1, 2, 3);
+      assertPoint(timeSeries, 2, 4, 4);
+
+      addRow(timeSeries, 5);
+      assertEquals(3, timeSeries.size(), "The row wasn't merged into the last point");
+      assertPoint(timeSeries, 2, 4, 5);
+    }
+
+    /**
+     * Test that invalid histories and rows are rejected. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Check that an odd or too small maximum number of points throws.
+     *   <li>Check that a row with the wrong number of values throws.
+     *   <li>Check that reading a point past the end throws.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test invalid histories and rows are rejected")
+    public void testTimeSeries_Invalid() {
+      assertThrows(IllegalArgumentException.class, () -> new TimeSeries(NAMES, 3));
+      assertThrows(IllegalArgumentException.class, () -> new TimeSeries(NAMES, 0));
+      TimeSeries timeSeries = new TimeSeries(NAMES, 4);
+      assertThrows(IllegalArgumentException.class, () -> timeSeries.add(0, new double[] {1}));
+      addRow(timeSeries, 0);
+      assertThrows(IndexOutOfBoundsException.class, () -> timeSeries.getCount(1));
+      assertThrows(IndexOutOfBoundsException.class, () -> timeSeries.getMean(0, -1));
+    }
+  }
+
+  /**
+   * Test many halvings over a long run.
+   */
+  @Nested
+  @DisplayName("Test many halvings")
+  public class TestLongRun {
+
+    /**
+     * Test that a long run keeps every row in exactly one point. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>TimeSeries</code> keeping at most 4096 points, more than a chunk, and
+     *       record 100000 rows, every third year, which halves the points 5 times.
+     *   <li>Check that there are at most 4096 points and their counts add up to 100000.
+     *   <li>Check that every point but the last covers the same power of two number of rows, and
+     *       that the points follow on from each other with the right counts, years, minimums,
+     *       maximums, and means.
+     * </ul>
+     */
+    @Test
+    @DisplayName("Test a long run keeps every row in one point")
+    public void testAdd_LongRun() {
+      int rows = 100_000;
+      TimeSeries timeSeries = new TimeSeries(NAMES, 4096);
+      for (int row = 0; row < rows; row++) {
+        addRow(timeSeries, row);
+      }
+
+      assertTrue(timeSeries.size() <= 4096, "More points than the maximum were kept");
+      int rowsPerPoint = timeSeries.getCount(0);
+      assertEquals(0, rowsPerPoint & (rowsPerPoint - 1), "A point doesn't cover a power of two");
+      assertEquals(32, rowsPerPoint, "The points weren't halved 5 times");
+      int first = 0;
+      for (int point = 0; point < timeSeries.size(); point++) {
+        int count = timeSeries.getCount(point);
+        if (point < timeSeries.size() - 1) {
+          assertEquals(rowsPerPoint, count, "Point " + point + " isn't full");
+        }
+        assertPoint(timeSeries, point, first, first + count - 1);
+        first += count;
+      }
+      assertEquals(rows, first, "The counts don't add up to the number of rows");
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import university.TransactionJournal;
+
+/**
+ * Test that university.TransactionJournal writes the entries it keeps to a file oldest first,
+ * however full its ring buffer is.
+ *
+ * <ul>
+ *   <li>{@link TestTransactionJournal.TestWriteTo}: Test writing a journal to a file.
+ * </ul>
+ */
+@DisplayName("Test university.TransactionJournal")
+public class TestTransactionJournal {
+
+  // the number of entries the journals keep
+  private static final int CAPACITY = 4;
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Records the given number of entries, the entry of index i in year i for i coins covering i + 1
+   * years, writes the journal to a file, and checks that the file holds the most recent entries
+   * kept, oldest first.
+   *
+   * @param numberOfEntries the number of entries to record
+   * @throws IOException if the file can't be written or read
+   */
+  private void assertWritten(int numberOfEntries) throws IOException {
+    TransactionJournal journal = new TransactionJournal(CAPACITY);
+    for (int i = 0; i < numberOfEntries; i++) {
+      journal.record(i, TransactionJournal.OTHER, -1, i + 1, i);
+    }
+    Path file = directory.resolve("journal-" + numberOfEntries + ".bin");
+    journal.writeTo(file);
+
+    int kept = Math.min(numberOfEntries, CAPACITY);
+    ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+    String message = "The journal of " + numberOfEntries + " entries wasn't written right";
+    assertEquals(kept * TransactionJournal.ENTRY_SIZE, written.limit(), message);
+    assertEquals(kept, journal.size(), message);
+    for (int index = 0; index < kept; index++) {
+      int expected = numberOfEntries - kept + index;
+      assertEquals(expected, written.getInt(), message);
+      assertEquals(TransactionJournal.OTHER, written.getInt(), message);
+      assertEquals(-1, written.getInt(), message);
+      assertEquals(expected + 1, written.getInt(), message);
+      assertEquals(expected, written.getLong(), message);
+      assertEquals(expected, journal.getYear(index), message);
+      assertEquals(expected + 1, journal.getYears(index), message);
+      assertEquals(expected, journal.getAmount(index), message);
+    }
+  }
+
+  /**
+   * Test writing a journal to a file.
+   */
+  @Nested
+  @DisplayName("Test writing a journal to a file")
+  public class TestWriteTo {
+
+    /**
+     * Test that a journal that isn't full yet is written whole. The test sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>TransactionJournal</code> keeping 4 entries.
+     *   <li>Record 0 entries, write the journal, and check that the file is empty.
+     *   <li>Record 3 entries, write the journal, and check that the file holds all 3.
+     * </ul>
+     *
+     * @throws IOException if the file can't be written or read
+     */
+    @Test
+    @DisplayName("Test a journal that isn't full")
+    public void testWriteTo_NotFull() throws IOException {
+      assertWritten(0);
+      assertWritten(3);
+    }
+
+    /**
+     * Test that a journal holding exactly as many entries as it keeps is written whole. The test
+     * sequence is as follows.
+     *
+     * <ul>
+     *   <li>Create a <code>TransactionJournal</code> keeping 4 entries.
+     *   <li>Record 4 entries, filling the buffer with the next entry back at the start.
+     *   <li>Write the journal and check that the file holds all 4, oldest first.
+     * </ul>
+     *
+     * @throws IOException if the file can't be written or read
+     */
+    @Test
+    @DisplayName("Test a journal that is exactly full")
+    public void testWriteTo_ExactlyFull() throws IOException {
+      assertWritten(CAPACITY);
+    }
+
+    /**
+     * Test that a journal that has wrapped around is written oldest first. The test sequence is as
+     * follows.
+     *
+     * <ul>
+     *   <li>Create a <code>TransactionJournal</code> keeping 4 entries.
+     *   <li>Record 5 entries, overwriting the first one.
+     *   <li>Write the journal and check that the file holds the last 4, oldest first.
+     *   <li>Repeat with 8 and 11 entries.
+     * </ul>
+     *
+     * @throws IOException if the file can't be written or read
+     */
+    @Test
+    @DisplayName("Test a journal that has wrapped around")
+    public void testWriteTo_WrappedAround() throws IOException {
+      assertWritten(CAPACITY + 1);
+      assertWritten(2 * CAPACITY);
+      assertWritten(3 * CAPACITY - 1);
+    }
+  }
+}